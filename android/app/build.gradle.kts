@@ -24,12 +24,47 @@ android {
         targetSdk = 34
         versionCode = flutter.versionCode
         versionName = flutter.versionName
+
+        // Benchmarks de dispositivo (src/androidTest, ver FrameProcessingBenchmark)
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+    }
+
+    // Conversion YUV -> RGB nativa (src/main/cpp)
+    externalNativeBuild {
+        cmake {
+            path = file("src/main/cpp/CMakeLists.txt")
+        }
     }
 
     buildTypes {
         release {
             signingConfig = signingConfigs.getByName("debug")
         }
+        // Como release pero sin ofuscar, para medir con -Pbenchmark
+        create("benchmark") {
+            initWith(getByName("release"))
+            isDebuggable = false
+            isMinifyEnabled = false
+            isShrinkResources = false
+            matchingFallbacks += listOf("release")
+        }
+    }
+
+    // Los benchmarks no son fiables en un build depurable
+    if (project.hasProperty("benchmark")) {
+        testBuildType = "benchmark"
+    }
+
+    // Fixtures de landmarks compartidos con los benchmarks JMH de :benchmark
+    sourceSets {
+        getByName("androidTest") {
+            java.srcDir("../benchmark/src/fixtures/java")
+            resources.srcDir("../benchmark/src/fixtures/resources")
+        }
+        getByName("test") {
+            java.srcDir("../benchmark/src/fixtures/java")
+            resources.srcDir("../benchmark/src/fixtures/resources")
+        }
     }
 }
 
@@ -53,4 +88,12 @@ dependencies {
 
     // Guava (requerido por CameraX)
     implementation("com.google.guava:guava:31.1-android")
+
+    // Pruebas del motor en la JVM
+    testImplementation("junit:junit:4.13.2")
+
+    // Benchmarks de dispositivo
+    androidTestImplementation("androidx.benchmark:benchmark-junit4:1.2.4")
+    androidTestImplementation("androidx.test.ext:junit:1.1.5")
+    androidTestImplementation("androidx.test:runner:1.5.2")
 }
@@ -0,0 +1,186 @@
+package com.example.proyecto_v1_0;
+
+import android.graphics.ImageFormat;
+import android.graphics.Matrix;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.media.Image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.ExperimentalGetImage;
+import androidx.camera.core.ImageInfo;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.impl.TagBundle;
+import androidx.camera.core.impl.utils.ExifData;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * ImageProxy en memoria con el mismo layout que los de CameraX, para medir
+ * las conversiones sin camara. El contenido es un degradado fijo.
+ */
+final class FakeImageProxy implements ImageProxy {
+
+    private final int format;
+    private final int width;
+    private final int height;
+    private final PlaneProxy[] planes;
+    private final ImageInfo imageInfo;
+    private Rect cropRect;
+
+    private FakeImageProxy(int format, int width, int height, int rotation, PlaneProxy[] planes) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.planes = planes;
+        this.imageInfo = new FakeImageInfo(rotation);
+        this.cropRect = new Rect(0, 0, width, height);
+    }
+
+    /**
+     * Frame RGBA_8888 con rowPadding bytes de relleno al final de cada fila
+     */
+    static FakeImageProxy rgba(int width, int height, int rotation, int rowPadding) {
+        int rowStride = width * 4 + rowPadding;
+        ByteBuffer buffer = filled(rowStride * height);
+        return new FakeImageProxy(PixelFormat.RGBA_8888, width, height, rotation,
+                new PlaneProxy[]{new FakePlane(buffer, rowStride, 4)});
+    }
+
+    /**
+     * Frame YUV_420_888 con U y V intercalados (pixelStride 2), el layout
+     * habitual de los sensores
+     */
+    static FakeImageProxy yuv(int width, int height, int rotation) {
+        ByteBuffer y = filled(width * height);
+        ByteBuffer u = filled(width * (height / 2));
+        ByteBuffer v = filled(width * (height / 2));
+        return new FakeImageProxy(ImageFormat.YUV_420_888, width, height, rotation,
+                new PlaneProxy[]{
+                        new FakePlane(y, width, 1),
+                        new FakePlane(u, width, 2),
+                        new FakePlane(v, width, 2)
+                });
+    }
+
+    private static ByteBuffer filled(int size) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, (byte) (i * 31));
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @NonNull
+    @Override
+    public Rect getCropRect() {
+        return cropRect;
+    }
+
+    @Override
+    public void setCropRect(@Nullable Rect rect) {
+        cropRect = rect != null ? rect : new Rect(0, 0, width, height);
+    }
+
+    @Override
+    public int getFormat() {
+        return format;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @NonNull
+    @Override
+    public PlaneProxy[] getPlanes() {
+        return planes;
+    }
+
+    @NonNull
+    @Override
+    public ImageInfo getImageInfo() {
+        return imageInfo;
+    }
+
+    @Nullable
+    @Override
+    @ExperimentalGetImage
+    public Image getImage() {
+        return null;
+    }
+
+    private static final class FakePlane implements PlaneProxy {
+        private final ByteBuffer buffer;
+        private final int rowStride;
+        private final int pixelStride;
+
+        FakePlane(ByteBuffer buffer, int rowStride, int pixelStride) {
+            this.buffer = buffer;
+            this.rowStride = rowStride;
+            this.pixelStride = pixelStride;
+        }
+
+        @Override
+        public int getRowStride() {
+            return rowStride;
+        }
+
+        @Override
+        public int getPixelStride() {
+            return pixelStride;
+        }
+
+        @NonNull
+        @Override
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+    }
+
+    private static final class FakeImageInfo implements ImageInfo {
+        private final int rotation;
+
+        FakeImageInfo(int rotation) {
+            this.rotation = rotation;
+        }
+
+        @NonNull
+        @Override
+        public TagBundle getTagBundle() {
+            return TagBundle.emptyBundle();
+        }
+
+        @Override
+        public long getTimestamp() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public int getRotationDegrees() {
+            return rotation;
+        }
+
+        @NonNull
+        @Override
+        public Matrix getSensorToBufferTransformMatrix() {
+            return new Matrix();
+        }
+
+        @Override
+        public void populateExifData(@NonNull ExifData.Builder exifBuilder) {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.proyecto_v1_0;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.flutter.plugin.common.StandardMessageCodec;
+
+/**
+ * Benchmarks en dispositivo del camino caliente por frame: conversion y
+ * rotacion de frames de 640x480 (rotacion 90, la habitual en vertical),
+ * recorte a la region de la mano y codificacion de los resultados con el
+ * codec de Flutter.
+ *
+ *   ./gradlew :app:connectedBenchmarkAndroidTest -Pbenchmark
+ *
+ * Con -Pbenchmark los tests corren sobre el build type benchmark (no
+ * depurable). Las piezas en Java puro se miden tambien en la JVM con
+ * :benchmark:jmh.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameProcessingBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int ROTATION = 90;
+    private static final int ROW_PADDING = 64;
+    private static final int REGION_LEFT = 112;
+    private static final int REGION_TOP = 192;
+    private static final int REGION_SIDE = 256;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final FrameBitmapPool bitmapPool = new FrameBitmapPool();
+    private final FrameCropper cropper = new FrameCropper();
+    private final YuvConverter yuvConverter = new YuvConverter();
+    private LandmarkFrame[] landmarkFrames;
+
+    @Before
+    public void setUp() {
+        landmarkFrames = LandmarkFixtures.load();
+    }
+
+    @After
+    public void tearDown() {
+        bitmapPool.release();
+        cropper.release();
+        yuvConverter.release();
+    }
+
+    @Test
+    public void bitmapConvertRotated() {
+        FakeImageProxy frame = FakeImageProxy.rgba(WIDTH, HEIGHT, ROTATION, ROW_PADDING);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            bitmapPool.convert(frame);
+        }
+    }
+
+    @Test
+    public void bitmapConvertRegion() {
+        FakeImageProxy frame = FakeImageProxy.rgba(WIDTH, HEIGHT, ROTATION, ROW_PADDING);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            bitmapPool.convertRegion(frame, REGION_LEFT, REGION_TOP, REGION_SIDE);
+        }
+    }
+
+    @Test
+    public void strideCropRegion() {
+        FakeImageProxy frame = FakeImageProxy.rgba(WIDTH, HEIGHT, ROTATION, ROW_PADDING);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            cropper.crop(frame, REGION_LEFT, REGION_TOP, REGION_SIDE);
+        }
+    }
+
+    @Test
+    public void yuvConvertReduced() {
+        Assume.assumeTrue(YuvConverter.isAvailable());
+        FakeImageProxy frame = FakeImageProxy.yuv(WIDTH, HEIGHT, ROTATION);
+        // Frame completo ya rotado (480x640) reducido a la mitad, como en modo yuv
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            yuvConverter.convert(frame, 0, 0, HEIGHT, WIDTH, HEIGHT / 2, WIDTH / 2);
+        }
+    }
+
+    @Test
+    public void yuvConvertRegion() {
+        Assume.assumeTrue(YuvConverter.isAvailable());
+        FakeImageProxy frame = FakeImageProxy.yuv(WIDTH, HEIGHT, ROTATION);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            yuvConverter.convert(frame, REGION_LEFT, REGION_TOP, REGION_SIDE, REGION_SIDE,
+                    FrameBitmapPool.REGION_SIZE, FrameBitmapPool.REGION_SIZE);
+        }
+    }
+
+    @Test
+    public void encodeMapEvent() {
+        BenchmarkState state = benchmarkRule.getState();
+        int next = 0;
+        while (state.keepRunning()) {
+            LandmarkFrame frame = landmarkFrames[next];
+            next = (next + 1) % landmarkFrames.length;
+            StandardMessageCodec.INSTANCE.encodeMessage(LandmarkPacker.toMap(frame));
+        }
+    }
+
+    @Test
+    public void encodeBinaryEvent() {
+        BenchmarkState state = benchmarkRule.getState();
+        int next = 0;
+        while (state.keepRunning()) {
+            LandmarkFrame frame = landmarkFrames[next];
+            next = (next + 1) % landmarkFrames.length;
+            StandardMessageCodec.INSTANCE.encodeMessage(LandmarkPacker.pack(frame));
+        }
+    }
+}
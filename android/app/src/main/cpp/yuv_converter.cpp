@@ -0,0 +1,103 @@
+// Conversion YUV_420_888 -> RGB para la entrada de MediaPipe.
+//
+// En una sola pasada por pixel de salida se aplica la rotacion del frame,
+// el recorte (region del frame ya rotado) y el escalado por vecino mas
+// cercano, asi que solo se leen los pixeles YUV que se usan.
+
+#include <jni.h>
+#include <android/log.h>
+
+#include <cstdint>
+#include <vector>
+
+#define LOG_TAG "YuvConverter"
+#define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, LOG_TAG, __VA_ARGS__)
+
+namespace {
+
+inline uint8_t clamp8(int value) {
+    return static_cast<uint8_t>(value < 0 ? 0 : (value > 255 ? 255 : value));
+}
+
+// Coeficientes BT.601 de rango completo (JFIF) en punto fijo 16.16
+constexpr int kVr = 91881;   // 1.402
+constexpr int kUg = 22554;   // 0.344
+constexpr int kVg = 46802;   // 0.714
+constexpr int kUb = 116130;  // 1.772
+
+inline void yuvToRgb(int y, int u, int v, uint8_t* out) {
+    u -= 128;
+    v -= 128;
+    int base = y << 16;
+    out[0] = clamp8((base + kVr * v) >> 16);
+    out[1] = clamp8((base - kUg * u - kVg * v) >> 16);
+    out[2] = clamp8((base + kUb * u) >> 16);
+}
+
+}  // namespace
+
+extern "C" JNIEXPORT jboolean JNICALL
+Java_com_example_proyecto_1v1_10_YuvConverter_nativeConvert(
+        JNIEnv* env, jclass,
+        jobject yBuffer, jint yRowStride,
+        jobject uBuffer, jobject vBuffer, jint uvRowStride, jint uvPixelStride,
+        jint width, jint height, jint rotation,
+        jint cropLeft, jint cropTop, jint cropWidth, jint cropHeight,
+        jobject dstBuffer, jint dstWidth, jint dstHeight) {
+
+    auto* yPlane = static_cast<const uint8_t*>(env->GetDirectBufferAddress(yBuffer));
+    auto* uPlane = static_cast<const uint8_t*>(env->GetDirectBufferAddress(uBuffer));
+    auto* vPlane = static_cast<const uint8_t*>(env->GetDirectBufferAddress(vBuffer));
+    auto* dst = static_cast<uint8_t*>(env->GetDirectBufferAddress(dstBuffer));
+    if (yPlane == nullptr || uPlane == nullptr || vPlane == nullptr || dst == nullptr) {
+        LOGE("Los buffers deben ser directos");
+        return JNI_FALSE;
+    }
+    if (env->GetDirectBufferCapacity(dstBuffer) < static_cast<jlong>(dstWidth) * dstHeight * 3) {
+        LOGE("Buffer de salida demasiado pequeno");
+        return JNI_FALSE;
+    }
+
+    // Coordenada del frame rotado para cada columna de salida (se reutiliza por fila)
+    static thread_local std::vector<int> columns;
+    columns.resize(dstWidth);
+    for (int ox = 0; ox < dstWidth; ox++) {
+        columns[ox] = cropLeft + static_cast<int>(static_cast<int64_t>(ox) * cropWidth / dstWidth);
+    }
+
+    for (int oy = 0; oy < dstHeight; oy++) {
+        const int v = cropTop + static_cast<int>(static_cast<int64_t>(oy) * cropHeight / dstHeight);
+        uint8_t* row = dst + static_cast<size_t>(oy) * dstWidth * 3;
+
+        for (int ox = 0; ox < dstWidth; ox++) {
+            const int u = columns[ox];
+
+            // Frame rotado (u, v) -> sensor (x, y)
+            int x;
+            int y;
+            switch (rotation) {
+                case 90:
+                    x = v;
+                    y = height - 1 - u;
+                    break;
+                case 180:
+                    x = width - 1 - u;
+                    y = height - 1 - v;
+                    break;
+                case 270:
+                    x = width - 1 - v;
+                    y = u;
+                    break;
+                default:
+                    x = u;
+                    y = v;
+                    break;
+            }
+
+            const int luma = yPlane[y * yRowStride + x];
+            const int chroma = (y >> 1) * uvRowStride + (x >> 1) * uvPixelStride;
+            yuvToRgb(luma, uPlane[chroma], vPlane[chroma], row + ox * 3);
+        }
+    }
+    return JNI_TRUE;
+}
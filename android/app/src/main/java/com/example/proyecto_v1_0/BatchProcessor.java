@@ -0,0 +1,261 @@
+package com.example.proyecto_v1_0;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Procesa una lista de ficheros en paralelo y entrega los resultados en el
+ * orden de la lista.
+ *
+ * Cada hilo del pool crea su propio Worker (p. ej. un HandLandmarker en modo
+ * IMAGE, que no admite llamadas concurrentes) y va tomando el siguiente
+ * elemento libre. Los resultados que terminan antes de tiempo esperan en
+ * una ventana de WINDOW_PER_WORKER por hilo; un hilo no empieza un elemento
+ * que no cabe en la ventana, asi que la memoria no crece con la lista.
+ *
+ * El listener se llama siempre de uno en uno (bajo el lock del procesador)
+ * y en orden: debe volver rapido.
+ */
+final class BatchProcessor<R> {
+
+    /**
+     * Procesa un elemento. Cada instancia la usa un solo hilo.
+     */
+    interface Worker<R> {
+        R process(String path) throws Exception;
+
+        void close();
+    }
+
+    interface WorkerFactory<R> {
+        Worker<R> create() throws Exception;
+    }
+
+    interface Listener<R> {
+        /**
+         * Resultado del elemento index (o su error), con el progreso
+         */
+        void onItem(int index, String path, R result, Exception error, int completed, int total);
+
+        /**
+         * Fin del lote: todos los elementos entregados o cancelado
+         */
+        void onFinished(int completed, int failed, boolean cancelled);
+    }
+
+    private static final int WINDOW_PER_WORKER = 4;
+
+    private final WorkerFactory<R> factory;
+    private final int workers;
+    private final int window;
+
+    private final Object lock = new Object();
+    private List<String> paths;
+    private Listener<R> listener;
+    private Object[] results;
+    private Exception[] errors;
+    private boolean[] done;
+    private int nextClaim;
+    private int emitted;
+    private int failed;
+    private int aliveWorkers;
+    private boolean cancelled;
+    private boolean finished;
+
+    private ExecutorService pool;
+    private CountDownLatch finishedLatch = new CountDownLatch(0);
+
+    BatchProcessor(WorkerFactory<R> factory, int workers) {
+        this.factory = factory;
+        this.workers = Math.max(1, workers);
+        this.window = this.workers * WINDOW_PER_WORKER;
+    }
+
+    /**
+     * Un hilo por nucleo
+     */
+    static int defaultWorkers() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Empieza a procesar paths en segundo plano. Solo un lote a la vez.
+     */
+    void start(List<String> batchPaths, Listener<R> batchListener) {
+        synchronized (lock) {
+            if (pool != null) {
+                throw new IllegalStateException("Ya hay un lote en curso");
+            }
+            paths = new ArrayList<>(batchPaths);
+            listener = batchListener;
+            results = new Object[window];
+            errors = new Exception[window];
+            done = new boolean[window];
+            nextClaim = 0;
+            emitted = 0;
+            failed = 0;
+            cancelled = false;
+            finished = false;
+            finishedLatch = new CountDownLatch(1);
+            if (paths.isEmpty()) {
+                finished = true;
+                listener.onFinished(0, 0, false);
+                finishedLatch.countDown();
+                return;
+            }
+
+            int threads = Math.min(workers, paths.size());
+            aliveWorkers = threads;
+            AtomicInteger threadNumber = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(threads,
+                    runnable -> new Thread(runnable, "hand-batch-" + threadNumber.incrementAndGet()));
+            for (int i = 0; i < threads; i++) {
+                pool.execute(this::workLoop);
+            }
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Deja de empezar elementos; los que estan en curso se entregan y despues
+     * llega onFinished con cancelled a true
+     */
+    void cancel() {
+        synchronized (lock) {
+            cancelled = true;
+            lock.notifyAll();
+            finishIfDone();
+        }
+    }
+
+    /**
+     * Espera a que termine el lote en curso
+     */
+    boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch latch;
+        synchronized (lock) {
+            latch = finishedLatch;
+        }
+        return latch.await(timeout, unit);
+    }
+
+    private void workLoop() {
+        Worker<R> worker;
+        try {
+            worker = factory.create();
+        } catch (Throwable t) {
+            failRemaining(asException(t));
+            return;
+        }
+
+        try {
+            int index;
+            while ((index = claim()) >= 0) {
+                R result = null;
+                Exception error = null;
+                try {
+                    result = worker.process(paths.get(index));
+                } catch (Throwable t) {
+                    // Tambien Error (p. ej. OutOfMemoryError con una imagen enorme):
+                    // si el elemento no se completa, la entrega en orden se para
+                    error = asException(t);
+                }
+                complete(index, result, error);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            worker.close();
+        }
+    }
+
+    private static Exception asException(Throwable t) {
+        return t instanceof Exception ? (Exception) t : new ExecutionException(t.toString(), t);
+    }
+
+    /**
+     * Si no queda ningun hilo con Worker, el ultimo marca con su error los
+     * elementos pendientes para que el lote termine
+     */
+    private void failRemaining(Exception error) {
+        synchronized (lock) {
+            aliveWorkers--;
+            if (aliveWorkers > 0) {
+                return;
+            }
+        }
+        try {
+            int index;
+            while ((index = claim()) >= 0) {
+                complete(index, null, error);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Siguiente elemento a procesar, o -1 si no quedan o se ha cancelado
+     */
+    private int claim() throws InterruptedException {
+        synchronized (lock) {
+            while (!cancelled && nextClaim < paths.size() && nextClaim >= emitted + window) {
+                lock.wait();
+            }
+            if (cancelled || nextClaim >= paths.size()) {
+                return -1;
+            }
+            return nextClaim++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(int index, R result, Exception error) {
+        synchronized (lock) {
+            int slot = index % window;
+            results[slot] = result;
+            errors[slot] = error;
+            done[slot] = true;
+
+            // Entrega en orden todo lo que ya esta listo
+            while (emitted < nextClaim && done[emitted % window]) {
+                int ready = emitted % window;
+                R readyResult = (R) results[ready];
+                Exception readyError = errors[ready];
+                results[ready] = null;
+                errors[ready] = null;
+                done[ready] = false;
+                if (readyError != null) {
+                    failed++;
+                }
+                emitted++;
+                listener.onItem(emitted - 1, paths.get(emitted - 1), readyResult, readyError,
+                        emitted, paths.size());
+            }
+            lock.notifyAll();
+            finishIfDone();
+        }
+    }
+
+    private void finishIfDone() {
+        if (finished || pool == null) {
+            return;
+        }
+        if (emitted == nextClaim && (cancelled || emitted == paths.size())) {
+            finished = true;
+            pool = null;
+            listener.onFinished(emitted, failed, emitted < paths.size());
+            finishedLatch.countDown();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.proyecto_v1_0;
+
+import android.graphics.Bitmap;
+import android.graphics.ImageFormat;
+
+import androidx.camera.core.ImageProxy;
+
+import com.google.mediapipe.framework.image.BitmapImageBuilder;
+import com.google.mediapipe.framework.image.ByteBufferImageBuilder;
+import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.vision.core.ImageProcessingOptions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Convierte los ImageProxy de CameraX en imagenes de MediaPipe.
+ *
+ * Segun el formato del frame y el modo de entrada:
+ * - YUV_420_888: conversion nativa a RGB ya rotada, con el recorte y el
+ *   escalado en la misma pasada (ver YuvConverter)
+ * - RGBA sin padding ("buffer"): MediaPipe lee el plano sin copia y rota el
+ *   mismo; el ImageProxy sigue abierto hasta el envio
+ * - RGBA con recorte: se copian solo las filas de la region (FrameCropper)
+ * - modo bitmap o RGBA con padding: copia a un bitmap del pool y rotacion
+ *   fisica de los pixeles (FrameBitmapPool)
+ *
+ * Cada hueco del pipeline tiene sus propios conversores.
+ */
+final class CameraFrameConverter implements FrameConverter<ImageProxy, MediaPipeHandDetector.Input> {
+
+    /**
+     * Recibe el coste (captura -> resultado del detector) de cada frame
+     * convertido. Se mide hasta el resultado porque en "buffer" MediaPipe
+     * rota y redimensiona dentro de detectAsync, y en "yuv" eso ya esta
+     * hecho al construir la imagen.
+     */
+    interface InputCostListener {
+        void onInputCost(String path, long costNanos);
+    }
+
+    static final String PATH_YUV = "yuv";
+    static final String PATH_BUFFER = "buffer";
+
+    // En yuv el frame completo se reduce por un factor entero hasta
+    // quedarse con el lado corto mas cercano por encima de este valor
+    private static final int YUV_TARGET_SHORT_SIDE = 320;
+
+    // Benchmark de entrada: camino de los ultimos frames convertidos
+    private static final int PENDING_PATHS = 16;
+
+    // Opciones de rotacion precalculadas (0, 90, 180, 270) para no crearlas por frame
+    private static final ImageProcessingOptions[] ROTATION_OPTIONS = {
+            ImageProcessingOptions.builder().setRotationDegrees(0).build(),
+            ImageProcessingOptions.builder().setRotationDegrees(90).build(),
+            ImageProcessingOptions.builder().setRotationDegrees(180).build(),
+            ImageProcessingOptions.builder().setRotationDegrees(270).build()
+    };
+
+    private final FrameBitmapPool[] bitmapPools;
+    private final FrameCropper[] croppers;
+    private final YuvConverter[] yuvConverters;
+    private final MediaPipeHandDetector.Input[] inputs;
+
+    private volatile boolean bitmapMode;
+    private volatile InputCostListener inputCostListener;
+
+    // Timestamp de captura (ms) y camino de los frames pendientes de
+    // resultado mientras hay listener; protegidos por pendingPaths
+    private final long[] pendingTimestamps = new long[PENDING_PATHS];
+    private final String[] pendingPaths = new String[PENDING_PATHS];
+    private int pendingNext;
+
+    CameraFrameConverter(int slots) {
+        bitmapPools = new FrameBitmapPool[slots];
+        croppers = new FrameCropper[slots];
+        yuvConverters = new YuvConverter[slots];
+        inputs = new MediaPipeHandDetector.Input[slots];
+        for (int i = 0; i < slots; i++) {
+            bitmapPools[i] = new FrameBitmapPool();
+            croppers[i] = new FrameCropper();
+            yuvConverters[i] = new YuvConverter();
+            inputs[i] = new MediaPipeHandDetector.Input();
+        }
+    }
+
+    /**
+     * Fuerza la copia a bitmap con rotacion en Java para los frames RGBA
+     */
+    void setBitmapMode(boolean enabled) {
+        bitmapMode = enabled;
+    }
+
+    /**
+     * Listener del benchmark de entrada (null para no medir)
+     */
+    void setInputCostListener(InputCostListener listener) {
+        inputCostListener = listener;
+    }
+
+    @Override
+    public int width(ImageProxy frame) {
+        return isRotated(frame) ? frame.getHeight() : frame.getWidth();
+    }
+
+    @Override
+    public int height(ImageProxy frame) {
+        return isRotated(frame) ? frame.getWidth() : frame.getHeight();
+    }
+
+    @Override
+    public long timestampNanos(ImageProxy frame) {
+        return frame.getImageInfo().getTimestamp();
+    }
+
+    @Override
+    public void close(ImageProxy frame) {
+        frame.close();
+    }
+
+    @Override
+    public boolean convert(ImageProxy imageProxy, PreparedFrame<ImageProxy, MediaPipeHandDetector.Input> out) {
+        int slot = out.index;
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        int[] roiRegion = out.region;
+        boolean cropped = out.cropped;
+        boolean yuvFrame = imageProxy.getFormat() == ImageFormat.YUV_420_888;
+        boolean keepProxy = false;
+
+        MPImage mpImage;
+        ImageProcessingOptions processingOptions;
+
+        if (yuvFrame) {
+            // Conversion nativa ya rotada: la region de la mano o el frame completo reducido
+            int outWidth;
+            int outHeight;
+            ByteBuffer rgb;
+            if (cropped) {
+                int side = roiRegion[2];
+                outWidth = Math.min(side, FrameBitmapPool.REGION_SIZE);
+                outHeight = outWidth;
+                rgb = yuvConverters[slot].convert(imageProxy, roiRegion[0], roiRegion[1], side, side, outWidth, outHeight);
+            } else {
+                int factor = Math.max(1, Math.min(out.frameWidth, out.frameHeight) / YUV_TARGET_SHORT_SIDE);
+                outWidth = out.frameWidth / factor;
+                outHeight = out.frameHeight / factor;
+                rgb = yuvConverters[slot].convert(imageProxy, 0, 0, out.frameWidth, out.frameHeight, outWidth, outHeight);
+            }
+            mpImage = new ByteBufferImageBuilder(rgb, outWidth, outHeight, MPImage.IMAGE_FORMAT_RGB).build();
+            processingOptions = ROTATION_OPTIONS[0];
+        } else if (cropped && !bitmapMode) {
+            // Solo la region de la mano: se copian side filas y MediaPipe rota el recorte
+            int side = roiRegion[2];
+            mpImage = new ByteBufferImageBuilder(
+                    croppers[slot].crop(imageProxy, roiRegion[0], roiRegion[1], side),
+                    side,
+                    side,
+                    MPImage.IMAGE_FORMAT_RGBA
+            ).build();
+            processingOptions = rotationOptions(rotation);
+        } else if (cropped) {
+            FrameBitmapPool pool = bitmapPools[slot];
+            mpImage = new BitmapImageBuilder(
+                    pool.convertRegion(imageProxy, roiRegion[0], roiRegion[1], roiRegion[2])
+            ).build();
+            processingOptions = ROTATION_OPTIONS[0];
+            out.rotationNanos = pool.getLastRotationNanos();
+        } else if (!bitmapMode && isTightlyPacked(imageProxy)) {
+            // Sin copia en Java: MediaPipe lee el plano directamente y rota el mismo.
+            // El ImageProxy sigue abierto hasta que la inferencia llama a detectAsync
+            mpImage = new ByteBufferImageBuilder(
+                    imageProxy.getPlanes()[0].getBuffer(),
+                    imageProxy.getWidth(),
+                    imageProxy.getHeight(),
+                    MPImage.IMAGE_FORMAT_RGBA
+            ).build();
+            processingOptions = rotationOptions(rotation);
+            keepProxy = true;
+        } else {
+            // El bitmap es del pool del hueco: detectAsync copia los
+            // pixeles al paquete de MediaPipe antes de volver
+            FrameBitmapPool pool = bitmapPools[slot];
+            Bitmap bitmap = pool.convert(imageProxy);
+            mpImage = new BitmapImageBuilder(bitmap).build();
+            processingOptions = ROTATION_OPTIONS[0];
+            out.rotationNanos = pool.getLastRotationNanos();
+        }
+
+        // Benchmark de entrada: el coste se apunta al llegar el resultado (onResult)
+        if (inputCostListener != null) {
+            synchronized (pendingPaths) {
+                pendingTimestamps[pendingNext] = imageProxy.getImageInfo().getTimestamp() / 1_000_000L;
+                pendingPaths[pendingNext] = yuvFrame ? PATH_YUV : PATH_BUFFER;
+                pendingNext = (pendingNext + 1) % PENDING_PATHS;
+            }
+        }
+
+        MediaPipeHandDetector.Input input = inputs[slot];
+        input.image = mpImage;
+        input.options = processingOptions;
+        out.input = input;
+        return keepProxy;
+    }
+
+    @Override
+    public void onResult(long captureTimestampMs) {
+        InputCostListener listener = inputCostListener;
+        if (listener == null) {
+            return;
+        }
+
+        String path = null;
+        synchronized (pendingPaths) {
+            for (int i = 0; i < PENDING_PATHS; i++) {
+                if (pendingPaths[i] != null && pendingTimestamps[i] == captureTimestampMs) {
+                    path = pendingPaths[i];
+                    pendingPaths[i] = null;
+                    break;
+                }
+            }
+        }
+        if (path != null) {
+            long captureNanos = captureTimestampMs * 1_000_000L;
+            listener.onInputCost(path, CaptureClock.nowNanos(captureNanos) - captureNanos);
+        }
+    }
+
+    @Override
+    public void release() {
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i].image = null;
+            bitmapPools[i].release();
+            croppers[i].release();
+            yuvConverters[i].release();
+        }
+    }
+
+    private static boolean isRotated(ImageProxy frame) {
+        int rotation = frame.getImageInfo().getRotationDegrees();
+        return rotation == 90 || rotation == 270;
+    }
+
+    /**
+     * Indica si el plano RGBA no tiene padding de fila, que es lo que exige
+     * MediaPipe para envolver el ByteBuffer sin copiarlo antes
+     */
+    private static boolean isTightlyPacked(ImageProxy imageProxy) {
+        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+        ByteBuffer buffer = plane.getBuffer();
+        int rowBytes = imageProxy.getWidth() * 4;
+
+        return buffer.isDirect()
+                && plane.getPixelStride() == 4
+                && plane.getRowStride() == rowBytes
+                && buffer.capacity() == rowBytes * imageProxy.getHeight();
+    }
+
+    /**
+     * Devuelve las opciones de MediaPipe para la rotacion de CameraX
+     */
+    private static ImageProcessingOptions rotationOptions(int rotationDegrees) {
+        switch (rotationDegrees) {
+            case 90:
+                return ROTATION_OPTIONS[1];
+            case 180:
+                return ROTATION_OPTIONS[2];
+            case 270:
+                return ROTATION_OPTIONS[3];
+            default:
+                return ROTATION_OPTIONS[0];
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.proyecto_v1_0;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.Preview;
+import androidx.camera.core.ResolutionInfo;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * FrameSource de la camara frontal con CameraX: ImageAnalysis (y Preview
+ * si hay PreviewView) ligados al ciclo de vida de la Activity.
+ *
+ * Tambien decide el formato de salida del analisis segun el modo de
+ * entrada; en modo auto mide los caminos yuv y buffer con frames reales
+ * (InputPathBenchmark), vuelve a vincular la camara con cada candidato y
+ * guarda el ganador por resolucion para los siguientes arranques.
+ */
+final class CameraFrameSource implements FrameSource<ImageProxy> {
+
+    /**
+     * Errores de la camara que hay que comunicar a Flutter
+     */
+    interface ErrorListener {
+        void onError(String code, String message);
+    }
+
+    private static final String TAG = "CameraFrameSource";
+
+    // Modo de entrada a MediaPipe:
+    // - "buffer": el plano RGBA se pasa directamente y la rotacion va como opcion
+    // - "bitmap": copia a bitmap del pool y rotacion fisica de los pixeles
+    // - "yuv": la camara entrega YUV_420_888 y se convierte a RGB en nativo
+    //   (rotacion, recorte y escalado en la misma pasada, ver YuvConverter)
+    // - "auto": se elige entre "yuv" y "buffer" con un benchmark al arrancar
+    //   y el resultado se guarda por resolucion para los siguientes arranques
+    static final String INPUT_MODE_BUFFER = CameraFrameConverter.PATH_BUFFER;
+    static final String INPUT_MODE_BITMAP = "bitmap";
+    static final String INPUT_MODE_YUV = CameraFrameConverter.PATH_YUV;
+    static final String INPUT_MODE_AUTO = "auto";
+
+    private static final String PREFS_NAME = "hand_landmark";
+
+    private final CameraFrameConverter converter;
+    private final ErrorListener errorListener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Context context;
+    private Context appContext;
+    private LifecycleOwner lifecycleOwner;
+    private PreviewView previewView;
+    private Executor analyzerExecutor;
+    private ProcessCameraProvider cameraProvider;
+    private volatile Callback<ImageProxy> callback;
+
+    private volatile String inputMode = INPUT_MODE_BUFFER;
+
+    // Camino de entrada de la camara vinculada ahora (buffer, bitmap o yuv)
+    private volatile String activeInputMode = INPUT_MODE_BUFFER;
+    private volatile InputPathBenchmark inputBenchmark;
+
+    // Resolucion pedida para ImageAnalysis (en orientacion del sensor, 0 = la
+    // que elija CameraX) y la realmente negociada al vincular la camara.
+    // El Preview no se ve afectado.
+    private volatile int analysisTargetWidth = 640;
+    private volatile int analysisTargetHeight = 480;
+    private volatile Size analysisResolution;
+    private volatile int analysisRotation;
+
+    CameraFrameSource(CameraFrameConverter converter, ErrorListener errorListener) {
+        this.converter = converter;
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Activity (Context y LifecycleOwner) a la que se liga la camara, preview
+     * opcional y hilo del analizador. Se aplica en el siguiente start.
+     */
+    void attach(Context context, LifecycleOwner owner, PreviewView view, Executor executor) {
+        this.context = context;
+        this.appContext = context.getApplicationContext();
+        this.lifecycleOwner = owner;
+        this.previewView = view;
+        this.analyzerExecutor = executor;
+    }
+
+    /**
+     * Selecciona como se entregan los frames a MediaPipe (INPUT_MODE_*)
+     */
+    void setInputMode(String mode) {
+        if (INPUT_MODE_BITMAP.equals(mode) || INPUT_MODE_YUV.equals(mode) || INPUT_MODE_AUTO.equals(mode)) {
+            inputMode = mode;
+        } else {
+            inputMode = INPUT_MODE_BUFFER;
+        }
+        converter.setBitmapMode(INPUT_MODE_BITMAP.equals(inputMode));
+    }
+
+    String getInputMode() {
+        return inputMode;
+    }
+
+    String getActiveInputMode() {
+        return activeInputMode;
+    }
+
+    /**
+     * Resolucion objetivo del analisis. Se aplica al vincular la camara; el
+     * orden de ancho y alto da igual (se usa en orientacion del sensor).
+     * Con 0 CameraX elige la resolucion por defecto del dispositivo.
+     */
+    void setAnalysisResolution(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            analysisTargetWidth = 0;
+            analysisTargetHeight = 0;
+        } else {
+            analysisTargetWidth = Math.max(width, height);
+            analysisTargetHeight = Math.min(width, height);
+        }
+    }
+
+    /**
+     * Resolucion pedida y negociada del analisis, para Flutter
+     * (width/height a -1 si la camara aun no esta vinculada)
+     */
+    Map<String, Object> getAnalysisResolution() {
+        Size resolution = analysisResolution;
+        Map<String, Object> info = new HashMap<>();
+        info.put("requestedWidth", analysisTargetWidth);
+        info.put("requestedHeight", analysisTargetHeight);
+        info.put("width", resolution != null ? resolution.getWidth() : -1);
+        info.put("height", resolution != null ? resolution.getHeight() : -1);
+        info.put("rotationDegrees", analysisRotation);
+        return info;
+    }
+
+    @Override
+    public void start(Callback<ImageProxy> frameCallback) {
+        callback = frameCallback;
+        Context startContext = context;
+
+        ListenableFuture<ProcessCameraProvider> cameraProviderFuture =
+                ProcessCameraProvider.getInstance(startContext);
+
+        cameraProviderFuture.addListener(() -> {
+            try {
+                cameraProvider = cameraProviderFuture.get();
+                bindCameraUseCases();
+            } catch (ExecutionException | InterruptedException e) {
+                Log.e(TAG, "Error iniciando camara: " + e.getMessage());
+                errorListener.onError("CAMERA_ERROR", e.getMessage());
+            }
+        }, ContextCompat.getMainExecutor(startContext));
+    }
+
+    @Override
+    public void stop() {
+        callback = null;
+        if (cameraProvider != null) {
+            cameraProvider.unbindAll();
+        }
+        inputBenchmark = null;
+        converter.setInputCostListener(null);
+        previewView = null;
+    }
+
+    @Override
+    public long nowNanos(long captureNanos) {
+        return CaptureClock.nowNanos(captureNanos);
+    }
+
+    /**
+     * Vincula los casos de uso de CameraX.
+     * Si hay previewView configurado, bindea tambien el Preview use case.
+     */
+    private void bindCameraUseCases() {
+        activeInputMode = resolveInputMode();
+
+        // ImageAnalysis use case (siempre presente)
+        ImageAnalysis.Builder analysisBuilder = new ImageAnalysis.Builder()
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .setOutputImageFormat(INPUT_MODE_YUV.equals(activeInputMode)
+                        ? ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888
+                        : ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888);
+
+        ResolutionSelector resolutionSelector = analysisResolutionSelector();
+        if (resolutionSelector != null) {
+            analysisBuilder.setResolutionSelector(resolutionSelector);
+        }
+        ImageAnalysis imageAnalysis = analysisBuilder.build();
+        analysisResolution = null;
+
+        imageAnalysis.setAnalyzer(analyzerExecutor, imageProxy -> {
+            Callback<ImageProxy> current = callback;
+            if (current != null) {
+                current.onFrame(imageProxy);
+            } else {
+                imageProxy.close();
+            }
+        });
+
+        // Camera selector (camara frontal)
+        CameraSelector cameraSelector = CameraSelector.DEFAULT_FRONT_CAMERA;
+
+        try {
+            // Desvincular casos de uso anteriores
+            cameraProvider.unbindAll();
+
+            if (previewView != null) {
+                // Modo con preview: bindear Preview + ImageAnalysis
+                Preview preview = new Preview.Builder().build();
+                preview.setSurfaceProvider(previewView.getSurfaceProvider());
+
+                cameraProvider.bindToLifecycle(
+                        lifecycleOwner,
+                        cameraSelector,
+                        preview,
+                        imageAnalysis
+                );
+
+                Log.d(TAG, "Camara iniciada con preview + analisis");
+            } else {
+                // Modo headless: solo ImageAnalysis (compatibilidad con test_pantalla_curso)
+                cameraProvider.bindToLifecycle(
+                        lifecycleOwner,
+                        cameraSelector,
+                        imageAnalysis
+                );
+
+                Log.d(TAG, "Camara iniciada en modo headless (solo analisis)");
+            }
+
+            ResolutionInfo resolutionInfo = imageAnalysis.getResolutionInfo();
+            if (resolutionInfo != null) {
+                analysisResolution = resolutionInfo.getResolution();
+                analysisRotation = resolutionInfo.getRotationDegrees();
+                Log.d(TAG, "Resolucion de analisis: " + analysisResolution
+                        + " (pedida " + analysisTargetWidth + "x" + analysisTargetHeight + ")");
+            }
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error vinculando camara: " + e.getMessage());
+            errorListener.onError("CAMERA_BIND_ERROR", e.getMessage());
+        }
+    }
+
+    /**
+     * Camino de entrada para la siguiente vinculacion de la camara. En modo
+     * auto usa el resultado guardado o arranca el benchmark (primero yuv,
+     * luego buffer).
+     */
+    private String resolveInputMode() {
+        String mode = inputMode;
+        if (INPUT_MODE_YUV.equals(mode)) {
+            return YuvConverter.isAvailable() ? INPUT_MODE_YUV : INPUT_MODE_BUFFER;
+        }
+        if (!INPUT_MODE_AUTO.equals(mode)) {
+            return mode;
+        }
+        if (!YuvConverter.isAvailable()) {
+            return INPUT_MODE_BUFFER;
+        }
+
+        InputPathBenchmark benchmark = inputBenchmark;
+        if (benchmark != null) {
+            return benchmark.isDone() ? benchmark.winner() : benchmark.current();
+        }
+
+        String saved = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .getString(inputPathKey(), null);
+        if (saved != null) {
+            return saved;
+        }
+
+        inputBenchmark = new InputPathBenchmark(INPUT_MODE_YUV, INPUT_MODE_BUFFER);
+        converter.setInputCostListener(this::recordInputCost);
+        Log.d(TAG, "Benchmark de entrada iniciado");
+        return INPUT_MODE_YUV;
+    }
+
+    /**
+     * Apunta el coste de un frame en el benchmark de entrada y, al terminar
+     * un candidato, vuelve a vincular la camara con el siguiente (o con el
+     * ganador, que se guarda para los siguientes arranques)
+     */
+    private void recordInputCost(String path, long costNanos) {
+        InputPathBenchmark benchmark = inputBenchmark;
+        if (benchmark == null || !benchmark.record(path, costNanos)) {
+            return;
+        }
+
+        mainHandler.post(() -> {
+            if (inputBenchmark != benchmark || cameraProvider == null || callback == null) {
+                return;
+            }
+            if (benchmark.isDone()) {
+                String winner = benchmark.winner();
+                Log.d(TAG, "Benchmark de entrada: " + benchmark.summary() + " -> " + winner);
+                appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                        .edit()
+                        .putString(inputPathKey(), winner)
+                        .apply();
+                inputBenchmark = null;
+                converter.setInputCostListener(null);
+                if (winner.equals(activeInputMode)) {
+                    return;
+                }
+            }
+            bindCameraUseCases();
+        });
+    }
+
+    private String inputPathKey() {
+        return "inputPath_" + analysisTargetWidth + "x" + analysisTargetHeight;
+    }
+
+    /**
+     * Selector de resolucion del analisis: la mas cercana por debajo a la
+     * objetivo (o por encima si no hay ninguna menor), con la relacion de
+     * aspecto mas parecida. null si se deja la resolucion por defecto.
+     */
+    private ResolutionSelector analysisResolutionSelector() {
+        int width = analysisTargetWidth;
+        int height = analysisTargetHeight;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        float ratio = width / (float) height;
+        AspectRatioStrategy aspectRatio = Math.abs(ratio - 4f / 3f) <= Math.abs(ratio - 16f / 9f)
+                ? AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY
+                : AspectRatioStrategy.RATIO_16_9_FALLBACK_AUTO_STRATEGY;
+
+        return new ResolutionSelector.Builder()
+                .setAspectRatioStrategy(aspectRatio)
+                .setResolutionStrategy(new ResolutionStrategy(
+                        new Size(width, height),
+                        ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                .build();
+    }
+}
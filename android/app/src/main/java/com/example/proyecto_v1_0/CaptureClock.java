@@ -0,0 +1,35 @@
+package com.example.proyecto_v1_0;
+
+import android.os.SystemClock;
+
+/**
+ * Reloj de los timestamps de captura de la camara.
+ *
+ * ImageInfo.getTimestamp() viene del sensor, normalmente en la base de
+ * SystemClock.elapsedRealtimeNanos() (SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME),
+ * pero en algunos dispositivos usa la de System.nanoTime() (uptime, sin el
+ * tiempo en suspension). Para medir la latencia captura -> resultado se lee
+ * "ahora" en el reloj que este mas cerca del timestamp de captura: los dos
+ * solo difieren en el tiempo que el dispositivo ha estado suspendido.
+ */
+final class CaptureClock {
+
+    private CaptureClock() {
+    }
+
+    /**
+     * Instante actual en ns en la misma base que captureNanos
+     */
+    static long nowNanos(long captureNanos) {
+        long realtime = SystemClock.elapsedRealtimeNanos();
+        long uptime = System.nanoTime();
+        return Math.abs(realtime - captureNanos) <= Math.abs(uptime - captureNanos) ? realtime : uptime;
+    }
+
+    /**
+     * Instante actual en ms en la misma base que captureMillis
+     */
+    static long nowMillis(long captureMillis) {
+        return nowNanos(captureMillis * 1_000_000L) / 1_000_000L;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.proyecto_v1_0;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * ByteBuffer directo reutilizado cuya capacidad es exactamente la pedida.
+ *
+ * ByteBufferImageBuilder de MediaPipe compara la capacidad del buffer (no
+ * su limite) con ancho x alto x canales, asi que un buffer reutilizado mas
+ * grande que la imagen hace fallar detectAsync. La memoria se reserva una
+ * vez para el tamano mayor y se devuelve un slice() exacto de ella, que solo
+ * se vuelve a crear cuando cambia el tamano.
+ *
+ * No es thread-safe: lo usa un solo hilo.
+ */
+final class ExactDirectBuffer {
+
+    private ByteBuffer backing;
+    private ByteBuffer view;
+
+    /**
+     * Devuelve un buffer de capacidad bytes, con posicion 0 y limite bytes.
+     * reserveBytes es lo que conviene reservar si hay que crecer (el tamano
+     * maximo esperado). Invalida el buffer devuelto en la llamada anterior.
+     */
+    ByteBuffer get(int bytes, int reserveBytes) {
+        if (view == null || view.capacity() != bytes) {
+            if (backing == null || backing.capacity() < bytes) {
+                backing = ByteBuffer.allocateDirect(Math.max(bytes, reserveBytes))
+                        .order(ByteOrder.nativeOrder());
+            }
+            backing.clear();
+            backing.limit(bytes);
+            view = backing.slice().order(ByteOrder.nativeOrder());
+        }
+        view.clear();
+        return view;
+    }
+
+    /**
+     * Libera la memoria
+     */
+    void release() {
+        backing = null;
+        view = null;
+    }
+}
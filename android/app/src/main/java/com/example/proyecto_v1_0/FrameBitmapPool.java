@@ -0,0 +1,238 @@
+package com.example.proyecto_v1_0;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool de bitmaps para convertir frames RGBA_8888 de CameraX sin reservar
+ * memoria por frame.
+ *
+ * Cada entrada se indexa por (ancho, alto, rotacion) y guarda:
+ * - el bitmap con padding donde se copia el plano tal cual (rowStride incluido)
+ * - el bitmap destino ya recortado y rotado
+ * - el Canvas que dibuja uno sobre otro con la rotacion precalculada
+ *
+ * En regimen estable (misma resolucion y rotacion) convert() solo copia
+ * pixeles dentro de memoria ya reservada. convertRegion() dibuja solo una
+ * region del frame rotado en un bitmap fijo de REGION_SIZE, sin rotar el
+ * frame completo. No es thread-safe: se usa desde el hilo del analizador.
+ */
+final class FrameBitmapPool {
+
+    private static final int MAX_ENTRIES = 3;
+    static final int REGION_SIZE = 256;
+
+    private final Entry[] entries = new Entry[MAX_ENTRIES];
+    private int nextVictim = 0;
+
+    private Bitmap regionBitmap;
+    private Canvas regionCanvas;
+    private final Matrix regionMatrix = new Matrix();
+    private final Paint regionPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private long lastRotationNanos = -1;
+
+    /**
+     * Copia el plano RGBA del ImageProxy en un bitmap del pool, recortando
+     * el padding de fila y aplicando la rotacion indicada por CameraX.
+     *
+     * El bitmap devuelto pertenece al pool y se sobrescribe en la siguiente
+     * llamada con la misma clave; no debe reciclarse ni guardarse.
+     */
+    @NonNull
+    Bitmap convert(@NonNull ImageProxy imageProxy) {
+        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+        ByteBuffer buffer = plane.getBuffer();
+
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+        int paddedWidth = plane.getRowStride() / plane.getPixelStride();
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+
+        Entry entry = obtain(width, height, paddedWidth, rotation);
+
+        buffer.rewind();
+        entry.padded.copyPixelsFromBuffer(buffer);
+
+        if (entry.canvas != null) {
+            // Recorta (srcRect) y rota (matriz del canvas) en una sola pasada
+            long start = System.nanoTime();
+            entry.canvas.drawBitmap(entry.padded, entry.srcRect, entry.srcRect, null);
+            lastRotationNanos = System.nanoTime() - start;
+        } else {
+            lastRotationNanos = -1;
+        }
+
+        return entry.target;
+    }
+
+    /**
+     * Copia solo la region cuadrada (left, top, side) del frame rotado a un
+     * bitmap de REGION_SIZE x REGION_SIZE. La rotacion, el recorte y el
+     * escalado se aplican con una unica matriz, asi que solo se rasterizan
+     * los pixeles de la region.
+     *
+     * El bitmap devuelto pertenece al pool y se sobrescribe en la siguiente llamada.
+     */
+    @NonNull
+    Bitmap convertRegion(@NonNull ImageProxy imageProxy, int left, int top, int side) {
+        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+        ByteBuffer buffer = plane.getBuffer();
+
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+        int paddedWidth = plane.getRowStride() / plane.getPixelStride();
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+
+        Entry entry = obtain(width, height, paddedWidth, rotation);
+
+        buffer.rewind();
+        entry.padded.copyPixelsFromBuffer(buffer);
+
+        if (regionBitmap == null) {
+            regionBitmap = Bitmap.createBitmap(REGION_SIZE, REGION_SIZE, Bitmap.Config.ARGB_8888);
+            regionCanvas = new Canvas(regionBitmap);
+        }
+
+        float scale = REGION_SIZE / (float) side;
+        setRotation(regionMatrix, rotation, width, height);
+        regionMatrix.postTranslate(-left, -top);
+        regionMatrix.postScale(scale, scale);
+        long start = System.nanoTime();
+        regionCanvas.setMatrix(regionMatrix);
+        regionCanvas.drawBitmap(entry.padded, entry.srcRect, entry.srcRect, regionPaint);
+        lastRotationNanos = System.nanoTime() - start;
+
+        return regionBitmap;
+    }
+
+    /**
+     * Tiempo en ns que tardo el dibujo rotado de la ultima conversion
+     * (-1 si no hubo que rotar ni recortar)
+     */
+    long getLastRotationNanos() {
+        return lastRotationNanos;
+    }
+
+    /**
+     * Libera todos los bitmaps del pool
+     */
+    void release() {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] != null) {
+                entries[i].recycle();
+                entries[i] = null;
+            }
+        }
+        nextVictim = 0;
+
+        if (regionBitmap != null) {
+            regionBitmap.recycle();
+            regionBitmap = null;
+            regionCanvas = null;
+        }
+    }
+
+    /**
+     * Matriz que lleva el frame del sensor (width x height) a su orientacion vertical
+     */
+    private static void setRotation(Matrix matrix, int rotation, int width, int height) {
+        matrix.reset();
+        matrix.postRotate(rotation);
+        switch (rotation) {
+            case 90:
+                matrix.postTranslate(height, 0);
+                break;
+            case 180:
+                matrix.postTranslate(width, height);
+                break;
+            case 270:
+                matrix.postTranslate(0, width);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Entry obtain(int width, int height, int paddedWidth, int rotation) {
+        for (Entry entry : entries) {
+            if (entry != null && entry.matches(width, height, paddedWidth, rotation)) {
+                return entry;
+            }
+        }
+
+        // Sin hueco libre: se reemplaza la entrada mas antigua
+        int slot = nextVictim;
+        nextVictim = (nextVictim + 1) % MAX_ENTRIES;
+        if (entries[slot] != null) {
+            entries[slot].recycle();
+        }
+
+        entries[slot] = new Entry(width, height, paddedWidth, rotation);
+        return entries[slot];
+    }
+
+    private static final class Entry {
+        final int width;
+        final int height;
+        final int paddedWidth;
+        final int rotation;
+
+        final Bitmap padded;
+        final Bitmap target;
+        final Canvas canvas;
+        final Rect srcRect;
+
+        Entry(int width, int height, int paddedWidth, int rotation) {
+            this.width = width;
+            this.height = height;
+            this.paddedWidth = paddedWidth;
+            this.rotation = rotation;
+
+            padded = Bitmap.createBitmap(paddedWidth, height, Bitmap.Config.ARGB_8888);
+            srcRect = new Rect(0, 0, width, height);
+
+            if (paddedWidth == width && rotation == 0) {
+                // Sin padding ni rotacion: el bitmap copiado ya es el resultado
+                target = padded;
+                canvas = null;
+                return;
+            }
+
+            boolean swap = rotation == 90 || rotation == 270;
+            target = Bitmap.createBitmap(
+                    swap ? height : width,
+                    swap ? width : height,
+                    Bitmap.Config.ARGB_8888
+            );
+
+            Matrix matrix = new Matrix();
+            setRotation(matrix, rotation, width, height);
+
+            canvas = new Canvas(target);
+            canvas.concat(matrix);
+        }
+
+        boolean matches(int width, int height, int paddedWidth, int rotation) {
+            return this.width == width
+                    && this.height == height
+                    && this.paddedWidth == paddedWidth
+                    && this.rotation == rotation;
+        }
+
+        void recycle() {
+            if (target != padded) {
+                target.recycle();
+            }
+            padded.recycle();
+        }
+    }
+}
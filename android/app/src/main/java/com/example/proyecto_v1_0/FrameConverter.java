@@ -0,0 +1,52 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Convierte los frames de una FrameSource en la entrada del detector.
+ *
+ * Cada PreparedFrame tiene un indice fijo (su hueco en el pipeline); el
+ * conversor guarda por indice los buffers que reutiliza, de modo que la
+ * conversion del frame N+1 nunca pisa la entrada del frame N mientras este
+ * sigue pendiente de enviar.
+ */
+interface FrameConverter<F, I> {
+
+    /**
+     * Ancho del frame ya rotado (como lo ve el detector)
+     */
+    int width(F frame);
+
+    /**
+     * Alto del frame ya rotado
+     */
+    int height(F frame);
+
+    /**
+     * Timestamp de captura del sensor en ns
+     */
+    long timestampNanos(F frame);
+
+    /**
+     * Libera el frame en la fuente
+     */
+    void close(F frame);
+
+    /**
+     * Rellena out.input con el frame completo o, si out.cropped, con la
+     * region out.region (left, top, side en coordenadas del frame rotado).
+     * Puede apuntar en out.rotationNanos lo que costo rotar los pixeles.
+     * Devuelve true si la entrada sigue leyendo del frame sin copia: en ese
+     * caso el motor no lo cierra hasta despues de enviarlo al detector.
+     */
+    boolean convert(F frame, PreparedFrame<F, I> out);
+
+    /**
+     * El detector ha devuelto el resultado del frame con ese timestamp de
+     * captura (ms). Desde el callback del detector.
+     */
+    void onResult(long captureTimestampMs);
+
+    /**
+     * Libera los buffers de todos los huecos (sin frames en curso)
+     */
+    void release();
+}
@@ -0,0 +1,67 @@
+package com.example.proyecto_v1_0;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Recorta un cuadrado del plano RGBA_8888 de CameraX a un ByteBuffer
+ * directo reutilizado, para pasarlo a MediaPipe sin convertir el frame
+ * completo. El buffer tiene la capacidad exacta del recorte, que es lo que
+ * comprueba MediaPipe (ver ExactDirectBuffer).
+ *
+ * La region se indica en coordenadas del frame rotado (las de
+ * HandRoiTracker) y se traduce a coordenadas del sensor (ver RegionCopy);
+ * el recorte queda en la orientacion del sensor y MediaPipe aplica la
+ * rotacion como opcion. Solo se copian side filas de side pixeles, con o
+ * sin padding de fila.
+ *
+ * No es thread-safe: cada PreparedFrame tiene el suyo y lo usa un solo hilo.
+ */
+final class FrameCropper {
+
+    private final ExactDirectBuffer cropBuffer = new ExactDirectBuffer();
+
+    /**
+     * Copia la region (left, top, side del frame rotado) y devuelve el buffer
+     * con side x side pixeles RGBA. El buffer se sobrescribe en la siguiente
+     * llamada; detectAsync lo copia antes de volver.
+     */
+    @NonNull
+    ByteBuffer crop(@NonNull ImageProxy imageProxy, int left, int top, int side) {
+        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+        return crop(plane.getBuffer(), plane.getRowStride(), plane.getPixelStride(),
+                imageProxy.getWidth(), imageProxy.getHeight(),
+                imageProxy.getImageInfo().getRotationDegrees(),
+                left, top, side);
+    }
+
+    /**
+     * Igual que con un ImageProxy, a partir del plano RGBA (width y height en
+     * orientacion del sensor)
+     */
+    @NonNull
+    ByteBuffer crop(@NonNull ByteBuffer source, int rowStride, int pixelStride,
+                    int width, int height, int rotation,
+                    int left, int top, int side) {
+        // Se reserva para el lado corto completo: la memoria no vuelve a crecer
+        int maxSide = Math.max(side, Math.min(width, height));
+        ByteBuffer target = cropBuffer.get(
+                side * side * RegionCopy.BYTES_PER_PIXEL,
+                maxSide * maxSide * RegionCopy.BYTES_PER_PIXEL);
+
+        RegionCopy.copy(source, rowStride, pixelStride, width, height, rotation,
+                left, top, side, target);
+
+        target.flip();
+        return target;
+    }
+
+    /**
+     * Libera el buffer del recorte
+     */
+    void release() {
+        cropBuffer.release();
+    }
+}
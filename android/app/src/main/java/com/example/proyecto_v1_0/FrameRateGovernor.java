@@ -0,0 +1,245 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Regula cuantos frames por segundo se envian a MediaPipe segun la
+ * congestion que provocan esos frames.
+ *
+ * Cada frame enviado se apunta con su timestamp de MediaPipe y con cuantos
+ * habia ya dentro; cuando llega su resultado se actualiza una media
+ * exponencial de la latencia detectAsync -> resultado. Esa latencia no baja
+ * con menos fps (es lo que tarda el modelo), asi que solo marca el techo:
+ * con n frames dentro y latencia L se pueden sostener n / L fps.
+ *
+ * La tasa objetivo sigue un esquema AIMD sobre senales que si dependen de
+ * los fps:
+ * - un frame admitido que se descarta despues (detector ocupado, sin
+ *   buffers) o que espera en cola dentro de MediaPipe con la latencia por
+ *   encima del presupuesto: la tasa baja un 20%, como mucho una vez por
+ *   periodo de latencia (el efecto de la bajada tarda eso en verse)
+ * - un resultado sin congestion desde el anterior: sube 1 fps hasta el
+ *   techo sostenible
+ *
+ * shouldProcess() descarta los frames que llegan antes del intervalo
+ * correspondiente a la tasa objetivo. Los metodos son synchronized porque
+ * el analizador y el callback de MediaPipe corren en hilos distintos.
+ */
+final class FrameRateGovernor {
+
+    private static final int MAX_PENDING = 16;
+    private static final long PENDING_TIMEOUT_NANOS = 1_000_000_000L;
+    private static final float LATENCY_SMOOTHING = 0.2f;
+    private static final float DECREASE_FACTOR = 0.8f;
+    private static final float INCREASE_STEP = 1f;
+
+    private final float minFps;
+    private final float maxFps;
+    private long latencyBudgetNanos;
+
+    private float targetFps;
+    private boolean admittedAny;
+    private long lastAdmittedNanos;
+    private float latencyNanos = -1f;
+    private float sustainableFps = -1f;
+    private boolean congested;
+    private boolean decreasedAny;
+    private long lastDecreaseNanos;
+
+    // Frames enviados a MediaPipe cuyo resultado aun no ha llegado, con
+    // cuantos habia dentro al enviarlos (este incluido)
+    private final long[] pendingTimestamps = new long[MAX_PENDING];
+    private final long[] pendingSubmitNanos = new long[MAX_PENDING];
+    private final int[] pendingDepth = new int[MAX_PENDING];
+    private int pendingCount;
+
+    // Tasa real de resultados (ventana de un segundo)
+    private boolean windowStarted;
+    private long windowStartNanos;
+    private int windowResults;
+    private float outputFps;
+
+    FrameRateGovernor(float minFps, float maxFps, long latencyBudgetMs) {
+        this.minFps = minFps;
+        this.maxFps = maxFps;
+        this.latencyBudgetNanos = latencyBudgetMs * 1_000_000L;
+        this.targetFps = maxFps;
+    }
+
+    /**
+     * Cambia el presupuesto de latencia: por encima, los frames que esperan
+     * en cola dentro de MediaPipe cuentan como congestion
+     */
+    synchronized void setLatencyBudgetMs(long latencyBudgetMs) {
+        latencyBudgetNanos = Math.max(1, latencyBudgetMs) * 1_000_000L;
+    }
+
+    /**
+     * Decide si el frame que acaba de llegar debe procesarse
+     */
+    synchronized boolean shouldProcess(long nowNanos) {
+        long intervalNanos = (long) (1_000_000_000L / targetFps);
+        if (admittedAny && nowNanos - lastAdmittedNanos < intervalNanos) {
+            return false;
+        }
+        admittedAny = true;
+        lastAdmittedNanos = nowNanos;
+        return true;
+    }
+
+    /**
+     * Apunta un frame enviado con detectAsync
+     */
+    synchronized void onSubmitted(long frameTimestamp, long nowNanos) {
+        expirePending(nowNanos);
+        if (pendingCount == MAX_PENDING) {
+            removePending(0);
+        }
+        pendingTimestamps[pendingCount] = frameTimestamp;
+        pendingSubmitNanos[pendingCount] = nowNanos;
+        pendingDepth[pendingCount] = pendingCount + 1;
+        pendingCount++;
+    }
+
+    /**
+     * Un frame admitido por shouldProcess no llega al detector (limite de
+     * frames en vuelo o sin buffers libres): se esta admitiendo de mas
+     */
+    synchronized void onDropped(long nowNanos) {
+        congested = true;
+        decrease(nowNanos);
+    }
+
+    /**
+     * Registra el resultado de un frame y ajusta la tasa objetivo.
+     * Devuelve la latencia del frame en ns (-1 si no estaba pendiente).
+     */
+    synchronized long onCompleted(long frameTimestamp, long nowNanos) {
+        updateOutputFps(nowNanos);
+
+        int index = indexOfPending(frameTimestamp);
+        if (index < 0) {
+            return -1;
+        }
+
+        long latency = nowNanos - pendingSubmitNanos[index];
+        int depth = pendingDepth[index];
+        removePending(index);
+
+        latencyNanos = latencyNanos < 0
+                ? latency
+                : latencyNanos + LATENCY_SMOOTHING * (latency - latencyNanos);
+        sustainableFps = Math.min(maxFps, depth * 1_000_000_000f / Math.max(1f, latencyNanos));
+
+        if (depth > 1 && latencyNanos > latencyBudgetNanos) {
+            // Ha esperado detras de otros frames: con menos fps no esperaria
+            congested = true;
+            decrease(nowNanos);
+        } else if (!congested) {
+            targetFps = Math.max(targetFps, Math.min(sustainableFps, targetFps + INCREASE_STEP));
+        }
+        congested = false;
+        return latency;
+    }
+
+    synchronized float getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * Tasa que el detector puede sostener segun la latencia (-1 sin medidas)
+     */
+    synchronized float getSustainableFps() {
+        return sustainableFps;
+    }
+
+    synchronized float getOutputFps() {
+        return outputFps;
+    }
+
+    /**
+     * Latencia media en ms (-1 si aun no hay medidas)
+     */
+    synchronized float getLatencyMs() {
+        return latencyNanos < 0 ? -1f : latencyNanos / 1_000_000f;
+    }
+
+    synchronized int getInFlight() {
+        return pendingCount;
+    }
+
+    /**
+     * Vuelve al estado inicial (tasa maxima, sin medidas)
+     */
+    synchronized void reset() {
+        targetFps = maxFps;
+        admittedAny = false;
+        lastAdmittedNanos = 0;
+        latencyNanos = -1f;
+        sustainableFps = -1f;
+        congested = false;
+        decreasedAny = false;
+        lastDecreaseNanos = 0;
+        pendingCount = 0;
+        windowStarted = false;
+        windowStartNanos = 0;
+        windowResults = 0;
+        outputFps = 0;
+    }
+
+    /**
+     * Bajada multiplicativa, como mucho una por periodo de latencia (o por
+     * intervalo entre frames si aun no hay medidas)
+     */
+    private void decrease(long nowNanos) {
+        long period = latencyNanos > 0 ? (long) latencyNanos : (long) (1_000_000_000L / targetFps);
+        if (decreasedAny && nowNanos - lastDecreaseNanos < period) {
+            return;
+        }
+        decreasedAny = true;
+        lastDecreaseNanos = nowNanos;
+        targetFps = Math.max(minFps, targetFps * DECREASE_FACTOR);
+    }
+
+    private void updateOutputFps(long nowNanos) {
+        if (!windowStarted) {
+            windowStarted = true;
+            windowStartNanos = nowNanos;
+        }
+        windowResults++;
+
+        long elapsed = nowNanos - windowStartNanos;
+        if (elapsed >= 1_000_000_000L) {
+            outputFps = windowResults * 1_000_000_000f / elapsed;
+            windowStartNanos = nowNanos;
+            windowResults = 0;
+        }
+    }
+
+    private int indexOfPending(long frameTimestamp) {
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingTimestamps[i] == frameTimestamp) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removePending(int index) {
+        int tail = pendingCount - index - 1;
+        if (tail > 0) {
+            System.arraycopy(pendingTimestamps, index + 1, pendingTimestamps, index, tail);
+            System.arraycopy(pendingSubmitNanos, index + 1, pendingSubmitNanos, index, tail);
+            System.arraycopy(pendingDepth, index + 1, pendingDepth, index, tail);
+        }
+        pendingCount--;
+    }
+
+    /**
+     * Descarta frames cuyo resultado no llego nunca (MediaPipe puede
+     * descartarlos internamente o fallar sin timestamp)
+     */
+    private void expirePending(long nowNanos) {
+        while (pendingCount > 0 && nowNanos - pendingSubmitNanos[0] > PENDING_TIMEOUT_NANOS) {
+            removePending(0);
+        }
+    }
+}
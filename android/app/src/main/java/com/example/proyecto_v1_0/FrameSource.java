@@ -0,0 +1,29 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Origen de frames del motor (la camara o, en pruebas y benchmarks, una
+ * fuente sintetica).
+ *
+ * start() empieza a entregar frames a callback desde el hilo de la fuente
+ * (siempre el mismo) y stop() deja de entregarlos. El motor cierra cada
+ * frame con su FrameConverter cuando termina con el.
+ */
+interface FrameSource<F> {
+
+    /**
+     * Recibe cada frame capturado
+     */
+    interface Callback<F> {
+        void onFrame(F frame);
+    }
+
+    void start(Callback<F> callback);
+
+    void stop();
+
+    /**
+     * Instante actual en ns en la misma base de tiempo que los timestamps
+     * de captura de los frames (ver CaptureClock)
+     */
+    long nowNanos(long captureNanos);
+}
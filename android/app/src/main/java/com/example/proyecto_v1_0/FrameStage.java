@@ -0,0 +1,166 @@
+package com.example.proyecto_v1_0;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Etapa del pipeline de frames: un hilo propio que procesa elementos de una
+ * cola acotada.
+ *
+ * Si la cola esta llena al entregar un elemento nuevo se descarta el mas
+ * antiguo (los frames viejos no sirven para tiempo real) y se pasa a
+ * onDropped para que libere lo que tenga asociado (ImageProxy, hueco en
+ * vuelo...). Cada etapa tiene un unico productor.
+ *
+ * Un error del handler (tambien un Error, p. ej. OutOfMemoryError) se pasa
+ * a onError y la etapa sigue con el siguiente elemento: si el hilo muriera,
+ * el pipeline descartaria todo sin avisar.
+ */
+final class FrameStage<T> {
+
+    /**
+     * Procesa un elemento en el hilo de la etapa
+     */
+    interface Handler<T> {
+        void handle(T item);
+    }
+
+    /**
+     * Libera un elemento que no se va a procesar
+     */
+    interface DropHandler<T> {
+        void onDropped(T item);
+    }
+
+    /**
+     * Recibe lo que lance el handler, en el hilo de la etapa
+     */
+    interface ErrorHandler {
+        void onError(Throwable error);
+    }
+
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final String name;
+    private final ArrayBlockingQueue<T> queue;
+    private final Handler<T> handler;
+    private final DropHandler<T> dropHandler;
+    private final ErrorHandler errorHandler;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    FrameStage(String name, int capacity, Handler<T> handler, DropHandler<T> dropHandler,
+               ErrorHandler errorHandler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.handler = handler;
+        this.dropHandler = dropHandler;
+        this.errorHandler = errorHandler;
+    }
+
+    void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::loop, name);
+        thread.start();
+    }
+
+    /**
+     * Entrega un elemento a la etapa desde el hilo productor
+     */
+    void submit(T item) {
+        if (!running) {
+            dropHandler.onDropped(item);
+            return;
+        }
+        while (!queue.offer(item)) {
+            T oldest = queue.poll();
+            if (oldest != null) {
+                dropped.incrementAndGet();
+                dropHandler.onDropped(oldest);
+            }
+        }
+        if (!running) {
+            // stop() llego mientras se encolaba: nadie mas va a vaciar la cola
+            drain();
+        }
+    }
+
+    /**
+     * Pide al hilo que pare y descarta lo pendiente sin esperar: se llama
+     * desde el hilo principal. El elemento en curso termina en el hilo de la
+     * etapa; awaitStopped() espera a que acabe.
+     */
+    void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+        }
+        drain();
+    }
+
+    /**
+     * Espera como mucho timeoutMs a que el hilo termine despues de stop().
+     * Devuelve false si sigue vivo. No llamar desde el hilo principal.
+     */
+    boolean awaitStopped(long timeoutMs) throws InterruptedException {
+        Thread current = thread;
+        if (current == null) {
+            return true;
+        }
+        current.join(timeoutMs);
+        return !current.isAlive();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Elementos descartados por llegar con la cola llena
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    void resetCounters() {
+        dropped.set(0);
+    }
+
+    private void loop() {
+        while (running) {
+            T item;
+            try {
+                item = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (item == null) {
+                continue;
+            }
+            if (!running) {
+                dropHandler.onDropped(item);
+                break;
+            }
+            try {
+                handler.handle(item);
+            } catch (Throwable t) {
+                errorHandler.onError(t);
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        T item;
+        while ((item = queue.poll()) != null) {
+            dropHandler.onDropped(item);
+        }
+    }
+}
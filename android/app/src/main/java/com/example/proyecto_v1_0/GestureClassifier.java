@@ -0,0 +1,169 @@
+package com.example.proyecto_v1_0;
+
+import java.util.List;
+
+/**
+ * Clasificador de gestos por vecino mas cercano sobre plantillas de landmarks.
+ *
+ * Los landmarks se normalizan igual que en HandData.normalizedLandmarksToApiFormat
+ * (Dart): origen en la muneca y escala por la distancia maxima a la muneca.
+ * Las manos izquierdas se reflejan en x para compararlas con plantillas de
+ * mano derecha. La distancia es la media de la distancia euclidea por punto.
+ *
+ * - confidence: 1 - distancia / maxDistance (0 si esta mas lejos que maxDistance)
+ * - margin: 1 - distancia / distancia a la mejor plantilla de otra etiqueta
+ * - ambiguous: confianza o margen por debajo del minimo; en ese caso conviene
+ *   consultar la API remota
+ *
+ * classify() se llama desde el callback de MediaPipe y no reserva memoria;
+ * setTemplates() sustituye las plantillas de forma atomica.
+ */
+final class GestureClassifier {
+
+    private static final int POINTS = LandmarkFrame.LANDMARKS_PER_HAND;
+    private static final int VALUES = LandmarkFrame.VALUES_PER_HAND;
+
+    /**
+     * Resultado reutilizable de classify()
+     */
+    static final class Result {
+        String label;
+        float confidence;
+        float margin;
+        boolean ambiguous;
+    }
+
+    /**
+     * Plantillas normalizadas en un unico array (VALUES floats por plantilla)
+     */
+    private static final class Templates {
+        final String[] labels;
+        final float[] data;
+
+        Templates(String[] labels, float[] data) {
+            this.labels = labels;
+            this.data = data;
+        }
+    }
+
+    private volatile Templates templates = new Templates(new String[0], new float[0]);
+    private volatile float maxDistance = 0.5f;
+    private volatile float minConfidence = 0.6f;
+    private volatile float minMargin = 0.25f;
+
+    private final float[] normalized = new float[VALUES];
+
+    /**
+     * Sustituye las plantillas. Cada array tiene 21 x 3 valores (x, y, z)
+     * en coordenadas normalizadas de imagen, como los envia MediaPipe.
+     */
+    void setTemplates(List<String> labels, List<float[]> landmarks, List<Boolean> leftHanded) {
+        int count = Math.min(labels.size(), landmarks.size());
+        String[] newLabels = new String[count];
+        float[] newData = new float[count * VALUES];
+
+        for (int i = 0; i < count; i++) {
+            float[] points = landmarks.get(i);
+            if (points.length < VALUES) {
+                throw new IllegalArgumentException("La plantilla " + labels.get(i)
+                        + " debe tener " + VALUES + " valores");
+            }
+            boolean mirror = leftHanded != null && i < leftHanded.size() && Boolean.TRUE.equals(leftHanded.get(i));
+            newLabels[i] = labels.get(i);
+            normalize(points, 0, mirror, newData, i * VALUES);
+        }
+
+        templates = new Templates(newLabels, newData);
+    }
+
+    int getTemplateCount() {
+        return templates.labels.length;
+    }
+
+    void setThresholds(float maxDistance, float minConfidence, float minMargin) {
+        this.maxDistance = Math.max(1e-3f, maxDistance);
+        this.minConfidence = minConfidence;
+        this.minMargin = minMargin;
+    }
+
+    /**
+     * Clasifica la mano indicada del frame. Devuelve false si no hay plantillas.
+     */
+    boolean classify(LandmarkFrame frame, int hand, Result out) {
+        Templates current = templates;
+        int count = current.labels.length;
+        if (count == 0 || hand >= frame.handCount) {
+            return false;
+        }
+
+        boolean mirror = frame.handedness[hand] == LandmarkFrame.HANDEDNESS_LEFT;
+        normalize(frame.landmarks, hand * VALUES, mirror, normalized, 0);
+
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        for (int t = 0; t < count; t++) {
+            float distance = distance(normalized, current.data, t * VALUES);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = t;
+            }
+        }
+
+        // Mejor distancia entre las plantillas de otras etiquetas
+        String bestLabel = current.labels[best];
+        float otherDistance = Float.MAX_VALUE;
+        for (int t = 0; t < count; t++) {
+            if (!bestLabel.equals(current.labels[t])) {
+                otherDistance = Math.min(otherDistance, distance(normalized, current.data, t * VALUES));
+            }
+        }
+
+        out.label = bestLabel;
+        out.confidence = Math.max(0f, 1f - bestDistance / maxDistance);
+        out.margin = otherDistance == Float.MAX_VALUE || otherDistance == 0f
+                ? 1f
+                : Math.max(0f, 1f - bestDistance / otherDistance);
+        out.ambiguous = out.confidence < minConfidence || out.margin < minMargin;
+        return true;
+    }
+
+    /**
+     * Centra en la muneca (punto 0) y escala por la distancia maxima a ella
+     */
+    static void normalize(float[] src, int srcOffset, boolean mirror, float[] dst, int dstOffset) {
+        float wx = src[srcOffset];
+        float wy = src[srcOffset + 1];
+        float wz = src[srcOffset + 2];
+
+        float maxDist = 0f;
+        for (int p = 0; p < POINTS; p++) {
+            int i = srcOffset + p * 3;
+            float dx = src[i] - wx;
+            float dy = src[i + 1] - wy;
+            float dz = src[i + 2] - wz;
+            maxDist = Math.max(maxDist, (float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        if (maxDist == 0f) maxDist = 1f;
+
+        for (int p = 0; p < POINTS; p++) {
+            int i = srcOffset + p * 3;
+            int o = dstOffset + p * 3;
+            float dx = (src[i] - wx) / maxDist;
+            dst[o] = mirror ? -dx : dx;
+            dst[o + 1] = (src[i + 1] - wy) / maxDist;
+            dst[o + 2] = (src[i + 2] - wz) / maxDist;
+        }
+    }
+
+    private static float distance(float[] a, float[] templateData, int offset) {
+        float sum = 0f;
+        for (int p = 0; p < POINTS; p++) {
+            int i = p * 3;
+            float dx = a[i] - templateData[offset + i];
+            float dy = a[i + 1] - templateData[offset + i + 1];
+            float dz = a[i + 2] - templateData[offset + i + 2];
+            sum += (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        return sum / POINTS;
+    }
+}
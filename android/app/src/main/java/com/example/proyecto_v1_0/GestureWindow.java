@@ -0,0 +1,167 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Filtro de eventos por cambio de pose.
+ *
+ * Se guardan los landmarks del ultimo frame emitido (la referencia) y del
+ * frame actual en dos huecos de arrays primitivos, y se mide el movimiento
+ * del actual respecto a la referencia: la distancia media por landmark
+ * (coordenadas normalizadas), promediada entre las manos. Al emitir, el
+ * hueco actual pasa a ser la referencia sin copiar nada.
+ *
+ * Modos:
+ * - MODE_ALWAYS: se emiten todos los frames (solo se mide el movimiento)
+ * - MODE_ON_CHANGE: se emite cuando el movimiento supera el umbral, cuando
+ *   cambian las manos presentes o cuando pasan windowFrames frames sin
+ *   emitir (asi Flutter sigue recibiendo la pose aunque la mano este
+ *   quieta, pero con menos frecuencia)
+ *
+ * offer() se llama siempre desde el callback de MediaPipe y no reserva
+ * memoria; configure() puede llamarse desde cualquier hilo.
+ */
+final class GestureWindow {
+
+    static final String MODE_ALWAYS = "always";
+    static final String MODE_ON_CHANGE = "onChange";
+
+    // Maximo de frames seguidos sin emitir
+    static final int MAX_WINDOW = 64;
+
+    private static final int HAND_VALUES = LandmarkFrame.VALUES_PER_HAND;
+    private static final int FRAME_VALUES = LandmarkFrame.MAX_HANDS * HAND_VALUES;
+
+    private volatile String mode = MODE_ALWAYS;
+    private volatile float motionThreshold = 0.01f;
+    private volatile int windowFrames = 15;
+    private volatile boolean resetRequested;
+
+    // Dos huecos: la referencia (ultimo emitido) y el frame actual
+    private final float[] landmarks = new float[2 * FRAME_VALUES];
+    private final int[] handCounts = new int[2];
+    private final int[] handedness = new int[2 * LandmarkFrame.MAX_HANDS];
+
+    private int referenceSlot;
+    private int framesSinceEmit;
+    private boolean emittedAny;
+
+    private volatile float lastMotion;
+    private volatile long suppressed;
+
+    /**
+     * @param motionThreshold distancia media por landmark (fraccion de la imagen)
+     *                        a partir de la cual la pose se considera cambiada
+     * @param windowFrames    frames maximos entre dos eventos emitidos
+     */
+    void configure(String mode, float motionThreshold, int windowFrames) {
+        this.mode = MODE_ON_CHANGE.equals(mode) ? MODE_ON_CHANGE : MODE_ALWAYS;
+        this.motionThreshold = Math.max(0f, motionThreshold);
+        this.windowFrames = Math.max(1, Math.min(windowFrames, MAX_WINDOW));
+        resetRequested = true;
+    }
+
+    String getMode() {
+        return mode;
+    }
+
+    /**
+     * Movimiento del ultimo frame respecto al ultimo emitido
+     * (-1 si cambiaron las manos presentes)
+     */
+    float getLastMotion() {
+        return lastMotion;
+    }
+
+    /**
+     * Frames no emitidos por no haber cambiado la pose
+     */
+    long getSuppressedCount() {
+        return suppressed;
+    }
+
+    /**
+     * Vacia la ventana y los contadores
+     */
+    void reset() {
+        resetRequested = true;
+    }
+
+    /**
+     * Compara el frame con el ultimo emitido y decide si debe emitirse
+     */
+    boolean offer(LandmarkFrame frame) {
+        if (resetRequested) {
+            resetRequested = false;
+            emittedAny = false;
+            suppressed = 0;
+        }
+
+        int slot = 1 - referenceSlot;
+        store(frame, slot);
+
+        if (!emittedAny) {
+            emittedAny = true;
+            referenceSlot = slot;
+            framesSinceEmit = 0;
+            lastMotion = 0f;
+            return true;
+        }
+
+        float motion = motion(slot, referenceSlot);
+        lastMotion = Float.isInfinite(motion) ? -1f : motion;
+        framesSinceEmit++;
+
+        boolean emit = MODE_ALWAYS.equals(mode)
+                || motion > motionThreshold
+                || framesSinceEmit >= windowFrames;
+        if (emit) {
+            referenceSlot = slot;
+            framesSinceEmit = 0;
+        } else {
+            suppressed++;
+        }
+        return emit;
+    }
+
+    private void store(LandmarkFrame frame, int slot) {
+        int count = frame.handCount;
+        handCounts[slot] = count;
+        System.arraycopy(frame.landmarks, 0, landmarks, slot * FRAME_VALUES, count * HAND_VALUES);
+        for (int hand = 0; hand < count; hand++) {
+            handedness[slot * LandmarkFrame.MAX_HANDS + hand] = frame.handedness[hand];
+        }
+    }
+
+    /**
+     * Distancia media por landmark entre los dos huecos.
+     * Infinita si cambian el numero de manos o su handedness.
+     */
+    private float motion(int slot, int reference) {
+        int count = handCounts[slot];
+        if (count != handCounts[reference]) {
+            return Float.POSITIVE_INFINITY;
+        }
+        if (count == 0) {
+            return 0f;
+        }
+
+        float total = 0f;
+        for (int hand = 0; hand < count; hand++) {
+            if (handedness[slot * LandmarkFrame.MAX_HANDS + hand]
+                    != handedness[reference * LandmarkFrame.MAX_HANDS + hand]) {
+                return Float.POSITIVE_INFINITY;
+            }
+
+            int a = slot * FRAME_VALUES + hand * HAND_VALUES;
+            int b = reference * FRAME_VALUES + hand * HAND_VALUES;
+            float sum = 0f;
+            for (int i = 0; i < HAND_VALUES; i += 3) {
+                float dx = landmarks[a + i] - landmarks[b + i];
+                float dy = landmarks[a + i + 1] - landmarks[b + i + 1];
+                float dz = landmarks[a + i + 2] - landmarks[b + i + 2];
+                sum += (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            }
+            total += sum / LandmarkFrame.LANDMARKS_PER_HAND;
+        }
+        return total / count;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Detector de landmarks asincrono (MediaPipe en la app, uno sintetico en
+ * pruebas y benchmarks).
+ *
+ * detectAsync() no bloquea hasta el resultado: cada frame enviado termina
+ * en una llamada al Listener, con el mismo timestamp, desde el hilo del
+ * detector. Los timestamps tienen que ser estrictamente crecientes.
+ */
+interface HandDetector<I> {
+
+    interface Listener {
+        void onResult(Result result);
+
+        void onError(RuntimeException error);
+    }
+
+    /**
+     * Resultado de un frame. Tiene que ser inmutable: con pipeline el motor
+     * lo copia despues, desde el hilo de serializacion.
+     */
+    interface Result {
+        /**
+         * Timestamp con el que se envio el frame (ms)
+         */
+        long timestampMs();
+
+        /**
+         * Copia como mucho maxHands manos y los campos indicados
+         * (LandmarkFrame.FIELD_*) a frame
+         */
+        void copyTo(LandmarkFrame frame, int maxHands, int fields);
+    }
+
+    void detectAsync(I input, long timestampMs);
+
+    void close();
+}
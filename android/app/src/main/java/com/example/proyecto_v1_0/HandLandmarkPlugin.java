@@ -351,63 +351,141 @@
 //}
 package com.example.proyecto_v1_0;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.Matrix;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
-import androidx.annotation.NonNull;
-import androidx.camera.core.CameraSelector;
-import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
-import androidx.camera.core.Preview;
-import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
-import androidx.core.content.ContextCompat;
 import androidx.lifecycle.LifecycleOwner;
 
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.mediapipe.framework.image.BitmapImageBuilder;
-import com.google.mediapipe.framework.image.MPImage;
-import com.google.mediapipe.tasks.components.containers.Landmark;
-import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
-import com.google.mediapipe.tasks.core.BaseOptions;
-import com.google.mediapipe.tasks.vision.core.RunningMode;
-import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarker;
-import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
-
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodChannel;
 
 public class HandLandmarkPlugin {
     private static final String TAG = "HandLandmarkPlugin";
-    private static final String MODEL_PATH = "hand_landmarker.task";
     
-    private static HandLandmarker handLandmarker;
     private static ExecutorService executorService;
-    private static ProcessCameraProvider cameraProvider;
-    private static boolean isProcessing = false;
-    private static LifecycleOwner lifecycleOwner;
     private static EventChannel.EventSink eventSink;
+    private static EventChannel.EventSink binaryEventSink;
+    private static EventChannel.EventSink gestureEventSink;
+    private static EventChannel.EventSink metricsEventSink;
+    private static EventChannel.EventSink batchEventSink;
+    
+    // Resumen de metricas cada METRICS_INTERVAL_MS en su propio canal
+    private static final long METRICS_INTERVAL_MS = 1000;
+    
+    // Destino de los resultados del motor: los canales de Flutter
+    private static final LandmarkSink flutterSink = new LandmarkSink() {
+        @Override
+        public boolean wantsLandmarks() {
+            return eventSink != null;
+        }
+        
+        @Override
+        public boolean wantsBinary() {
+            return binaryEventSink != null;
+        }
+        
+        @Override
+        public boolean wantsGestures() {
+            return gestureEventSink != null;
+        }
+        
+        @Override
+        public void onLandmarks(Map<String, Object> event) {
+            mapEvents.dispatch(event);
+        }
+        
+        @Override
+        public void onBinary(byte[] event) {
+            binaryEvents.dispatch(event);
+        }
+        
+        @Override
+        public void onGesture(Map<String, Object> event) {
+            gestureEvents.dispatch(event);
+        }
+        
+        @Override
+        public void onFrameError(String message) {
+            Log.e(TAG, message);
+        }
+    };
+    
+    // Motor de seguimiento (regulacion, pipeline, recorte, suavizado y
+    // serializacion, ver HandTrackingEngine). El plugin solo le conecta la
+    // camara, MediaPipe y los canales de Flutter.
+    private static final CameraFrameConverter frameConverter =
+            new CameraFrameConverter(HandTrackingEngine.PIPELINE_FRAMES);
+    private static final HandTrackingEngine<ImageProxy, MediaPipeHandDetector.Input> engine =
+            new HandTrackingEngine<>(frameConverter, flutterSink);
+    private static final CameraFrameSource cameraSource = new CameraFrameSource(frameConverter, (code, message) -> {
+        if (eventSink != null) {
+            eventSink.error(code, message, null);
+        }
+    });
+    
+    // Entrega en el hilo principal: un unico Handler y como mucho un evento
+    // pendiente por canal (si Flutter va atrasado, se entrega solo el mas reciente)
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final LatestEventDispatcher mapEvents = new LatestEventDispatcher(mainHandler, event -> {
+        if (eventSink != null) {
+            eventSink.success(event);
+        }
+    }, engine.getPipelineMetrics().delivery);
+    private static final LatestEventDispatcher binaryEvents = new LatestEventDispatcher(mainHandler, event -> {
+        if (binaryEventSink != null) {
+            binaryEventSink.success(event);
+        }
+    }, engine.getPipelineMetrics().delivery);
+    private static final LatestEventDispatcher gestureEvents = new LatestEventDispatcher(mainHandler, event -> {
+        if (gestureEventSink != null) {
+            gestureEventSink.success(event);
+        }
+    }, engine.getPipelineMetrics().delivery);
+    private static final Runnable publishMetrics = HandLandmarkPlugin::publishMetrics;
     
     // Preview support
     private static PreviewView previewView;
     
-    // Configuracion
-    private static final int MAX_HANDS = 2;
-    private static final float MIN_DETECTION_CONFIDENCE = 0.5f;
-    private static final float MIN_PRESENCE_CONFIDENCE = 0.5f;
-    private static final float MIN_TRACKING_CONFIDENCE = 0.5f;
+    // Configuracion del landmarker (modificable en tiempo de ejecucion con configure)
+    private static volatile LandmarkerConfig landmarkerConfig = LandmarkerConfig.DEFAULT;
+    
+    // Ultimo detector creado (delegate en uso y latencia de calentamiento).
+    // Sigue cargado entre stop y start; solo release lo cierra.
+    private static volatile MediaPipeHandDetector handDetector;
+    
+    // Sube en cada stop: las tareas de start pendientes en el executor
+    // comprueban que su sesion no se ha detenido antes de arrancar el motor
+    private static volatile int sessionCount;
+    
+    // Sube en cada release (con setupLock). Un landmarker pedido antes, que
+    // aun se estaba cargando o esperaba en el executor, se cierra en lugar
+    // de instalarse: si no, quedaria un grafo cargado que nadie cierra.
+    private static final Object setupLock = new Object();
+    private static volatile int releaseCount;
+    
+    // Lote de imagenes en curso (ver startBatch)
+    private static BatchProcessor<LandmarkFrame> batchProcessor;
+    private static int batchCount;
+    
+    // Grabacion de la sesion en curso (ver SessionRecorder)
+    private static final String SESSIONS_DIR = "sessions";
+    private static SessionRecorder sessionRecorder;
+    
+    // Extraccion de video en curso (ver processVideo)
+    private static volatile VideoLandmarkExtractor videoExtractor;
     
     /**
      * Establece el EventSink para enviar datos a Flutter
@@ -416,6 +494,150 @@ public class HandLandmarkPlugin {
         eventSink = sink;
     }
     
+    /**
+     * Establece el EventSink del canal binario (resultados empaquetados con LandmarkPacker)
+     */
+    public static void setBinaryEventSink(EventChannel.EventSink sink) {
+        binaryEventSink = sink;
+    }
+    
+    /**
+     * Establece el EventSink del canal de gestos clasificados en el dispositivo
+     */
+    public static void setGestureEventSink(EventChannel.EventSink sink) {
+        gestureEventSink = sink;
+    }
+    
+    /**
+     * Establece el EventSink de metricas. Mientras haya sink se envia un
+     * resumen cada METRICS_INTERVAL_MS (tambien con la deteccion parada:
+     * el canal no depende de start/stop).
+     */
+    public static void setMetricsEventSink(EventChannel.EventSink sink) {
+        metricsEventSink = sink;
+        mainHandler.removeCallbacks(publishMetrics);
+        if (sink != null) {
+            mainHandler.postDelayed(publishMetrics, METRICS_INTERVAL_MS);
+        }
+    }
+    
+    /**
+     * Establece el EventSink de los resultados de startBatch
+     */
+    public static void setBatchEventSink(EventChannel.EventSink sink) {
+        batchEventSink = sink;
+    }
+    
+    /**
+     * Histogramas de latencia por etapa (en ms) y frames descartados en
+     * cada punto del pipeline, para Flutter
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> info = engine.getMetrics();
+        Map<String, Object> drops = (Map<String, Object>) info.get("drops");
+        drops.put("coalesced", mapEvents.getCoalescedCount()
+                + binaryEvents.getCoalescedCount()
+                + gestureEvents.getCoalescedCount());
+        info.put("timestamp", System.currentTimeMillis());
+        return info;
+    }
+    
+    private static void publishMetrics() {
+        EventChannel.EventSink sink = metricsEventSink;
+        if (sink == null) {
+            return;
+        }
+        sink.success(getMetrics());
+        mainHandler.postDelayed(publishMetrics, METRICS_INTERVAL_MS);
+    }
+    
+    /**
+     * Sustituye las plantillas del clasificador local de gestos.
+     * Una lista vacia desactiva la clasificacion.
+     */
+    public static void setGestureTemplates(List<String> labels, List<float[]> landmarks, List<Boolean> leftHanded) {
+        engine.setGestureTemplates(labels, landmarks, leftHanded);
+        Log.d(TAG, "Plantillas de gestos: " + engine.getGestureTemplateCount());
+    }
+    
+    /**
+     * Activa el recorte a la region de la mano: mientras se sigue una mano,
+     * solo se envia a MediaPipe un cuadrado alrededor de su posicion anterior
+     */
+    public static void setRoiCropping(boolean enabled) {
+        engine.setRoiCropping(enabled);
+    }
+    
+    /**
+     * Cuando emitir eventos: en cada resultado ("always") o solo cuando la
+     * pose cambia o tras windowFrames frames sin emitir ("onChange", ver GestureWindow)
+     */
+    public static void setEmitOptions(String mode, float motionThreshold, int windowFrames) {
+        engine.setEmitOptions(mode, motionThreshold, windowFrames);
+        Log.d(TAG, "Emision de eventos: " + engine.getEmitMode());
+    }
+    
+    /**
+     * Umbrales del clasificador local (ver GestureClassifier)
+     */
+    public static void setGestureThresholds(float maxDistance, float minConfidence, float minMargin) {
+        engine.setGestureThresholds(maxDistance, minConfidence, minMargin);
+    }
+    
+    /**
+     * Limita los datos que se construyen y envian por evento.
+     * Los landmarks normalizados se envian siempre; los world landmarks y la
+     * handedness son opcionales, y solo se envian las primeras maxHands manos.
+     */
+    public static void setOutputOptions(int maxHands, boolean worldLandmarks, boolean handedness) {
+        engine.setOutputOptions(maxHands, worldLandmarks, handedness);
+        Log.d(TAG, "Salida: maxHands=" + engine.getOutputMaxHands() + ", campos=" + engine.getOutputFields());
+    }
+    
+    /**
+     * Suavizado de landmarks antes de enviarlos (LandmarkSmoother.MODE_*).
+     * minCutoff/beta se usan con One Euro y processNoise/measurementNoise con Kalman.
+     */
+    public static void setSmoothing(String mode, float minCutoff, float beta,
+                                    float processNoise, float measurementNoise) {
+        engine.setSmoothing(mode, minCutoff, beta, processNoise, measurementNoise);
+        Log.d(TAG, "Suavizado: " + engine.getSmoothingMode());
+    }
+    
+    /**
+     * Presupuesto de latencia (detectAsync -> resultado) que el regulador de fps intenta mantener
+     */
+    public static void setLatencyBudgetMs(long latencyBudgetMs) {
+        engine.setLatencyBudgetMs(latencyBudgetMs);
+    }
+    
+    /**
+     * Maximo de frames simultaneos dentro de MediaPipe y que hacer al alcanzarlo
+     * (InFlightLimiter.POLICY_DROP_INCOMING o POLICY_EXPIRE_STALE)
+     */
+    public static void setInFlightOptions(int maxInFlight, String dropPolicy, long staleAfterMs) {
+        engine.setInFlightOptions(maxInFlight, dropPolicy, staleAfterMs);
+        Log.d(TAG, "En vuelo: max=" + engine.getMaxInFlight()
+                + ", politica=" + engine.getInFlightPolicy());
+    }
+    
+    /**
+     * Estado actual del regulador de fps, para Flutter
+     */
+    public static Map<String, Object> getFrameRate() {
+        Map<String, Object> info = engine.getFrameRate();
+        info.put("coalescedEvents", mapEvents.getCoalescedCount() + binaryEvents.getCoalescedCount());
+        return info;
+    }
+    
+    /**
+     * Activa el pipeline por etapas. Se aplica al iniciar la camara.
+     */
+    public static void setPipelined(boolean enabled) {
+        engine.setPipelined(enabled);
+    }
+    
     /**
      * Establece el PreviewView para mostrar la camara
      */
@@ -423,6 +645,15 @@ public class HandLandmarkPlugin {
         previewView = view;
     }
     
+    /**
+     * Selecciona como se entregan los frames a MediaPipe
+     * ("buffer", "bitmap", "yuv" o "auto", ver CameraFrameSource)
+     */
+    public static void setInputMode(String mode) {
+        cameraSource.setInputMode(mode);
+        Log.d(TAG, "Modo de entrada: " + cameraSource.getInputMode());
+    }
+    
     /**
      * Devuelve el PreviewView actual (puede ser null si no se ha configurado)
      */
@@ -437,14 +668,12 @@ public class HandLandmarkPlugin {
         try {
             Log.d(TAG, "Iniciando deteccion de manos (modo headless)...");
             
-            if (context instanceof LifecycleOwner) {
-                lifecycleOwner = (LifecycleOwner) context;
-            } else {
+            if (!(context instanceof LifecycleOwner)) {
                 Log.e(TAG, "Context debe ser una Activity/LifecycleOwner");
                 return;
             }
             
-            setupHandLandmarker(context);
+            initHandLandmarker(context);
             startCamera(context);
             
         } catch (Exception e) {
@@ -463,14 +692,12 @@ public class HandLandmarkPlugin {
         try {
             Log.d(TAG, "Iniciando deteccion de manos con preview...");
             
-            if (context instanceof LifecycleOwner) {
-                lifecycleOwner = (LifecycleOwner) context;
-            } else {
+            if (!(context instanceof LifecycleOwner)) {
                 Log.e(TAG, "Context debe ser una Activity/LifecycleOwner");
                 return;
             }
             
-            setupHandLandmarker(context);
+            initHandLandmarker(context);
             startCamera(context);
             
         } catch (Exception e) {
@@ -482,268 +709,443 @@ public class HandLandmarkPlugin {
     }
     
     /**
-     * Configura el HandLandmarker de MediaPipe
+     * Devuelve la configuracion actual del landmarker
      */
-    private static void setupHandLandmarker(Context context) {
-        try {
-            if (handLandmarker != null) {
-                handLandmarker.close();
-            }
-            
-            BaseOptions baseOptions = BaseOptions.builder()
-                    .setModelAssetPath(MODEL_PATH)
-                    .build();
-            
-            HandLandmarker.HandLandmarkerOptions options =
-                    HandLandmarker.HandLandmarkerOptions.builder()
-                            .setBaseOptions(baseOptions)
-                            .setRunningMode(RunningMode.LIVE_STREAM)
-                            .setNumHands(MAX_HANDS)
-                            .setMinHandDetectionConfidence(MIN_DETECTION_CONFIDENCE)
-                            .setMinHandPresenceConfidence(MIN_PRESENCE_CONFIDENCE)
-                            .setMinTrackingConfidence(MIN_TRACKING_CONFIDENCE)
-                            .setResultListener((handLandmarkerResult, mpImage) -> {
-                                onHandLandmarkerResults(handLandmarkerResult);
-                            })
-                            .setErrorListener((RuntimeException error) -> {
-                                Log.e(TAG, "HandLandmarker error: " + error.getMessage());
-                            })
-                            .build();
-            
-            handLandmarker = HandLandmarker.createFromOptions(context, options);
-            Log.d(TAG, "HandLandmarker inicializado correctamente");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error configurando HandLandmarker: " + e.getMessage());
-            throw new RuntimeException(e);
-        }
+    static LandmarkerConfig getLandmarkerConfig() {
+        return landmarkerConfig;
     }
     
     /**
-     * Callback cuando se detectan landmarks de manos
+     * Cambia las opciones del landmarker. Si hay uno cargado (deteccion
+     * activa o en espera entre stop y start), se reconstruye en el hilo del
+     * analizador (sin tocar CameraX); el motor no le envia frames mientras
+     * se cambia. Si no, la configuracion se aplica en el siguiente start.
      */
-    private static void onHandLandmarkerResults(HandLandmarkerResult handResult) {
-        if (eventSink == null) return;
-        
-        int handsDetected = handResult.landmarks().size();
+    public static void configure(Context context, LandmarkerConfig config, MethodChannel.Result result) {
+        landmarkerConfig = config;
+        Log.d(TAG, "Nueva configuracion: " + config);
         
-        List<Map<String, Object>> handsData = new ArrayList<>();
-        
-        for (int i = 0; i < handsDetected; i++) {
-            Map<String, Object> handData = new HashMap<>();
-            
-            // Landmarks normalizados
-            List<NormalizedLandmark> landmarks = handResult.landmarks().get(i);
-            List<Map<String, Float>> landmarkList = new ArrayList<>();
-            
-            for (int j = 0; j < landmarks.size(); j++) {
-                NormalizedLandmark landmark = landmarks.get(j);
-                Map<String, Float> point = new HashMap<>();
-                point.put("x", landmark.x());
-                point.put("y", landmark.y());
-                point.put("z", landmark.z());
-                landmarkList.add(point);
-            }
-            
-            // World landmarks
-            List<Landmark> worldLandmarks = handResult.worldLandmarks().get(i);
-            List<Map<String, Float>> worldLandmarkList = new ArrayList<>();
-            
-            for (int j = 0; j < worldLandmarks.size(); j++) {
-                Landmark landmark = worldLandmarks.get(j);
-                Map<String, Float> point = new HashMap<>();
-                point.put("x", landmark.x());
-                point.put("y", landmark.y());
-                point.put("z", landmark.z());
-                worldLandmarkList.add(point);
-            }
-            
-            // Handedness
-            String handedness = handResult.handedness().get(i).get(0).categoryName();
-            float handednessScore = handResult.handedness().get(i).get(0).score();
-            
-            handData.put("landmarks", landmarkList);
-            handData.put("worldLandmarks", worldLandmarkList);
-            handData.put("handedness", handedness);
-            handData.put("handednessScore", handednessScore);
-            
-            handsData.add(handData);
+        if (executorService == null) {
+            result.success(getEngineInfo());
+            return;
         }
         
-        new Handler(Looper.getMainLooper()).post(() -> {
-            if (eventSink != null) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("hands", handsData);
-                response.put("timestamp", System.currentTimeMillis());
-                eventSink.success(response);
+        Context appContext = context.getApplicationContext();
+        ExecutorService executor = executorService;
+        int generation = releaseCount;
+        
+        executor.execute(() -> {
+            try {
+                // Tras un release la configuracion se aplica en el siguiente start
+                if (!executor.isShutdown()) {
+                    setupHandLandmarker(appContext, generation);
+                }
+                mainHandler.post(() -> result.success(getEngineInfo()));
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error reconfigurando HandLandmarker: " + e.getMessage());
+                mainHandler.post(() -> result.error("CONFIGURE_ERROR", e.getMessage(), null));
             }
         });
     }
     
     /**
-     * Inicia CameraX para captura de video
+     * Inicia la deteccion sobre un fichero de frames grabados (RgbaFrameFile)
+     * en lugar de la camara, para medir el pipeline de forma reproducible.
+     * fps 0 entrega los frames sin esperar y un valor negativo usa el
+     * intervalo guardado en el fichero; con loop se repite el fichero
+     * hasta stop(). Las opciones del motor son las mismas que con camara.
      */
-    private static void startCamera(Context context) {
-        if (executorService == null) {
-            executorService = Executors.newSingleThreadExecutor();
+    public static void startReplay(Context context, String path, double fps, boolean loop) throws IOException {
+        ReplayFrameSource replay = new ReplayFrameSource(RgbaFrameFile.open(new File(path)));
+        if (fps >= 0) {
+            replay.setFrameRate(fps);
         }
+        replay.setLoop(loop);
+        ReplayImageSource source = new ReplayImageSource(replay);
+        Context appContext = context.getApplicationContext();
+        Log.d(TAG, "Reproduciendo frames de " + path);
         
-        ListenableFuture<ProcessCameraProvider> cameraProviderFuture =
-                ProcessCameraProvider.getInstance(context);
-        
-        cameraProviderFuture.addListener(() -> {
+        // El primer frame sale con el landmarker ya creado, para que todas
+        // las ejecuciones procesen la misma secuencia
+        ensureExecutor();
+        ExecutorService executor = executorService;
+        int session = sessionCount;
+        int generation = releaseCount;
+        executor.execute(() -> {
+            if (executor.isShutdown() || session != sessionCount) {
+                return;
+            }
             try {
-                cameraProvider = cameraProviderFuture.get();
-                bindCameraUseCases(context);
-            } catch (ExecutionException | InterruptedException e) {
-                Log.e(TAG, "Error iniciando camara: " + e.getMessage());
-                if (eventSink != null) {
-                    eventSink.error("CAMERA_ERROR", e.getMessage(), null);
+                if (setupHandLandmarker(appContext, generation)) {
+                    engine.start(source);
                 }
+            } catch (RuntimeException e) {
+                mainHandler.post(() -> {
+                    if (eventSink != null) {
+                        eventSink.error("INITIALIZATION_ERROR", e.getMessage(), null);
+                    }
+                });
             }
-        }, ContextCompat.getMainExecutor(context));
+        });
     }
     
     /**
-     * Vincula los casos de uso de CameraX.
-     * Si hay previewView configurado, bindea tambien el Preview use case.
+     * Detecta las manos de una lista de imagenes (rutas absolutas o assets de
+     * Flutter) con workers landmarkers en modo IMAGE en paralelo (0 = uno
+     * por nucleo). Es independiente de la deteccion en vivo.
+     *
+     * Cada resultado llega por el canal del lote en el orden de paths, como
+     * el Map de los landmarks mas batch, index, path, completed y total (o
+     * error si la imagen fallo). Al terminar llega {batch, done, completed,
+     * failed, cancelled, elapsedMs}. Devuelve {batch, workers}: batch
+     * distingue estos eventos de los de un lote anterior cancelado.
      */
-    private static void bindCameraUseCases(Context context) {
-        // ImageAnalysis use case (siempre presente)
-        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
-                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
-                .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888)
-                .build();
+    public static Map<String, Object> startBatch(Context context, List<String> paths, int workers) {
+        cancelBatch();
         
-        imageAnalysis.setAnalyzer(executorService, imageProxy -> {
-            analyzeImage(imageProxy);
-        });
+        int batch = ++batchCount;
+        Context appContext = context.getApplicationContext();
+        LandmarkerConfig config = landmarkerConfig;
+        BatchProcessor<LandmarkFrame> processor = new BatchProcessor<>(
+                () -> ImageHandLandmarker.create(appContext, config),
+                workers > 0 ? workers : BatchProcessor.defaultWorkers());
+        batchProcessor = processor;
         
-        // Camera selector (camara frontal)
-        CameraSelector cameraSelector = CameraSelector.DEFAULT_FRONT_CAMERA;
-        
-        try {
-            // Desvincular casos de uso anteriores
-            cameraProvider.unbindAll();
-            
-            if (previewView != null) {
-                // Modo con preview: bindear Preview + ImageAnalysis
-                Preview preview = new Preview.Builder().build();
-                preview.setSurfaceProvider(previewView.getSurfaceProvider());
-                
-                cameraProvider.bindToLifecycle(
-                        lifecycleOwner,
-                        cameraSelector,
-                        preview,
-                        imageAnalysis
-                );
-                
-                Log.d(TAG, "Camara iniciada con preview + analisis");
-            } else {
-                // Modo headless: solo ImageAnalysis (compatibilidad con test_pantalla_curso)
-                cameraProvider.bindToLifecycle(
-                        lifecycleOwner,
-                        cameraSelector,
-                        imageAnalysis
-                );
-                
-                Log.d(TAG, "Camara iniciada en modo headless (solo analisis)");
+        long startNanos = System.nanoTime();
+        Log.d(TAG, "Lote de " + paths.size() + " imagenes con " + processor.getWorkers() + " workers");
+        processor.start(paths, new BatchProcessor.Listener<LandmarkFrame>() {
+            @Override
+            public void onItem(int index, String path, LandmarkFrame result, Exception error,
+                               int completed, int total) {
+                Map<String, Object> event = result != null ? LandmarkPacker.toMap(result) : new HashMap<>();
+                event.put("batch", batch);
+                event.put("index", index);
+                event.put("path", path);
+                event.put("completed", completed);
+                event.put("total", total);
+                if (error != null) {
+                    event.put("error", String.valueOf(error.getMessage()));
+                }
+                postBatchEvent(event);
             }
             
-        } catch (Exception e) {
-            Log.e(TAG, "Error vinculando camara: " + e.getMessage());
-            if (eventSink != null) {
-                eventSink.error("CAMERA_BIND_ERROR", e.getMessage(), null);
+            @Override
+            public void onFinished(int completed, int failed, boolean cancelled) {
+                long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+                Log.d(TAG, "Lote terminado: " + completed + " imagenes (" + failed + " con error) en " + elapsedMs + " ms");
+                
+                Map<String, Object> event = new HashMap<>();
+                event.put("batch", batch);
+                event.put("done", true);
+                event.put("completed", completed);
+                event.put("failed", failed);
+                event.put("cancelled", cancelled);
+                event.put("elapsedMs", elapsedMs);
+                postBatchEvent(event);
             }
-        }
+        });
+        
+        Map<String, Object> info = new HashMap<>();
+        info.put("batch", batch);
+        info.put("workers", processor.getWorkers());
+        return info;
     }
     
     /**
-     * Analiza cada frame de la camara
+     * Cancela el lote en curso (las imagenes que ya se estan procesando se
+     * entregan antes del evento final)
      */
-    private static void analyzeImage(@NonNull ImageProxy imageProxy) {
-        if (isProcessing) {
-            imageProxy.close();
-            return;
+    public static void cancelBatch() {
+        BatchProcessor<LandmarkFrame> processor = batchProcessor;
+        if (processor != null) {
+            processor.cancel();
+            batchProcessor = null;
         }
+    }
+    
+    /**
+     * Los resultados del lote no se descartan: se encolan todos en el hilo principal
+     */
+    private static void postBatchEvent(Map<String, Object> event) {
+        mainHandler.post(() -> {
+            if (batchEventSink != null) {
+                batchEventSink.success(event);
+            }
+        });
+    }
+    
+    /**
+     * Empieza a grabar los resultados en files/sessions/fileName (por
+     * defecto session_<fecha>.hlr). Si ya habia una grabacion se cierra
+     * antes. Devuelve la ruta del fichero.
+     */
+    public static String startRecording(Context context, String fileName) throws IOException {
+        stopRecording();
         
-        isProcessing = true;
+        String name = fileName != null && !fileName.isEmpty()
+                ? new File(fileName).getName()
+                : "session_" + System.currentTimeMillis() + ".hlr";
+        File file = new File(new File(context.getFilesDir(), SESSIONS_DIR), name);
         
-        try {
-            Bitmap bitmap = imageProxyToBitmap(imageProxy);
-            bitmap = rotateBitmap(bitmap, imageProxy.getImageInfo().getRotationDegrees());
-            MPImage mpImage = new BitmapImageBuilder(bitmap).build();
-            long frameTime = System.currentTimeMillis();
-            handLandmarker.detectAsync(mpImage, frameTime);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error analizando imagen: " + e.getMessage());
-        } finally {
-            isProcessing = false;
-            imageProxy.close();
-        }
+        SessionRecorder recorder = SessionRecorder.open(file);
+        sessionRecorder = recorder;
+        engine.setRecorder(recorder);
+        Log.d(TAG, "Grabando sesion en " + file);
+        return file.getAbsolutePath();
     }
     
     /**
-     * Convierte ImageProxy (RGBA_8888) a Bitmap
+     * Termina la grabacion en curso y devuelve su resumen para Flutter
+     * (path, records, droppedRecords y bytes), o null si no habia ninguna
      */
-    private static Bitmap imageProxyToBitmap(ImageProxy imageProxy) {
-        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
-        ByteBuffer buffer = plane.getBuffer();
+    public static Map<String, Object> stopRecording() throws IOException {
+        SessionRecorder recorder = sessionRecorder;
+        if (recorder == null) {
+            return null;
+        }
+        sessionRecorder = null;
+        engine.setRecorder(null);
+        recorder.close();
         
-        int width = imageProxy.getWidth();
-        int height = imageProxy.getHeight();
-        int pixelStride = plane.getPixelStride();
-        int rowStride = plane.getRowStride();
-        int rowPadding = rowStride - pixelStride * width;
+        File file = recorder.getFile();
+        Map<String, Object> info = new HashMap<>();
+        info.put("path", file.getAbsolutePath());
+        info.put("records", recorder.getRecordCount());
+        info.put("droppedRecords", recorder.getDroppedCount());
+        info.put("bytes", file.length());
+        Log.d(TAG, "Sesion grabada: " + info);
+        return info;
+    }
+    
+    /**
+     * Extrae la pista de landmarks de un video (ruta absoluta o asset de
+     * Flutter) a files/sessions/fileName, con el formato de startRecording
+     * y el presentation timestamp de cada frame. Se decodifica y procesa en
+     * su propio hilo tan rapido como se pueda, independiente de la camara.
+     * result recibe {path, output, frames, records, bytes, durationMs,
+     * elapsedMs, speed, cancelled}.
+     */
+    public static void processVideo(Context context, String videoPath, String fileName,
+                                    MethodChannel.Result result) {
+        cancelVideo();
         
-        Bitmap bitmap = Bitmap.createBitmap(
-                width + rowPadding / pixelStride,
-                height,
-                Bitmap.Config.ARGB_8888
-        );
-        bitmap.copyPixelsFromBuffer(buffer);
+        String name = fileName != null && !fileName.isEmpty()
+                ? new File(fileName).getName()
+                : "video_" + System.currentTimeMillis() + ".hlr";
+        File file = new File(new File(context.getFilesDir(), SESSIONS_DIR), name);
+        VideoLandmarkExtractor extractor =
+                new VideoLandmarkExtractor(context.getApplicationContext(), landmarkerConfig);
+        videoExtractor = extractor;
         
-        if (rowPadding > 0) {
-            bitmap = Bitmap.createBitmap(bitmap, 0, 0, width, height);
+        new Thread(() -> {
+            try {
+                SessionRecorder recorder = SessionRecorder.open(file);
+                Map<String, Object> summary;
+                try {
+                    summary = extractor.extract(videoPath, recorder);
+                } finally {
+                    recorder.close();
+                }
+                summary.put("output", file.getAbsolutePath());
+                summary.put("records", recorder.getRecordCount());
+                summary.put("bytes", file.length());
+                mainHandler.post(() -> result.success(summary));
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Error procesando el video " + videoPath + ": " + e.getMessage());
+                mainHandler.post(() -> result.error("VIDEO_ERROR", e.getMessage(), null));
+            } finally {
+                if (videoExtractor == extractor) {
+                    videoExtractor = null;
+                }
+            }
+        }, "hand-video").start();
+    }
+    
+    /**
+     * Cancela la extraccion de video en curso; su resultado llega con
+     * cancelled a true y los frames procesados hasta entonces
+     */
+    public static void cancelVideo() {
+        VideoLandmarkExtractor extractor = videoExtractor;
+        if (extractor != null) {
+            extractor.cancel();
+            videoExtractor = null;
         }
-        
-        return bitmap;
     }
     
     /**
-     * Rota el bitmap segun los grados especificados
+     * Resolucion objetivo del analisis. Se aplica al iniciar la camara; el
+     * orden de ancho y alto da igual (se usa en orientacion del sensor).
+     * Con 0 CameraX elige la resolucion por defecto del dispositivo.
+     */
+    public static void setAnalysisResolution(int width, int height) {
+        cameraSource.setAnalysisResolution(width, height);
+    }
+    
+    /**
+     * Resolucion pedida y negociada del analisis, para Flutter
+     * (width/height a -1 si la camara aun no esta vinculada)
+     */
+    public static Map<String, Object> getAnalysisResolution() {
+        return cameraSource.getAnalysisResolution();
+    }
+    
+    /**
+     * Delegate en uso y latencia de calentamiento, para Flutter
+     */
+    public static Map<String, Object> getEngineInfo() {
+        MediaPipeHandDetector detector = handDetector;
+        Map<String, Object> info = new HashMap<>();
+        info.put("requestedDelegate", landmarkerConfig.delegate);
+        info.put("delegate", detector != null ? detector.getDelegate() : null);
+        info.put("warmupMs", detector != null ? detector.getWarmupLatencyMs() : -1L);
+        info.put("inputMode", cameraSource.getActiveInputMode());
+        info.put("warm", detector != null);
+        return info;
+    }
+    
+    /**
+     * Carga el modelo en segundo plano al arrancar la app, para que el
+     * primer start no espere a la carga ni al calentamiento
+     */
+    public static void preload(Context context) {
+        Log.d(TAG, "Precargando HandLandmarker");
+        initHandLandmarker(context);
+    }
+    
+    /**
+     * Crea el landmarker en el hilo del analizador para no bloquear el hilo
+     * principal (la carga del modelo y el calentamiento en GPU tardan).
+     * Al ser un executor de un solo hilo, termina antes del primer frame.
+     * Si ya hay uno cargado (precarga o sesion anterior) se reutiliza.
      */
-    private static Bitmap rotateBitmap(Bitmap bitmap, int rotationDegrees) {
-        if (rotationDegrees == 0) return bitmap;
+    private static void initHandLandmarker(Context context) {
+        Context appContext = context.getApplicationContext();
         
-        Matrix matrix = new Matrix();
-        matrix.postRotate(rotationDegrees);
-        return Bitmap.createBitmap(bitmap, 0, 0,
-                bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        ensureExecutor();
+        ExecutorService executor = executorService;
+        int generation = releaseCount;
+        executor.execute(() -> {
+            if (executor.isShutdown() || handDetector != null) {
+                return;
+            }
+            try {
+                setupHandLandmarker(appContext, generation);
+            } catch (RuntimeException e) {
+                mainHandler.post(() -> {
+                    if (eventSink != null) {
+                        eventSink.error("INITIALIZATION_ERROR", e.getMessage(), null);
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * Crea y calienta un HandLandmarker con la configuracion actual y se lo
+     * pasa al motor. El anterior se cierra antes, para no tener dos grafos
+     * cargados a la vez (los frames que lleguen entre medias se descartan).
+     * generation es el releaseCount de cuando se pidio: si ha habido un
+     * release desde entonces no se instala nada y devuelve false.
+     */
+    private static boolean setupHandLandmarker(Context context, int generation) {
+        if (generation != releaseCount) {
+            return false;
+        }
+        engine.setDetector(null);
+        MediaPipeHandDetector detector =
+                MediaPipeHandDetector.create(context, landmarkerConfig, engine.getDetectorListener());
+        synchronized (setupLock) {
+            if (generation == releaseCount) {
+                handDetector = detector;
+                engine.setDetector(detector);
+                return true;
+            }
+        }
+        // release() ha llegado mientras se cargaba el modelo
+        Log.d(TAG, "Landmarker descartado: liberado durante la carga");
+        detector.close();
+        return false;
+    }
+    
+    /**
+     * Inicia CameraX para captura de video
+     */
+    private static void startCamera(Context context) {
+        ensureExecutor();
+        cameraSource.attach(context, (LifecycleOwner) context, previewView, executorService);
+        engine.start(cameraSource);
     }
     
     /**
-     * Detiene la camara y libera recursos
+     * Crea el executor del analizador si no existe
+     */
+    private static void ensureExecutor() {
+        if (executorService == null) {
+            executorService = Executors.newSingleThreadExecutor();
+        }
+    }
+    
+    /**
+     * Detiene la camara (o la reproduccion). El landmarker, los buffers de
+     * conversion y el hilo del analizador siguen listos para el siguiente
+     * start; los libera release.
      */
     public static void stop() {
-        if (cameraProvider != null) {
-            cameraProvider.unbindAll();
+        sessionCount++;
+        engine.pause();
+        
+        try {
+            stopRecording();
+        } catch (IOException e) {
+            Log.e(TAG, "Error cerrando la grabacion: " + e.getMessage());
         }
         
-        if (handLandmarker != null) {
-            handLandmarker.close();
-            handLandmarker = null;
+        previewView = null;
+        eventSink = null;
+        binaryEventSink = null;
+        gestureEventSink = null;
+        mapEvents.clear();
+        binaryEvents.clear();
+        gestureEvents.clear();
+        
+        Log.d(TAG, "Deteccion detenida (landmarker cargado)");
+    }
+    
+    /**
+     * Libera el landmarker, los buffers de conversion y el hilo del
+     * analizador (parando antes la fuente si la hay). Los canales de Flutter
+     * se mantienen. El siguiente start vuelve a cargar el modelo.
+     */
+    public static void release() {
+        sessionCount++;
+        synchronized (setupLock) {
+            releaseCount++;
+            engine.stop();
+            handDetector = null;
         }
         
         if (executorService != null) {
+            // Liberar los buffers de conversion en el hilo del analizador, despues del ultimo frame
+            executorService.execute(engine::releaseFrames);
             executorService.shutdown();
             executorService = null;
         }
         
-        previewView = null;
-        eventSink = null;
-        
-        Log.d(TAG, "Deteccion detenida y recursos liberados");
+        Log.d(TAG, "Landmarker y recursos liberados");
+    }
+    
+    /**
+     * Con poca memoria libera el landmarker si no se esta usando. Pasar a
+     * segundo plano (TRIM_MEMORY_UI_HIDDEN) no cuenta como falta de memoria.
+     */
+    public static void onTrimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                || level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || engine.isRunning()) {
+            return;
+        }
+        Log.d(TAG, "Memoria baja (nivel " + level + "), liberando el landmarker");
+        release();
     }
 }
@@ -0,0 +1,257 @@
+package com.example.proyecto_v1_0;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calcula la region de interes del siguiente frame a partir de los
+ * landmarks del ultimo resultado y devuelve los landmarks obtenidos sobre
+ * un recorte a coordenadas del frame completo.
+ *
+ * Todas las coordenadas son del frame ya rotado (como las ve MediaPipe):
+ * - la region es un cuadrado (left, top, side) en pixeles alrededor de la
+ *   caja de las manos, ampliada con EXPANSION y desplazada para caber
+ * - se usa el frame completo si no hay manos, si la region cubriria casi
+ *   todo el frame o cada REFRESH_INTERVAL frames (para detectar manos nuevas)
+ *
+ * El analizador llama a nextRegion() y onSubmitted(); el callback de
+ * MediaPipe llama a onInference(), mapToFrame() y onResult(). Los metodos
+ * son synchronized porque corren en hilos distintos.
+ *
+ * El recorte cambia de posicion y tamano entre frames y el landmarker en
+ * LIVE_STREAM sigue la mano con los landmarks del frame anterior, asi que
+ * puede perder el seguimiento y volver a ejecutar el detector de palmas.
+ * Para decidir si compensa se mide por separado, para frames recortados y
+ * completos: latencia media de inferencia, frames lentos (mas de
+ * SLOW_FACTOR veces la latencia base, sea cual sea la causa) y perdidas de
+ * la mano. Ver getStats().
+ */
+final class HandRoiTracker {
+
+    private static final int MAX_PENDING = 16;
+    private static final float EXPANSION = 2f;
+    private static final float MAX_COVERAGE = 0.8f;
+    private static final int MIN_SIDE_PX = 128;
+    private static final int REFRESH_INTERVAL = 30;
+
+    // Un frame que tarda mas que esto por la latencia base cuenta como lento
+    private static final float SLOW_FACTOR = 1.5f;
+    private static final float BASELINE_SMOOTHING = 0.1f;
+
+    private volatile boolean enabled;
+
+    // Caja de las manos del ultimo resultado (normalizada)
+    private boolean tracking;
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+    private int framesSinceFull;
+
+    // Frames enviados recortados: timestamp y transformacion recorte -> frame
+    private final long[] pendingTimestamps = new long[MAX_PENDING];
+    private final float[] pendingLeft = new float[MAX_PENDING];
+    private final float[] pendingTop = new float[MAX_PENDING];
+    private final float[] pendingScaleX = new float[MAX_PENDING];
+    private final float[] pendingScaleY = new float[MAX_PENDING];
+    private final boolean[] pendingUsed = new boolean[MAX_PENDING];
+    private int pendingNext;
+
+    private long croppedFrames;
+
+    // Medidas por tipo de frame (indice 0 completo, 1 recortado)
+    private final long[] inferenceCount = new long[2];
+    private final long[] inferenceNanos = new long[2];
+    private final long[] slowFrames = new long[2];
+    private final long[] handLosses = new long[2];
+    private float baselineNanos = -1f;
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        reset();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Region para el siguiente frame. Devuelve false si hay que usar el frame
+     * completo; si no, escribe left, top y side (pixeles) en region.
+     */
+    synchronized boolean nextRegion(int frameWidth, int frameHeight, int[] region) {
+        if (!enabled || !tracking || ++framesSinceFull >= REFRESH_INTERVAL) {
+            framesSinceFull = 0;
+            return false;
+        }
+
+        float boxWidth = (maxX - minX) * frameWidth;
+        float boxHeight = (maxY - minY) * frameHeight;
+        int shortSide = Math.min(frameWidth, frameHeight);
+        int side = (int) Math.max(MIN_SIDE_PX, Math.max(boxWidth, boxHeight) * EXPANSION);
+        if (side >= shortSide * MAX_COVERAGE) {
+            framesSinceFull = 0;
+            return false;
+        }
+        side &= ~1;
+
+        float centerX = (minX + maxX) * 0.5f * frameWidth;
+        float centerY = (minY + maxY) * 0.5f * frameHeight;
+        region[0] = clamp(Math.round(centerX - side * 0.5f), 0, frameWidth - side);
+        region[1] = clamp(Math.round(centerY - side * 0.5f), 0, frameHeight - side);
+        region[2] = side;
+        return true;
+    }
+
+    /**
+     * Apunta la region usada para el frame con ese timestamp. Se llama antes
+     * de detectAsync para que el resultado nunca llegue antes que la region.
+     */
+    synchronized void onSubmitted(long frameTimestamp, int frameWidth, int frameHeight, int[] region) {
+        int slot = pendingNext;
+        pendingNext = (pendingNext + 1) % MAX_PENDING;
+
+        pendingTimestamps[slot] = frameTimestamp;
+        pendingLeft[slot] = region[0] / (float) frameWidth;
+        pendingTop[slot] = region[1] / (float) frameHeight;
+        pendingScaleX[slot] = region[2] / (float) frameWidth;
+        pendingScaleY[slot] = region[2] / (float) frameHeight;
+        pendingUsed[slot] = true;
+        croppedFrames++;
+    }
+
+    /**
+     * Latencia de inferencia del frame con ese timestamp (en el callback de
+     * MediaPipe, antes de mapToFrame). Latencias negativas se ignoran.
+     */
+    synchronized void onInference(long frameTimestamp, long latencyNanos) {
+        if (latencyNanos < 0) {
+            return;
+        }
+        int kind = pendingSlot(frameTimestamp) >= 0 ? 1 : 0;
+        inferenceCount[kind]++;
+        inferenceNanos[kind] += latencyNanos;
+
+        if (baselineNanos > 0 && latencyNanos > baselineNanos * SLOW_FACTOR) {
+            slowFrames[kind]++;
+        } else {
+            baselineNanos = baselineNanos < 0
+                    ? latencyNanos
+                    : baselineNanos + BASELINE_SMOOTHING * (latencyNanos - baselineNanos);
+        }
+    }
+
+    /**
+     * Si el frame se envio recortado, pasa sus landmarks normalizados a
+     * coordenadas del frame completo. Los world landmarks no dependen del recorte.
+     * Devuelve si el frame iba recortado.
+     */
+    synchronized boolean mapToFrame(long frameTimestamp, LandmarkFrame frame) {
+        int slot = pendingSlot(frameTimestamp);
+        if (slot < 0) {
+            return false;
+        }
+        pendingUsed[slot] = false;
+
+        float left = pendingLeft[slot];
+        float top = pendingTop[slot];
+        float scaleX = pendingScaleX[slot];
+        float scaleY = pendingScaleY[slot];
+        int values = frame.handCount * LandmarkFrame.VALUES_PER_HAND;
+        for (int i = 0; i < values; i += 3) {
+            frame.landmarks[i] = left + frame.landmarks[i] * scaleX;
+            frame.landmarks[i + 1] = top + frame.landmarks[i + 1] * scaleY;
+            // z usa la misma escala que x
+            frame.landmarks[i + 2] *= scaleX;
+        }
+        return true;
+    }
+
+    /**
+     * Actualiza la caja con los landmarks (ya en coordenadas del frame
+     * completo). cropped es lo que devolvio mapToFrame.
+     */
+    synchronized void onResult(LandmarkFrame frame, boolean cropped) {
+        int values = frame.handCount * LandmarkFrame.VALUES_PER_HAND;
+        if (values == 0) {
+            if (tracking) {
+                handLosses[cropped ? 1 : 0]++;
+            }
+            tracking = false;
+            return;
+        }
+
+        float newMinX = Float.MAX_VALUE;
+        float newMinY = Float.MAX_VALUE;
+        float newMaxX = -Float.MAX_VALUE;
+        float newMaxY = -Float.MAX_VALUE;
+        for (int i = 0; i < values; i += 3) {
+            newMinX = Math.min(newMinX, frame.landmarks[i]);
+            newMaxX = Math.max(newMaxX, frame.landmarks[i]);
+            newMinY = Math.min(newMinY, frame.landmarks[i + 1]);
+            newMaxY = Math.max(newMaxY, frame.landmarks[i + 1]);
+        }
+
+        minX = newMinX;
+        minY = newMinY;
+        maxX = newMaxX;
+        maxY = newMaxY;
+        tracking = true;
+    }
+
+    /**
+     * Pierde el seguimiento (el siguiente frame se envia completo) y vacia los contadores
+     */
+    synchronized void reset() {
+        tracking = false;
+        framesSinceFull = 0;
+        croppedFrames = 0;
+        for (int i = 0; i < MAX_PENDING; i++) {
+            pendingUsed[i] = false;
+        }
+        for (int kind = 0; kind < 2; kind++) {
+            inferenceCount[kind] = 0;
+            inferenceNanos[kind] = 0;
+            slowFrames[kind] = 0;
+            handLosses[kind] = 0;
+        }
+        baselineNanos = -1f;
+    }
+
+    synchronized long getCroppedFrames() {
+        return croppedFrames;
+    }
+
+    /**
+     * Medidas desde el ultimo reset, para comparar sesiones con y sin
+     * recorte: enabled y, con prefijo cropped/full, Frames, InferenceMs
+     * (media, -1 sin medidas), SlowFrames y HandLosses
+     */
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        String[] prefixes = {"full", "cropped"};
+        for (int kind = 0; kind < 2; kind++) {
+            String prefix = prefixes[kind];
+            long count = inferenceCount[kind];
+            stats.put(prefix + "Frames", count);
+            stats.put(prefix + "InferenceMs", count > 0 ? inferenceNanos[kind] / (double) count / 1_000_000.0 : -1.0);
+            stats.put(prefix + "SlowFrames", slowFrames[kind]);
+            stats.put(prefix + "HandLosses", handLosses[kind]);
+        }
+        return stats;
+    }
+
+    private int pendingSlot(long frameTimestamp) {
+        for (int i = 0; i < MAX_PENDING; i++) {
+            if (pendingUsed[i] && pendingTimestamps[i] == frameTimestamp) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
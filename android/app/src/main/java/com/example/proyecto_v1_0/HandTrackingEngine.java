@@ -0,0 +1,741 @@
+package com.example.proyecto_v1_0;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de seguimiento de manos: regulacion de fps, limite de frames en
+ * vuelo, pipeline por etapas, recorte a la region de la mano, suavizado,
+ * filtro de eventos por cambio de pose y serializacion de resultados.
+ *
+ * No depende de Android: la camara, la conversion de frames, MediaPipe y
+ * los canales de Flutter llegan como FrameSource, FrameConverter,
+ * HandDetector y LandmarkSink, asi que el motor se puede ejecutar en la JVM
+ * con implementaciones sinteticas (pruebas de src/test y benchmarks JMH).
+ *
+ * Flujo por frame: captura (hilo de la fuente) -> preprocesado ->
+ * inferencia -> serializacion. Con pipeline cada etapa tiene su hilo y una
+ * cola acotada, para que el preprocesado del frame N+1 se solape con la
+ * inferencia del frame N. Sin pipeline el preprocesado y el envio se hacen
+ * seguidos en el hilo de la fuente y la serializacion en el del detector.
+ */
+final class HandTrackingEngine<F, I> {
+
+    /**
+     * Reloj monotono en ns (System.nanoTime salvo en pruebas)
+     */
+    interface Ticker {
+        long nanoTime();
+    }
+
+    static final int PIPELINE_FRAMES = 3;
+    private static final int SERIALIZE_QUEUE = 2;
+
+    // La etapa de inferencia espera como mucho esto a que el detector libere un hueco
+    private static final long SLOT_WAIT_MS = 200;
+
+    // releaseFrames espera como mucho esto a cada etapa parada
+    private static final long STAGE_STOP_TIMEOUT_MS = 500;
+
+    private final FrameConverter<F, I> converter;
+    private final LandmarkSink sink;
+    private final Ticker ticker;
+
+    // Latencias por etapa y frames que llegan/se saltan
+    private final PipelineMetrics metrics = new PipelineMetrics();
+
+    // Regulador de fps segun la latencia de inferencia (5-30 fps, 100 ms por defecto)
+    private final FrameRateGovernor frameRateGovernor = new FrameRateGovernor(5f, 30f, 100);
+
+    // Frames dentro del detector: se reserva hueco antes de detectAsync y se
+    // libera en el listener de resultado/error (1 en vuelo por defecto)
+    private final InFlightLimiter inFlightLimiter =
+            new InFlightLimiter(1, InFlightLimiter.POLICY_DROP_INCOMING, 200);
+
+    // Recorte a la region de la mano del frame anterior (ver HandRoiTracker)
+    private final HandRoiTracker roiTracker = new HandRoiTracker();
+
+    // Estado de la serializacion (siempre el mismo hilo: el de serializacion
+    // o, sin pipeline, el del detector)
+    private final LandmarkFrame landmarkFrame = new LandmarkFrame();
+    private final LandmarkSmoother landmarkSmoother = new LandmarkSmoother();
+    private final GestureClassifier gestureClassifier = new GestureClassifier();
+    private final GestureClassifier.Result gestureResult = new GestureClassifier.Result();
+    private final GestureWindow gestureWindow = new GestureWindow();
+
+    // Subconjunto de datos que se serializa (ver setOutputOptions)
+    private volatile int outputFields = LandmarkFrame.FIELDS_ALL;
+    private volatile int outputMaxHands = LandmarkFrame.MAX_HANDS;
+
+    private final ArrayBlockingQueue<PreparedFrame<F, I>> freeFrames =
+            new ArrayBlockingQueue<>(PIPELINE_FRAMES);
+    private volatile boolean pipelined = true;
+    private volatile FrameStage<F> preprocessStage;
+    private volatile FrameStage<PreparedFrame<F, I>> inferenceStage;
+    private volatile FrameStage<HandDetector.Result> serializeStage;
+    private volatile FrameStage<?>[] stoppedStages = new FrameStage<?>[0];
+
+    // Serializa detectAsync con el cambio y el cierre del detector
+    private final Object detectorLock = new Object();
+    private HandDetector<I> detector;
+
+    // Ultimo timestamp de captura (ms) enviado al detector actual (con detectorLock)
+    private long lastFrameTimestamp;
+
+    // La etapa de inferencia espera aqui a que el detector libere un hueco
+    private final Object slotMonitor = new Object();
+
+    private volatile FrameSource<F> source;
+
+    // Grabacion de la sesion (resultados sin suavizar, todas las manos y campos)
+    private volatile SessionRecorder recorder;
+
+    private final HandDetector.Listener detectorListener = new HandDetector.Listener() {
+        @Override
+        public void onResult(HandDetector.Result result) {
+            releaseInFlightSlot(result.timestampMs());
+            if (source == null) {
+                // Frame enviado antes de pause(): el detector sigue vivo pero ya no hay sesion
+                return;
+            }
+            converter.onResult(result.timestampMs());
+            long latency = frameRateGovernor.onCompleted(result.timestampMs(), ticker.nanoTime());
+            metrics.inference.record(latency);
+            roiTracker.onInference(result.timestampMs(), latency);
+            FrameStage<HandDetector.Result> stage = serializeStage;
+            if (stage != null) {
+                stage.submit(result);
+            } else {
+                serialize(result);
+            }
+        }
+
+        @Override
+        public void onError(RuntimeException error) {
+            sink.onFrameError("Error del detector: " + error.getMessage());
+            // MediaPipe no dice de que frame es el error
+            inFlightLimiter.releaseOldest();
+            wakeInferenceStage();
+        }
+    };
+
+    HandTrackingEngine(FrameConverter<F, I> converter, LandmarkSink sink) {
+        this(converter, sink, System::nanoTime);
+    }
+
+    HandTrackingEngine(FrameConverter<F, I> converter, LandmarkSink sink, Ticker ticker) {
+        this.converter = converter;
+        this.sink = sink;
+        this.ticker = ticker;
+        for (int i = 0; i < PIPELINE_FRAMES; i++) {
+            freeFrames.add(new PreparedFrame<>(i));
+        }
+    }
+
+    /**
+     * Listener que hay que pasar al detector al crearlo
+     */
+    HandDetector.Listener getDetectorListener() {
+        return detectorListener;
+    }
+
+    /**
+     * Sustituye el detector (null para quedarse sin ninguno: los frames se
+     * descartan). El anterior se cierra sin ningun frame enviandose.
+     */
+    void setDetector(HandDetector<I> newDetector) {
+        synchronized (detectorLock) {
+            if (detector != null) {
+                detector.close();
+            }
+            detector = newDetector;
+            lastFrameTimestamp = 0;
+        }
+    }
+
+    /**
+     * Graba cada resultado en recorder (null para dejar de grabar). El
+     * recorder lo cierra quien lo abrio.
+     */
+    void setRecorder(SessionRecorder sessionRecorder) {
+        recorder = sessionRecorder;
+    }
+
+    /**
+     * Si hay una fuente entregando frames (entre start y pause/stop)
+     */
+    boolean isRunning() {
+        return source != null;
+    }
+
+    PipelineMetrics getPipelineMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Arranca las etapas (si hay pipeline) y empieza a recibir frames de source
+     */
+    void start(FrameSource<F> frameSource) {
+        startPipeline();
+        source = frameSource;
+        frameSource.start(this::onFrame);
+    }
+
+    /**
+     * Para la fuente, las etapas y el detector y vuelve al estado inicial.
+     * Los buffers del conversor se liberan aparte con releaseFrames.
+     */
+    void stop() {
+        pause();
+        setDetector(null);
+    }
+
+    /**
+     * Como stop(), pero el detector sigue cargado para el siguiente start
+     * (sin volver a cargar el modelo). El ultimo timestamp enviado se
+     * conserva: el detector solo admite timestamps crecientes.
+     */
+    void pause() {
+        FrameSource<F> current = source;
+        source = null;
+        if (current != null) {
+            current.stop();
+        }
+
+        stopPipeline();
+
+        landmarkSmoother.reset();
+        gestureWindow.reset();
+        roiTracker.reset();
+        frameRateGovernor.reset();
+        inFlightLimiter.reset();
+        metrics.reset();
+    }
+
+    /**
+     * Libera los buffers del conversor. Llamar sin frames en curso (p. ej.
+     * en el hilo de la fuente despues del ultimo frame); antes espera a que
+     * las etapas paradas terminen su frame.
+     */
+    void releaseFrames() {
+        try {
+            awaitPipelineStopped(STAGE_STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        converter.release();
+    }
+
+    /**
+     * Sustituye las plantillas del clasificador local de gestos.
+     * Una lista vacia desactiva la clasificacion.
+     */
+    void setGestureTemplates(List<String> labels, List<float[]> landmarks, List<Boolean> leftHanded) {
+        gestureClassifier.setTemplates(labels, landmarks, leftHanded);
+    }
+
+    int getGestureTemplateCount() {
+        return gestureClassifier.getTemplateCount();
+    }
+
+    /**
+     * Umbrales del clasificador local (ver GestureClassifier)
+     */
+    void setGestureThresholds(float maxDistance, float minConfidence, float minMargin) {
+        gestureClassifier.setThresholds(maxDistance, minConfidence, minMargin);
+    }
+
+    /**
+     * Activa el recorte a la region de la mano del frame anterior
+     */
+    void setRoiCropping(boolean enabled) {
+        roiTracker.setEnabled(enabled);
+    }
+
+    /**
+     * Cuando emitir eventos (ver GestureWindow)
+     */
+    void setEmitOptions(String mode, float motionThreshold, int windowFrames) {
+        gestureWindow.configure(mode, motionThreshold, windowFrames);
+    }
+
+    String getEmitMode() {
+        return gestureWindow.getMode();
+    }
+
+    /**
+     * Limita los datos que se construyen por evento: los landmarks
+     * normalizados van siempre; los world landmarks y la handedness son
+     * opcionales, y solo se serializan las primeras maxHands manos.
+     */
+    void setOutputOptions(int maxHands, boolean worldLandmarks, boolean handedness) {
+        int fields = 0;
+        if (worldLandmarks) fields |= LandmarkFrame.FIELD_WORLD_LANDMARKS;
+        if (handedness) fields |= LandmarkFrame.FIELD_HANDEDNESS;
+
+        outputFields = fields;
+        outputMaxHands = Math.max(1, Math.min(maxHands, LandmarkFrame.MAX_HANDS));
+        landmarkSmoother.reset();
+    }
+
+    int getOutputFields() {
+        return outputFields;
+    }
+
+    int getOutputMaxHands() {
+        return outputMaxHands;
+    }
+
+    /**
+     * Suavizado de landmarks antes de serializarlos (LandmarkSmoother.MODE_*)
+     */
+    void setSmoothing(String mode, float minCutoff, float beta, float processNoise, float measurementNoise) {
+        landmarkSmoother.configure(mode, minCutoff, beta, processNoise, measurementNoise);
+    }
+
+    String getSmoothingMode() {
+        return landmarkSmoother.getMode();
+    }
+
+    /**
+     * Presupuesto de latencia (detectAsync -> resultado) que el regulador de fps intenta mantener
+     */
+    void setLatencyBudgetMs(long latencyBudgetMs) {
+        frameRateGovernor.setLatencyBudgetMs(latencyBudgetMs);
+    }
+
+    /**
+     * Maximo de frames simultaneos dentro del detector y que hacer al alcanzarlo
+     * (InFlightLimiter.POLICY_DROP_INCOMING o POLICY_EXPIRE_STALE)
+     */
+    void setInFlightOptions(int maxInFlight, String dropPolicy, long staleAfterMs) {
+        inFlightLimiter.configure(maxInFlight, dropPolicy, staleAfterMs);
+    }
+
+    int getMaxInFlight() {
+        return inFlightLimiter.getMaxInFlight();
+    }
+
+    String getInFlightPolicy() {
+        return inFlightLimiter.getPolicy();
+    }
+
+    /**
+     * Activa el pipeline por etapas. Se aplica en el siguiente start.
+     */
+    void setPipelined(boolean enabled) {
+        pipelined = enabled;
+    }
+
+    /**
+     * Estado del regulador de fps, de las colas y del filtro de eventos
+     */
+    Map<String, Object> getFrameRate() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("targetFps", (double) frameRateGovernor.getTargetFps());
+        info.put("outputFps", (double) frameRateGovernor.getOutputFps());
+        info.put("latencyMs", (double) frameRateGovernor.getLatencyMs());
+        info.put("sustainableFps", (double) frameRateGovernor.getSustainableFps());
+        info.put("inFlight", inFlightLimiter.getInFlight());
+        info.put("maxInFlight", inFlightLimiter.getMaxInFlight());
+        info.put("droppedFrames", inFlightLimiter.getDroppedFrames());
+        info.put("expiredFrames", inFlightLimiter.getExpiredFrames());
+        info.put("suppressedEvents", gestureWindow.getSuppressedCount());
+        info.put("croppedFrames", roiTracker.getCroppedFrames());
+        info.put("motion", (double) gestureWindow.getLastMotion());
+        info.put("pipelined", preprocessStage != null);
+        info.put("preprocessDrops", stageDrops(preprocessStage));
+        info.put("inferenceDrops", stageDrops(inferenceStage));
+        info.put("serializeDrops", stageDrops(serializeStage));
+        return info;
+    }
+
+    /**
+     * Histogramas de latencia por etapa (en ms) y frames descartados en
+     * cada punto del pipeline ("drops")
+     */
+    Map<String, Object> getMetrics() {
+        Map<String, Object> info = metrics.toMap();
+        Map<String, Object> drops = new HashMap<>();
+        drops.put("governor", info.get("framesSkipped"));
+        drops.put("inFlight", inFlightLimiter.getDroppedFrames());
+        drops.put("preprocess", stageDrops(preprocessStage));
+        drops.put("inference", stageDrops(inferenceStage));
+        drops.put("serialize", stageDrops(serializeStage));
+        drops.put("suppressed", gestureWindow.getSuppressedCount());
+        info.put("drops", drops);
+        info.put("roi", roiTracker.getStats());
+        return info;
+    }
+
+    /**
+     * Entrada de cada frame de la fuente
+     */
+    void onFrame(F frame) {
+        long now = ticker.nanoTime();
+        metrics.onFrameArrived(now);
+
+        // Saltar frames si el detector no mantiene la latencia objetivo
+        if (!frameRateGovernor.shouldProcess(now)) {
+            metrics.onFrameSkipped();
+            converter.close(frame);
+            return;
+        }
+
+        // Con pipeline el hueco en el detector se reserva en la etapa de inferencia,
+        // para que el preprocesado del siguiente frame no espere al resultado
+        FrameStage<F> stage = preprocessStage;
+        if (stage != null) {
+            stage.submit(frame);
+            return;
+        }
+
+        // Cola acotada dentro del detector: si esta llena, el frame se descarta
+        if (!inFlightLimiter.tryAcquire(ticker.nanoTime())) {
+            frameRateGovernor.onDropped(ticker.nanoTime());
+            converter.close(frame);
+            return;
+        }
+        preprocessFrame(frame, true);
+    }
+
+    /**
+     * Arranca los hilos de preprocesado, inferencia y serializacion
+     * (si el pipeline esta activado y no estan ya en marcha)
+     */
+    private void startPipeline() {
+        if (!pipelined || preprocessStage != null) {
+            return;
+        }
+
+        // Una sola entrada por cola: si la etapa siguiente va por detras se
+        // sustituye el frame pendiente por el mas reciente
+        FrameStage<HandDetector.Result> serialize = new FrameStage<>(
+                "hand-serialize", SERIALIZE_QUEUE,
+                this::serialize,
+                result -> { },
+                error -> onStageError("serializacion", error));
+        FrameStage<PreparedFrame<F, I>> inference = new FrameStage<>(
+                "hand-inference", 1,
+                frame -> submitFrame(frame, false),
+                this::recycleFrame,
+                error -> onStageError("inferencia", error));
+        FrameStage<F> preprocess = new FrameStage<>(
+                "hand-preprocess", 1,
+                frame -> preprocessFrame(frame, false),
+                converter::close,
+                error -> onStageError("preprocesado", error));
+
+        serialize.start();
+        inference.start();
+        preprocess.start();
+        serializeStage = serialize;
+        inferenceStage = inference;
+        preprocessStage = preprocess;
+    }
+
+    /**
+     * Para las etapas en orden de flujo sin esperar a sus hilos; lo que
+     * quede en sus colas se libera. awaitPipelineStopped() espera al
+     * elemento que cada una tuviera en curso.
+     */
+    private void stopPipeline() {
+        FrameStage<F> preprocess = preprocessStage;
+        FrameStage<PreparedFrame<F, I>> inference = inferenceStage;
+        FrameStage<HandDetector.Result> serialize = serializeStage;
+        preprocessStage = null;
+        inferenceStage = null;
+        serializeStage = null;
+        if (preprocess == null) {
+            return;
+        }
+
+        preprocess.stop();
+        inference.stop();
+        serialize.stop();
+        stoppedStages = new FrameStage<?>[]{preprocess, inference, serialize};
+    }
+
+    /**
+     * Espera (como mucho timeoutMs por etapa) a que terminen los hilos de
+     * las etapas paradas. Devuelve false si alguno sigue vivo. Fuera del
+     * hilo principal.
+     */
+    boolean awaitPipelineStopped(long timeoutMs) throws InterruptedException {
+        FrameStage<?>[] stages = stoppedStages;
+        boolean stopped = true;
+        for (FrameStage<?> stage : stages) {
+            stopped &= stage.awaitStopped(timeoutMs);
+        }
+        return stopped;
+    }
+
+    /**
+     * Un handler de etapa ha lanzado algo que no gestiona: se avisa a
+     * Flutter y la etapa sigue con el siguiente frame
+     */
+    private void onStageError(String stage, Throwable error) {
+        sink.onFrameError("Error en la etapa de " + stage + ": " + error);
+    }
+
+    private static long stageDrops(FrameStage<?> stage) {
+        return stage != null ? stage.getDroppedCount() : 0;
+    }
+
+    /**
+     * Etapa de preprocesado: convierte el frame en un PreparedFrame libre y
+     * lo pasa a la etapa de inferencia. Sin PreparedFrame libre el frame se
+     * descarta (la inferencia va por detras). holdsSlot indica que ya se
+     * reservo el hueco en el detector (modo sin pipeline).
+     */
+    private void preprocessFrame(F source, boolean holdsSlot) {
+        PreparedFrame<F, I> frame = freeFrames.poll();
+        if (frame == null) {
+            frameRateGovernor.onDropped(ticker.nanoTime());
+            converter.close(source);
+            if (holdsSlot) {
+                inFlightLimiter.cancel();
+            }
+            return;
+        }
+
+        boolean prepared = false;
+        boolean keepFrame = false;
+        long start = ticker.nanoTime();
+
+        try {
+            int frameWidth = converter.width(source);
+            int frameHeight = converter.height(source);
+            frame.cropped = roiTracker.nextRegion(frameWidth, frameHeight, frame.region);
+            frame.frameWidth = frameWidth;
+            frame.frameHeight = frameHeight;
+            frame.captureTimestamp = converter.timestampNanos(source) / 1_000_000L;
+            frame.rotationNanos = -1;
+
+            keepFrame = converter.convert(source, frame);
+            metrics.conversion.record(ticker.nanoTime() - start);
+            if (frame.rotationNanos >= 0) {
+                metrics.rotation.record(frame.rotationNanos);
+            }
+
+            frame.heldFrame = keepFrame ? source : null;
+            prepared = true;
+
+        } catch (Exception e) {
+            sink.onFrameError("Error preprocesando imagen: " + e.getMessage());
+        } finally {
+            if (!keepFrame || !prepared) {
+                converter.close(source);
+            }
+            if (!prepared) {
+                frame.input = null;
+                frame.heldFrame = null;
+                freeFrames.offer(frame);
+                if (holdsSlot) {
+                    inFlightLimiter.cancel();
+                }
+            }
+        }
+
+        if (prepared) {
+            FrameStage<PreparedFrame<F, I>> stage = inferenceStage;
+            if (stage != null && !holdsSlot) {
+                stage.submit(frame);
+            } else {
+                submitFrame(frame, holdsSlot);
+            }
+        }
+    }
+
+    /**
+     * Etapa de inferencia: envia el frame al detector y devuelve el
+     * PreparedFrame al pool. El lock evita enviar frames mientras se
+     * cambia o se cierra el detector.
+     */
+    private void submitFrame(PreparedFrame<F, I> frame, boolean holdsSlot) {
+        // Cola acotada dentro del detector: con pipeline se espera un poco a que
+        // termine el frame anterior; si sigue llena, el frame se descarta
+        if (!holdsSlot) {
+            awaitInFlightSlot();
+        }
+        if (!holdsSlot && !inFlightLimiter.tryAcquire(ticker.nanoTime())) {
+            frameRateGovernor.onDropped(ticker.nanoTime());
+            recycleFrame(frame);
+            return;
+        }
+
+        boolean submitted = false;
+
+        try {
+            synchronized (detectorLock) {
+                HandDetector<I> current = detector;
+                if (current == null) {
+                    return;
+                }
+
+                // Timestamp de captura del sensor: monotono y el mismo que devuelve
+                // el resultado. Dos frames en el mismo ms no pueden ir al detector
+                long frameTime = frame.captureTimestamp;
+                if (frameTime <= lastFrameTimestamp) {
+                    return;
+                }
+                lastFrameTimestamp = frameTime;
+
+                if (frame.cropped) {
+                    roiTracker.onSubmitted(frameTime, frame.frameWidth, frame.frameHeight, frame.region);
+                }
+                long submitNanos = ticker.nanoTime();
+                // El resultado puede llegar antes de volver (detector sincrono):
+                // el frame se apunta como enviado antes de detectAsync
+                frameRateGovernor.onSubmitted(frameTime, submitNanos);
+                inFlightLimiter.submitted(frameTime);
+                current.detectAsync(frame.input, frameTime);
+                submitted = true;
+            }
+        } catch (Exception e) {
+            sink.onFrameError("Error analizando imagen: " + e.getMessage());
+        } finally {
+            if (!submitted) {
+                inFlightLimiter.cancel();
+            }
+            recycleFrame(frame);
+        }
+    }
+
+    /**
+     * Espera (como mucho SLOT_WAIT_MS) a que el detector devuelva un frame
+     * si estan todos los huecos ocupados
+     */
+    private void awaitInFlightSlot() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SLOT_WAIT_MS);
+        synchronized (slotMonitor) {
+            while (inFlightLimiter.getInFlight() >= inFlightLimiter.getMaxInFlight()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(slotMonitor, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco del frame en el detector y despierta a la etapa de inferencia
+     */
+    private void releaseInFlightSlot(long timestampMs) {
+        inFlightLimiter.release(timestampMs);
+        wakeInferenceStage();
+    }
+
+    private void wakeInferenceStage() {
+        synchronized (slotMonitor) {
+            slotMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Cierra el frame que aun retenga el PreparedFrame y lo devuelve al pool
+     */
+    private void recycleFrame(PreparedFrame<F, I> frame) {
+        if (frame.heldFrame != null) {
+            converter.close(frame.heldFrame);
+            frame.heldFrame = null;
+        }
+        frame.input = null;
+        freeFrames.offer(frame);
+    }
+
+    /**
+     * Etapa de serializacion de un resultado del detector
+     */
+    private void serialize(HandDetector.Result result) {
+        long start = ticker.nanoTime();
+        serializeResult(result);
+        metrics.serialization.record(ticker.nanoTime() - start);
+    }
+
+    private void serializeResult(HandDetector.Result result) {
+        boolean wantsLandmarks = sink.wantsLandmarks();
+        boolean wantsBinary = sink.wantsBinary();
+        boolean wantsGestures = sink.wantsGestures();
+        SessionRecorder sessionRecorder = recorder;
+        if (!wantsLandmarks && !wantsBinary && !wantsGestures && sessionRecorder == null) {
+            roiTracker.reset();
+            return;
+        }
+
+        long captureTimestamp = result.timestampMs();
+        landmarkFrame.captureTimestamp = captureTimestamp;
+        if (sessionRecorder != null) {
+            // Se graba el resultado completo y despues se recorta a lo que se envia
+            result.copyTo(landmarkFrame, LandmarkFrame.MAX_HANDS, LandmarkFrame.FIELDS_ALL);
+        } else {
+            result.copyTo(landmarkFrame, outputMaxHands, outputFields);
+        }
+        boolean cropped = roiTracker.mapToFrame(captureTimestamp, landmarkFrame);
+        if (sessionRecorder != null) {
+            sessionRecorder.record(landmarkFrame);
+            landmarkFrame.handCount = Math.min(landmarkFrame.handCount, outputMaxHands);
+            landmarkFrame.fields = outputFields;
+        }
+        roiTracker.onResult(landmarkFrame, cropped);
+
+        // Solo se esta grabando: no hay nada que construir
+        if (!wantsLandmarks && !wantsBinary && !wantsGestures) {
+            return;
+        }
+
+        landmarkSmoother.apply(landmarkFrame, captureTimestamp);
+        landmarkFrame.timestamp = System.currentTimeMillis();
+        landmarkFrame.resultTimestamp = resultTimestamp(captureTimestamp);
+
+        // Pose sin cambios: no se construye ni se envia nada
+        if (!gestureWindow.offer(landmarkFrame)) return;
+
+        // Los payloads se construyen aqui porque landmarkFrame se reutiliza en el siguiente resultado.
+        // El gesto va antes que los landmarks del mismo frame: Flutter lo empareja por captureTimestamp
+        if (wantsGestures && gestureClassifier.classify(landmarkFrame, 0, gestureResult)) {
+            sink.onGesture(gestureToMap(gestureResult, landmarkFrame));
+        }
+        if (wantsBinary) {
+            sink.onBinary(LandmarkPacker.pack(landmarkFrame));
+        }
+        if (wantsLandmarks) {
+            sink.onLandmarks(LandmarkPacker.toMap(landmarkFrame));
+        }
+    }
+
+    /**
+     * Instante del resultado en ms, en la base de tiempo de la captura
+     */
+    private long resultTimestamp(long captureTimestamp) {
+        FrameSource<F> current = source;
+        if (current == null) {
+            return captureTimestamp;
+        }
+        return current.nowNanos(captureTimestamp * 1_000_000L) / 1_000_000L;
+    }
+
+    /**
+     * Convierte la clasificacion local al Map que recibe Flutter
+     */
+    private static Map<String, Object> gestureToMap(GestureClassifier.Result gesture, LandmarkFrame frame) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("label", gesture.label);
+        event.put("confidence", (double) gesture.confidence);
+        event.put("margin", (double) gesture.margin);
+        event.put("ambiguous", gesture.ambiguous);
+        event.put("timestamp", frame.timestamp);
+        event.put("captureTimestamp", frame.captureTimestamp);
+        event.put("resultTimestamp", frame.resultTimestamp);
+        return event;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.proyecto_v1_0;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import com.google.mediapipe.framework.image.BitmapImageBuilder;
+import com.google.mediapipe.tasks.core.BaseOptions;
+import com.google.mediapipe.tasks.core.Delegate;
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarker;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import io.flutter.FlutterInjector;
+
+/**
+ * Worker de BatchProcessor: un HandLandmarker en modo IMAGE que detecta las
+ * manos de imagenes sueltas (ficheros o assets de Flutter).
+ *
+ * Siempre en CPU: varios landmarkers en GPU a la vez compiten por la misma
+ * GPU, mientras que en CPU cada hilo del lote usa su propio nucleo.
+ */
+final class ImageHandLandmarker implements BatchProcessor.Worker<LandmarkFrame> {
+
+    private static final String MODEL_PATH = "hand_landmarker.task";
+
+    // Las imagenes mas grandes se decodifican reducidas (potencia de 2)
+    private static final int MAX_IMAGE_SIDE = 1024;
+
+    private final Context context;
+    private HandLandmarker landmarker;
+
+    private ImageHandLandmarker(Context context, HandLandmarker landmarker) {
+        this.context = context;
+        this.landmarker = landmarker;
+    }
+
+    /**
+     * Crea el landmarker con los umbrales y el numero de manos de config
+     */
+    static ImageHandLandmarker create(Context context, LandmarkerConfig config) {
+        return new ImageHandLandmarker(context, createLandmarker(context, config, RunningMode.IMAGE));
+    }
+
+    /**
+     * HandLandmarker en CPU y sin listener, para los modos IMAGE y VIDEO
+     * (detect y detectForVideo devuelven el resultado)
+     */
+    static HandLandmarker createLandmarker(Context context, LandmarkerConfig config, RunningMode runningMode) {
+        BaseOptions baseOptions = BaseOptions.builder()
+                .setModelAssetPath(MODEL_PATH)
+                .setDelegate(Delegate.CPU)
+                .build();
+
+        HandLandmarker.HandLandmarkerOptions options =
+                HandLandmarker.HandLandmarkerOptions.builder()
+                        .setBaseOptions(baseOptions)
+                        .setRunningMode(runningMode)
+                        .setNumHands(config.numHands)
+                        .setMinHandDetectionConfidence(config.minDetectionConfidence)
+                        .setMinHandPresenceConfidence(config.minPresenceConfidence)
+                        .setMinTrackingConfidence(config.minTrackingConfidence)
+                        .build();
+
+        return HandLandmarker.createFromOptions(context, options);
+    }
+
+    /**
+     * Detecta las manos de path: ruta absoluta o asset de Flutter
+     * (p. ej. "assets/images/a.png")
+     */
+    @Override
+    public LandmarkFrame process(String path) throws IOException {
+        Bitmap bitmap = decode(path);
+        try {
+            HandLandmarkerResult result = landmarker.detect(new BitmapImageBuilder(bitmap).build());
+            LandmarkFrame frame = new LandmarkFrame();
+            new MediaPipeHandDetector.MediaPipeResult(result)
+                    .copyTo(frame, LandmarkFrame.MAX_HANDS, LandmarkFrame.FIELDS_ALL);
+            frame.timestamp = System.currentTimeMillis();
+            return frame;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (landmarker != null) {
+            landmarker.close();
+            landmarker = null;
+        }
+    }
+
+    private Bitmap decode(String path) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        decodeStream(path, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("No se puede decodificar " + path);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inSampleSize = 1;
+        while (Math.max(bounds.outWidth, bounds.outHeight) / options.inSampleSize > MAX_IMAGE_SIDE) {
+            options.inSampleSize *= 2;
+        }
+
+        Bitmap bitmap = decodeStream(path, options);
+        if (bitmap == null) {
+            throw new IOException("No se puede decodificar " + path);
+        }
+        return bitmap;
+    }
+
+    private Bitmap decodeStream(String path, BitmapFactory.Options options) throws IOException {
+        if (new File(path).isAbsolute()) {
+            return BitmapFactory.decodeFile(path, options);
+        }
+        String assetKey = FlutterInjector.instance().flutterLoader().getLookupKeyForAsset(path);
+        try (InputStream stream = context.getAssets().open(assetKey)) {
+            return BitmapFactory.decodeStream(stream, null, options);
+        }
+    }
+}
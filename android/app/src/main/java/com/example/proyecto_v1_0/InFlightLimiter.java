@@ -0,0 +1,202 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Limita cuantos frames puede haber dentro de MediaPipe a la vez.
+ *
+ * El analizador llama a tryAcquire() antes de detectAsync, submitted() con
+ * el timestamp que envia y cancel() si al final no lo envia. Los callbacks
+ * de resultado llaman a release(timestamp): cada hueco queda ligado a su
+ * frame, asi que el resultado tardio de un frame dado por perdido no libera
+ * el hueco de otro que sigue dentro de MediaPipe.
+ *
+ * MediaPipe puede descartar frames internamente sin invocar ningun callback,
+ * por eso un hueco ocupado demasiado tiempo se da por perdido:
+ * - POLICY_DROP_INCOMING: con el limite alcanzado se descarta el frame nuevo;
+ *   solo se recuperan huecos tras HARD_TIMEOUT_NANOS sin resultado.
+ * - POLICY_EXPIRE_STALE: con el limite alcanzado, si el frame mas antiguo
+ *   lleva mas de staleAfterNanos esperando se da por perdido y entra el nuevo.
+ *
+ * Un lock sin competencia real (dos hilos, unas pocas operaciones por
+ * frame) protege los huecos.
+ */
+final class InFlightLimiter {
+
+    static final String POLICY_DROP_INCOMING = "dropIncoming";
+    static final String POLICY_EXPIRE_STALE = "expireStale";
+
+    static final int MAX_CAPACITY = 8;
+    private static final long HARD_TIMEOUT_NANOS = 1_000_000_000L;
+
+    // Hueco aun sin timestamp (reservado, detectAsync todavia no llamado)
+    private static final long UNBOUND = -1;
+
+    // Estado de cada hueco, indexado por numero de secuencia
+    private final long[] acquireNanos = new long[MAX_CAPACITY];
+    private final long[] timestamps = new long[MAX_CAPACITY];
+    private final boolean[] live = new boolean[MAX_CAPACITY];
+
+    // Siguiente secuencia y la mas antigua que puede seguir ocupada
+    private long acquired;
+    private long oldest;
+    private int inFlight;
+    private long dropped;
+    private long expired;
+
+    private volatile int maxInFlight;
+    private volatile String policy;
+    private volatile long staleAfterNanos;
+
+    InFlightLimiter(int maxInFlight, String policy, long staleAfterMs) {
+        configure(maxInFlight, policy, staleAfterMs);
+    }
+
+    /**
+     * Cambia el limite y la politica. Seguro de llamar con frames en vuelo.
+     */
+    void configure(int maxInFlight, String policy, long staleAfterMs) {
+        this.maxInFlight = Math.max(1, Math.min(maxInFlight, MAX_CAPACITY));
+        this.policy = POLICY_EXPIRE_STALE.equals(policy) ? POLICY_EXPIRE_STALE : POLICY_DROP_INCOMING;
+        this.staleAfterNanos = Math.max(1, staleAfterMs) * 1_000_000L;
+    }
+
+    /**
+     * Reserva un hueco para un frame. Solo desde un hilo: el del analizador,
+     * o el de la etapa de inferencia con el pipeline activo.
+     * Devuelve false (y cuenta el frame como descartado) si no hay hueco.
+     */
+    synchronized boolean tryAcquire(long nowNanos) {
+        if (inFlight >= maxInFlight && !reclaimOldest(nowNanos)) {
+            dropped++;
+            return false;
+        }
+        if (acquired - oldest >= MAX_CAPACITY) {
+            // El hueco mas antiguo ocuparia el mismo sitio del anillo: otros
+            // frames posteriores ya han vuelto, asi que ese se ha perdido
+            free(oldest);
+            expired++;
+        }
+
+        int slot = (int) (acquired % MAX_CAPACITY);
+        acquireNanos[slot] = nowNanos;
+        timestamps[slot] = UNBOUND;
+        live[slot] = true;
+        acquired++;
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Liga el ultimo hueco reservado al timestamp que se envia a detectAsync.
+     * Antes de detectAsync: un detector sincrono entrega el resultado dentro.
+     */
+    synchronized void submitted(long timestampMs) {
+        int slot = (int) ((acquired - 1) % MAX_CAPACITY);
+        if (acquired > 0 && live[slot]) {
+            timestamps[slot] = timestampMs;
+        }
+    }
+
+    /**
+     * Devuelve el ultimo hueco reservado sin que su frame llegue al detector.
+     * Desde el hilo que reservo (preprocesado o detectAsync fallidos).
+     */
+    synchronized void cancel() {
+        if (acquired > 0) {
+            free(acquired - 1);
+        }
+    }
+
+    /**
+     * Libera el hueco del frame con ese timestamp (callback de resultado).
+     * Si ya se habia dado por perdido no hace nada.
+     */
+    synchronized void release(long timestampMs) {
+        for (long seq = oldest; seq < acquired; seq++) {
+            int slot = (int) (seq % MAX_CAPACITY);
+            if (live[slot] && timestamps[slot] == timestampMs) {
+                free(seq);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco enviado mas antiguo: para los errores de MediaPipe, que
+     * no dicen de que frame son
+     */
+    synchronized void releaseOldest() {
+        for (long seq = oldest; seq < acquired; seq++) {
+            int slot = (int) (seq % MAX_CAPACITY);
+            if (live[slot] && timestamps[slot] != UNBOUND) {
+                free(seq);
+                return;
+            }
+        }
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    String getPolicy() {
+        return policy;
+    }
+
+    synchronized long getDroppedFrames() {
+        return dropped;
+    }
+
+    /**
+     * Frames dados por perdidos (sin resultado a tiempo)
+     */
+    synchronized long getExpiredFrames() {
+        return expired;
+    }
+
+    /**
+     * Vacia los huecos y los contadores (con el analizador parado)
+     */
+    synchronized void reset() {
+        for (long seq = oldest; seq < acquired; seq++) {
+            live[(int) (seq % MAX_CAPACITY)] = false;
+        }
+        oldest = acquired;
+        inFlight = 0;
+        dropped = 0;
+        expired = 0;
+    }
+
+    private boolean reclaimOldest(long nowNanos) {
+        if (inFlight == 0) {
+            return false;
+        }
+
+        int slot = (int) (oldest % MAX_CAPACITY);
+        long waited = nowNanos - acquireNanos[slot];
+        long limit = POLICY_EXPIRE_STALE.equals(policy) ? staleAfterNanos : HARD_TIMEOUT_NANOS;
+        if (waited < limit) {
+            return false;
+        }
+
+        // Su resultado, si llega, ya no encuentra el hueco (ver release)
+        free(oldest);
+        expired++;
+        return true;
+    }
+
+    private void free(long seq) {
+        int slot = (int) (seq % MAX_CAPACITY);
+        if (!live[slot]) {
+            return;
+        }
+        live[slot] = false;
+        inFlight--;
+        while (oldest < acquired && !live[(int) (oldest % MAX_CAPACITY)]) {
+            oldest++;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.proyecto_v1_0;
+
+import java.util.Locale;
+
+/**
+ * Benchmark de arranque que elige el camino de entrada mas rapido del
+ * dispositivo entre varios candidatos (p. ej. "yuv" y "buffer").
+ *
+ * Cada candidato se prueba con frames reales de la camara: por frame se
+ * mide el retardo desde la captura hasta el resultado del detector. Asi
+ * entra todo el coste de cada camino: la conversion YUV->RGBA de CameraX y
+ * la rotacion y el escalado que MediaPipe hace dentro de detectAsync en
+ * "buffer", y la conversion nativa ya rotada y reducida en "yuv". Se
+ * descartan los primeros WARMUP_FRAMES de cada candidato y se promedian
+ * SAMPLES frames.
+ *
+ * CameraFrameConverter apunta el coste de cada resultado con record() y
+ * CameraFrameSource consulta current() al vincular la camara y winner() al
+ * terminar.
+ */
+final class InputPathBenchmark {
+
+    static final int WARMUP_FRAMES = 5;
+    static final int SAMPLES = 30;
+
+    private final String[] candidates;
+    private final double[] averageNanos;
+
+    private int current;
+    private int seen;
+    private long totalNanos;
+
+    InputPathBenchmark(String... candidates) {
+        this.candidates = candidates;
+        this.averageNanos = new double[candidates.length];
+    }
+
+    /**
+     * Candidato que se esta midiendo (null si ya termino)
+     */
+    synchronized String current() {
+        return current < candidates.length ? candidates[current] : null;
+    }
+
+    synchronized boolean isDone() {
+        return current >= candidates.length;
+    }
+
+    /**
+     * Apunta el coste de un frame procesado con el camino indicado. Los
+     * frames de otro camino (restos del candidato anterior) se ignoran.
+     * Devuelve true cuando el candidato actual termina y hay que cambiar.
+     */
+    synchronized boolean record(String path, long costNanos) {
+        if (current >= candidates.length || !candidates[current].equals(path)) {
+            return false;
+        }
+
+        seen++;
+        if (seen <= WARMUP_FRAMES) {
+            return false;
+        }
+
+        totalNanos += costNanos;
+        if (seen < WARMUP_FRAMES + SAMPLES) {
+            return false;
+        }
+
+        averageNanos[current] = totalNanos / (double) SAMPLES;
+        current++;
+        seen = 0;
+        totalNanos = 0;
+        return true;
+    }
+
+    /**
+     * Candidato con menor coste medio (solo con el benchmark terminado)
+     */
+    synchronized String winner() {
+        int best = 0;
+        for (int i = 1; i < candidates.length; i++) {
+            if (averageNanos[i] < averageNanos[best]) {
+                best = i;
+            }
+        }
+        return candidates[best];
+    }
+
+    /**
+     * Coste medio en ms de cada candidato medido
+     */
+    synchronized String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < candidates.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(candidates[i]).append('=')
+                    .append(String.format(Locale.US, "%.2fms", averageNanos[i] / 1_000_000.0));
+        }
+        return builder.toString();
+    }
+}
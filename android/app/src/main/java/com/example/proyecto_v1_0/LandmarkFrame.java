@@ -0,0 +1,81 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Resultado de deteccion de un frame guardado en arrays primitivos.
+ *
+ * Se rellena a partir del HandLandmarkerResult de MediaPipe y se reutiliza
+ * entre frames, de forma que el resto del procesado (empaquetado, envio a
+ * Flutter) trabaja sin objetos por landmark.
+ *
+ * Los landmarks de cada mano ocupan VALUES_PER_HAND posiciones consecutivas
+ * en orden x, y, z: la mano i empieza en i * VALUES_PER_HAND.
+ */
+final class LandmarkFrame {
+
+    static final int MAX_HANDS = 2;
+    static final int LANDMARKS_PER_HAND = 21;
+    static final int VALUES_PER_HAND = LANDMARKS_PER_HAND * 3;
+
+    static final int HANDEDNESS_UNKNOWN = -1;
+    static final int HANDEDNESS_LEFT = 0;
+    static final int HANDEDNESS_RIGHT = 1;
+
+    // Campos opcionales (los landmarks normalizados siempre se incluyen)
+    static final int FIELD_WORLD_LANDMARKS = 1;
+    static final int FIELD_HANDEDNESS = 1 << 1;
+    static final int FIELDS_ALL = FIELD_WORLD_LANDMARKS | FIELD_HANDEDNESS;
+
+    int handCount;
+    int fields = FIELDS_ALL;
+    long timestamp;
+
+    // Captura del sensor y publicacion del resultado, en ms del reloj de la
+    // camara (ver CaptureClock): su diferencia es la latencia captura -> resultado
+    long captureTimestamp;
+    long resultTimestamp;
+
+    final int[] handedness = new int[MAX_HANDS];
+    final float[] handednessScore = new float[MAX_HANDS];
+    final float[] landmarks = new float[MAX_HANDS * VALUES_PER_HAND];
+    final float[] worldLandmarks = new float[MAX_HANDS * VALUES_PER_HAND];
+
+    /**
+     * Vacia el frame sin liberar los arrays
+     */
+    void clear() {
+        handCount = 0;
+        timestamp = 0;
+        captureTimestamp = 0;
+        resultTimestamp = 0;
+    }
+
+    /**
+     * Indica si el campo opcional se ha rellenado en este frame
+     */
+    boolean has(int field) {
+        return (fields & field) != 0;
+    }
+
+    /**
+     * Convierte el nombre de categoria de MediaPipe ("Left"/"Right") a su codigo
+     */
+    static int handednessCode(String categoryName) {
+        if ("Left".equals(categoryName)) return HANDEDNESS_LEFT;
+        if ("Right".equals(categoryName)) return HANDEDNESS_RIGHT;
+        return HANDEDNESS_UNKNOWN;
+    }
+
+    /**
+     * Nombre de la mano tal y como lo devuelve MediaPipe
+     */
+    static String handednessName(int code) {
+        switch (code) {
+            case HANDEDNESS_LEFT:
+                return "Left";
+            case HANDEDNESS_RIGHT:
+                return "Right";
+            default:
+                return "Unknown";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.proyecto_v1_0;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Empaqueta un LandmarkFrame para Flutter: en un unico byte[] para el canal
+ * binario (pack) o en Maps anidados para el canal de Maps (toMap).
+ *
+ * Formato (little-endian, sin padding):
+ *
+ *   int32   numero de manos (N)
+ *   int32   mascara de campos (LandmarkFrame.FIELD_*)
+ *   int64   timestamp en ms
+ *   int64   timestamp de captura en ms (reloj de la camara)
+ *   int64   timestamp del resultado en ms (reloj de la camara)
+ *   N veces:
+ *     int32    handedness (-1 desconocida, 0 Left, 1 Right)   solo con FIELD_HANDEDNESS
+ *     float32  score de handedness                            solo con FIELD_HANDEDNESS
+ *     63 x float32  landmarks normalizados (x, y, z por punto)
+ *     63 x float32  world landmarks (x, y, z por punto)       solo con FIELD_WORLD_LANDMARKS
+ *
+ * Debe mantenerse sincronizado con HandDetectionResult.fromBytes en Dart.
+ * Es Java puro para poder medirlo fuera del dispositivo.
+ */
+final class LandmarkPacker {
+
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8;
+    static final int HANDEDNESS_BYTES = 4 + 4;
+    static final int LANDMARKS_BYTES = LandmarkFrame.VALUES_PER_HAND * 4;
+
+    private LandmarkPacker() {
+    }
+
+    /**
+     * Tamano en bytes de una mano con los campos indicados
+     */
+    static int handSize(int fields) {
+        int size = LANDMARKS_BYTES;
+        if ((fields & LandmarkFrame.FIELD_HANDEDNESS) != 0) size += HANDEDNESS_BYTES;
+        if ((fields & LandmarkFrame.FIELD_WORLD_LANDMARKS) != 0) size += LANDMARKS_BYTES;
+        return size;
+    }
+
+    /**
+     * Tamano en bytes del paquete completo
+     */
+    static int packedSize(int handCount, int fields) {
+        return HEADER_BYTES + handCount * handSize(fields);
+    }
+
+    /**
+     * Devuelve un byte[] nuevo con el frame empaquetado. Se crea un array por
+     * resultado porque el codec de Flutter lo serializa despues en el hilo principal.
+     */
+    static byte[] pack(LandmarkFrame frame) {
+        byte[] out = new byte[packedSize(frame.handCount, frame.fields)];
+        ByteBuffer buffer = ByteBuffer.wrap(out).order(ByteOrder.LITTLE_ENDIAN);
+
+        boolean withHandedness = frame.has(LandmarkFrame.FIELD_HANDEDNESS);
+        boolean withWorld = frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS);
+
+        buffer.putInt(frame.handCount);
+        buffer.putInt(frame.fields);
+        buffer.putLong(frame.timestamp);
+        buffer.putLong(frame.captureTimestamp);
+        buffer.putLong(frame.resultTimestamp);
+
+        for (int hand = 0; hand < frame.handCount; hand++) {
+            int offset = hand * LandmarkFrame.VALUES_PER_HAND;
+
+            if (withHandedness) {
+                buffer.putInt(frame.handedness[hand]);
+                buffer.putFloat(frame.handednessScore[hand]);
+            }
+            putFloats(buffer, frame.landmarks, offset);
+            if (withWorld) {
+                putFloats(buffer, frame.worldLandmarks, offset);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Construye el Map que espera HandDetectionResult.fromMap en Flutter
+     */
+    static Map<String, Object> toMap(LandmarkFrame frame) {
+        List<Map<String, Object>> handsData = new ArrayList<>();
+
+        for (int i = 0; i < frame.handCount; i++) {
+            int offset = i * LandmarkFrame.VALUES_PER_HAND;
+
+            Map<String, Object> handData = new HashMap<>();
+            handData.put("landmarks", pointList(frame.landmarks, offset));
+            if (frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS)) {
+                handData.put("worldLandmarks", pointList(frame.worldLandmarks, offset));
+            }
+            if (frame.has(LandmarkFrame.FIELD_HANDEDNESS)) {
+                handData.put("handedness", LandmarkFrame.handednessName(frame.handedness[i]));
+                handData.put("handednessScore", frame.handednessScore[i]);
+            }
+
+            handsData.add(handData);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("hands", handsData);
+        response.put("timestamp", frame.timestamp);
+        response.put("captureTimestamp", frame.captureTimestamp);
+        response.put("resultTimestamp", frame.resultTimestamp);
+        return response;
+    }
+
+    private static List<Map<String, Float>> pointList(float[] values, int offset) {
+        List<Map<String, Float>> points = new ArrayList<>(LandmarkFrame.LANDMARKS_PER_HAND);
+
+        for (int j = 0; j < LandmarkFrame.LANDMARKS_PER_HAND; j++) {
+            Map<String, Float> point = new HashMap<>();
+            point.put("x", values[offset + j * 3]);
+            point.put("y", values[offset + j * 3 + 1]);
+            point.put("z", values[offset + j * 3 + 2]);
+            points.add(point);
+        }
+
+        return points;
+    }
+
+    private static void putFloats(ByteBuffer buffer, float[] values, int offset) {
+        for (int i = 0; i < LandmarkFrame.VALUES_PER_HAND; i++) {
+            buffer.putFloat(values[offset + i]);
+        }
+    }
+}
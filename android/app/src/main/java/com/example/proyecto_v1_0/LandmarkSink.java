@@ -0,0 +1,39 @@
+package com.example.proyecto_v1_0;
+
+import java.util.Map;
+
+/**
+ * Destino de los resultados del motor (los canales de Flutter en la app).
+ *
+ * El motor solo construye los payloads que el destino pide en ese momento;
+ * si no pide ninguno, no serializa nada. Todos los metodos se llaman desde
+ * el hilo de serializacion (o el del detector sin pipeline).
+ */
+interface LandmarkSink {
+
+    boolean wantsLandmarks();
+
+    boolean wantsBinary();
+
+    boolean wantsGestures();
+
+    /**
+     * Landmarks como Map (ver LandmarkPacker.toMap)
+     */
+    void onLandmarks(Map<String, Object> event);
+
+    /**
+     * Landmarks empaquetados (ver LandmarkPacker.pack)
+     */
+    void onBinary(byte[] event);
+
+    /**
+     * Gesto clasificado en el dispositivo
+     */
+    void onGesture(Map<String, Object> event);
+
+    /**
+     * Error procesando un frame; el frame se descarta y el motor sigue
+     */
+    void onFrameError(String message);
+}
@@ -0,0 +1,236 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Filtro de suavizado por landmark aplicado sobre un LandmarkFrame antes de
+ * enviarlo a Flutter.
+ *
+ * Modos:
+ * - MODE_ONE_EURO: filtro One Euro (paso bajo cuya frecuencia de corte sube
+ *   con la velocidad: poco retardo en movimientos rapidos, poco temblor en reposo)
+ * - MODE_KALMAN: Kalman de velocidad constante independiente por coordenada
+ * - MODE_NONE: sin filtrar
+ *
+ * Cada mano se sigue por su handedness (un slot para Left y otro para Right),
+ * asi el estado no se mezcla cuando MediaPipe cambia el orden de las manos.
+ * Si una mano desaparece su estado se reinicia. Todo el estado esta en
+ * arrays primitivos reservados al crear el filtro; apply() no reserva memoria.
+ *
+ * apply() se llama siempre desde el mismo hilo (callback de MediaPipe);
+ * configure() puede llamarse desde cualquier hilo.
+ */
+final class LandmarkSmoother {
+
+    static final String MODE_NONE = "none";
+    static final String MODE_ONE_EURO = "oneEuro";
+    static final String MODE_KALMAN = "kalman";
+
+    private static final int SLOTS = LandmarkFrame.MAX_HANDS;
+    // Por slot: landmarks normalizados seguidos de world landmarks
+    private static final int VALUES = LandmarkFrame.VALUES_PER_HAND * 2;
+    private static final float DERIVATIVE_CUTOFF = 1f;
+
+    private volatile String mode = MODE_NONE;
+    private volatile float minCutoff = 1f;
+    private volatile float beta = 10f;
+    private volatile float processNoise = 1f;
+    private volatile float measurementNoise = 1e-4f;
+    private volatile boolean resetRequested;
+
+    private final boolean[] initialized = new boolean[SLOTS];
+    private final boolean[] seen = new boolean[SLOTS];
+    private final long[] lastTimestampMs = new long[SLOTS];
+
+    // One Euro: valor filtrado y derivada filtrada
+    // Kalman: posicion y velocidad estimadas
+    private final float[] value = new float[SLOTS * VALUES];
+    private final float[] derivative = new float[SLOTS * VALUES];
+
+    // Kalman: covarianza 2x2 simetrica (p00, p01, p11)
+    private final float[] p00 = new float[SLOTS * VALUES];
+    private final float[] p01 = new float[SLOTS * VALUES];
+    private final float[] p11 = new float[SLOTS * VALUES];
+
+    /**
+     * Cambia el modo y sus parametros. El estado se reinicia en el siguiente frame.
+     *
+     * @param minCutoff        One Euro: frecuencia de corte minima (Hz)
+     * @param beta             One Euro: cuanto sube el corte con la velocidad
+     * @param processNoise     Kalman: densidad espectral de la aceleracion
+     * @param measurementNoise Kalman: varianza de la medida
+     */
+    void configure(String mode, float minCutoff, float beta, float processNoise, float measurementNoise) {
+        this.minCutoff = Math.max(1e-3f, minCutoff);
+        this.beta = Math.max(0f, beta);
+        this.processNoise = Math.max(1e-9f, processNoise);
+        this.measurementNoise = Math.max(1e-9f, measurementNoise);
+
+        if (MODE_ONE_EURO.equals(mode) || MODE_KALMAN.equals(mode)) {
+            this.mode = mode;
+        } else {
+            this.mode = MODE_NONE;
+        }
+        resetRequested = true;
+    }
+
+    String getMode() {
+        return mode;
+    }
+
+    /**
+     * Olvida el estado de todas las manos
+     */
+    void reset() {
+        resetRequested = true;
+    }
+
+    /**
+     * Suaviza en el sitio los landmarks del frame
+     *
+     * @param timestampMs timestamp del frame de entrada (el que recibio detectAsync)
+     */
+    void apply(LandmarkFrame frame, long timestampMs) {
+        if (resetRequested) {
+            resetRequested = false;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                initialized[slot] = false;
+            }
+        }
+
+        String currentMode = mode;
+        if (MODE_NONE.equals(currentMode)) {
+            return;
+        }
+        boolean kalman = MODE_KALMAN.equals(currentMode);
+        boolean withWorld = frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS);
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+            seen[slot] = false;
+        }
+
+        for (int hand = 0; hand < frame.handCount; hand++) {
+            int slot = slotFor(frame.handedness[hand], hand);
+            seen[slot] = true;
+
+            int handOffset = hand * LandmarkFrame.VALUES_PER_HAND;
+            int stateOffset = slot * VALUES;
+            int worldStateOffset = stateOffset + LandmarkFrame.VALUES_PER_HAND;
+            float dt = (timestampMs - lastTimestampMs[slot]) / 1000f;
+
+            if (!initialized[slot] || dt <= 0f) {
+                if (!initialized[slot]) {
+                    initSlot(frame.landmarks, handOffset, stateOffset);
+                    initSlot(frame.worldLandmarks, handOffset, worldStateOffset);
+                    initialized[slot] = true;
+                    lastTimestampMs[slot] = timestampMs;
+                }
+                // Mismo timestamp que el frame anterior: se deja el valor sin filtrar
+                continue;
+            }
+            lastTimestampMs[slot] = timestampMs;
+
+            if (kalman) {
+                kalman(frame.landmarks, handOffset, stateOffset, dt);
+                if (withWorld) kalman(frame.worldLandmarks, handOffset, worldStateOffset, dt);
+            } else {
+                oneEuro(frame.landmarks, handOffset, stateOffset, dt);
+                if (withWorld) oneEuro(frame.worldLandmarks, handOffset, worldStateOffset, dt);
+            }
+        }
+
+        // Manos que ya no estan: al volver empiezan de cero
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (!seen[slot]) {
+                initialized[slot] = false;
+            }
+        }
+    }
+
+    /**
+     * Slot de estado para una mano: por handedness si se conoce, y si el slot
+     * ya lo ocupa otra mano en este frame (clasificacion repetida), el otro libre
+     */
+    private int slotFor(int handedness, int handIndex) {
+        int slot = handedness == LandmarkFrame.HANDEDNESS_LEFT || handedness == LandmarkFrame.HANDEDNESS_RIGHT
+                ? handedness
+                : handIndex;
+        if (seen[slot]) {
+            for (int other = 0; other < SLOTS; other++) {
+                if (!seen[other]) return other;
+            }
+        }
+        return slot;
+    }
+
+    private void initSlot(float[] values, int offset, int stateOffset) {
+        float r = measurementNoise;
+        for (int i = 0; i < LandmarkFrame.VALUES_PER_HAND; i++) {
+            int s = stateOffset + i;
+            value[s] = values[offset + i];
+            derivative[s] = 0f;
+            p00[s] = r;
+            p01[s] = 0f;
+            p11[s] = 1f;
+        }
+    }
+
+    private void oneEuro(float[] values, int offset, int stateOffset, float dt) {
+        float derivativeAlpha = alpha(DERIVATIVE_CUTOFF, dt);
+        float cutoffMin = minCutoff;
+        float cutoffBeta = beta;
+
+        for (int i = 0; i < LandmarkFrame.VALUES_PER_HAND; i++) {
+            int s = stateOffset + i;
+            float x = values[offset + i];
+            float previous = value[s];
+
+            float dx = (x - previous) / dt;
+            float filteredDx = derivative[s] + derivativeAlpha * (dx - derivative[s]);
+            float cutoff = cutoffMin + cutoffBeta * Math.abs(filteredDx);
+            float filtered = previous + alpha(cutoff, dt) * (x - previous);
+
+            derivative[s] = filteredDx;
+            value[s] = filtered;
+            values[offset + i] = filtered;
+        }
+    }
+
+    private static float alpha(float cutoff, float dt) {
+        float tau = 1f / (2f * (float) Math.PI * cutoff);
+        return 1f / (1f + tau / dt);
+    }
+
+    private void kalman(float[] values, int offset, int stateOffset, float dt) {
+        float q = processNoise;
+        float r = measurementNoise;
+        float dt2 = dt * dt;
+        float q00 = q * dt2 * dt / 3f;
+        float q01 = q * dt2 / 2f;
+        float q11 = q * dt;
+
+        for (int i = 0; i < LandmarkFrame.VALUES_PER_HAND; i++) {
+            int s = stateOffset + i;
+
+            // Prediccion con velocidad constante
+            float x = value[s] + derivative[s] * dt;
+            float v = derivative[s];
+            float a00 = p00[s] + 2f * dt * p01[s] + dt2 * p11[s] + q00;
+            float a01 = p01[s] + dt * p11[s] + q01;
+            float a11 = p11[s] + q11;
+
+            // Correccion con la medida
+            float innovation = values[offset + i] - x;
+            float k0 = a00 / (a00 + r);
+            float k1 = a01 / (a00 + r);
+
+            x += k0 * innovation;
+            v += k1 * innovation;
+            p00[s] = a00 - k0 * a00;
+            p01[s] = a01 - k0 * a01;
+            p11[s] = a11 - k1 * a01;
+
+            value[s] = x;
+            derivative[s] = v;
+            values[offset + i] = x;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Opciones con las que se construye el HandLandmarker.
+ *
+ * Es inmutable: configure crea una nueva instancia a partir de la actual y
+ * HandLandmarkPlugin reconstruye el landmarker con ella.
+ */
+final class LandmarkerConfig {
+
+    static final String DELEGATE_CPU = "cpu";
+    static final String DELEGATE_GPU = "gpu";
+
+    // GPU por defecto: si no esta disponible, MediaPipeHandDetector vuelve a CPU
+    static final LandmarkerConfig DEFAULT =
+            new LandmarkerConfig(2, 0.5f, 0.5f, 0.5f, DELEGATE_GPU);
+
+    final int numHands;
+    final float minDetectionConfidence;
+    final float minPresenceConfidence;
+    final float minTrackingConfidence;
+    final String delegate;
+
+    LandmarkerConfig(int numHands,
+                     float minDetectionConfidence,
+                     float minPresenceConfidence,
+                     float minTrackingConfidence,
+                     String delegate) {
+        this.numHands = Math.max(1, Math.min(numHands, LandmarkFrame.MAX_HANDS));
+        this.minDetectionConfidence = clamp(minDetectionConfidence);
+        this.minPresenceConfidence = clamp(minPresenceConfidence);
+        this.minTrackingConfidence = clamp(minTrackingConfidence);
+        this.delegate = DELEGATE_GPU.equals(delegate) ? DELEGATE_GPU : DELEGATE_CPU;
+    }
+
+    private static float clamp(float confidence) {
+        return Math.max(0f, Math.min(confidence, 1f));
+    }
+
+    @Override
+    public String toString() {
+        return "numHands=" + numHands
+                + ", detection=" + minDetectionConfidence
+                + ", presence=" + minPresenceConfidence
+                + ", tracking=" + minTrackingConfidence
+                + ", delegate=" + delegate;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.proyecto_v1_0;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias sin locks, para registrar desde cualquier hilo
+ * del pipeline sin frenarlo.
+ *
+ * Los valores se guardan en microsegundos en cubetas logaritmicas: cuatro
+ * por cada potencia de 2 (error relativo por debajo del 20%), desde 1 us
+ * hasta unos 2 minutos. record() solo hace incrementos atomicos; los percentiles
+ * se calculan al leer.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int OCTAVES = 26;
+    private static final int BUCKETS = OCTAVES * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Registra una duracion en ns (las negativas se ignoran)
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        long micros = nanos / 1_000;
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Resumen en ms: count, meanMs, p50Ms, p90Ms, p99Ms y maxMs.
+     * Con escrituras concurrentes es aproximado, no una foto exacta.
+     */
+    Map<String, Object> toMap() {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        long max = maxMicros.get();
+        Map<String, Object> map = new HashMap<>();
+        map.put("count", total);
+        map.put("meanMs", total > 0 ? totalMicros.get() / (double) total / 1_000.0 : 0.0);
+        map.put("p50Ms", percentile(snapshot, total, 0.50, max) / 1_000.0);
+        map.put("p90Ms", percentile(snapshot, total, 0.90, max) / 1_000.0);
+        map.put("p99Ms", percentile(snapshot, total, 0.99, max) / 1_000.0);
+        map.put("maxMs", max / 1_000.0);
+        return map;
+    }
+
+    /**
+     * Vacia el histograma (las escrituras concurrentes pueden quedar a medias)
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * Punto medio de la cubeta que contiene el percentil, sin pasar del maximo
+     */
+    private static double percentile(long[] snapshot, long total, double fraction, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                double middle = (lowerBound(i) + lowerBound(i + 1)) / 2.0;
+                return Math.min(middle, max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        int index = (octave - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    /**
+     * Menor valor en us de la cubeta (inversa de bucketOf)
+     */
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int octave = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        return (1L << octave) + ((long) sub << (octave - SUB_BUCKET_BITS));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.proyecto_v1_0;
+
+import android.os.Handler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Entrega eventos en el hilo de un Handler quedandose solo con el ultimo.
+ *
+ * Si llega un evento nuevo mientras el anterior aun no se ha entregado, el
+ * anterior se descarta: el hilo principal tiene como mucho un evento
+ * pendiente por dispatcher y nunca recibe frames atrasados. El Runnable de
+ * entrega se crea una vez y solo se encola si no hay otro ya encolado.
+ */
+final class LatestEventDispatcher {
+
+    /**
+     * Recibe el evento en el hilo del Handler
+     */
+    interface Receiver {
+        void onEvent(Object event);
+    }
+
+    private final Handler handler;
+    private final Receiver receiver;
+    private final Runnable deliverTask = this::deliver;
+
+    private final AtomicReference<Object> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    // Opcional: tiempo desde dispatch() hasta la entrega
+    private final LatencyHistogram deliveryLatency;
+    private volatile long dispatchNanos;
+
+    LatestEventDispatcher(Handler handler, Receiver receiver) {
+        this(handler, receiver, null);
+    }
+
+    LatestEventDispatcher(Handler handler, Receiver receiver, LatencyHistogram deliveryLatency) {
+        this.handler = handler;
+        this.receiver = receiver;
+        this.deliveryLatency = deliveryLatency;
+    }
+
+    /**
+     * Publica un evento desde cualquier hilo
+     */
+    void dispatch(Object event) {
+        dispatchNanos = System.nanoTime();
+        if (pending.getAndSet(event) != null) {
+            coalesced.incrementAndGet();
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            handler.post(deliverTask);
+        }
+    }
+
+    /**
+     * Eventos reemplazados por uno mas reciente antes de entregarse
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Descarta el evento pendiente (si lo hay)
+     */
+    void clear() {
+        pending.set(null);
+    }
+
+    private void deliver() {
+        // Primero se libera la marca: un dispatch concurrente volvera a encolar
+        scheduled.set(false);
+
+        Object event = pending.getAndSet(null);
+        if (event != null) {
+            if (deliveryLatency != null) {
+                deliveryLatency.record(System.nanoTime() - dispatchNanos);
+            }
+            receiver.onEvent(event);
+        }
+    }
+}
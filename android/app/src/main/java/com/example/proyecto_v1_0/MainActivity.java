@@ -128,12 +128,22 @@ import androidx.core.content.ContextCompat;
 import io.flutter.embedding.android.FlutterActivity;
 import io.flutter.embedding.engine.FlutterEngine;
 import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 public class MainActivity extends FlutterActivity {
     
     private static final String METHOD_CHANNEL = "com.example.proyecto_v1_0/hand_landmark";
     private static final String EVENT_CHANNEL = "com.example.proyecto_v1_0/hand_landmark_stream";
+    private static final String BINARY_EVENT_CHANNEL = "com.example.proyecto_v1_0/hand_landmark_binary_stream";
+    private static final String GESTURE_EVENT_CHANNEL = "com.example.proyecto_v1_0/hand_gesture_stream";
+    private static final String METRICS_EVENT_CHANNEL = "com.example.proyecto_v1_0/hand_landmark_metrics_stream";
+    private static final String BATCH_EVENT_CHANNEL = "com.example.proyecto_v1_0/hand_landmark_batch_stream";
     private static final String VIEW_TYPE_CAMERA_PREVIEW = "com.example.proyecto_v1_0/camera_preview";
     private static final int CAMERA_PERMISSION_REQUEST_CODE = 1001;
     
@@ -149,6 +159,9 @@ public class MainActivity extends FlutterActivity {
     public void configureFlutterEngine(@NonNull FlutterEngine flutterEngine) {
         super.configureFlutterEngine(flutterEngine);
         
+        // El modelo se carga en segundo plano mientras Flutter arranca
+        HandLandmarkPlugin.preload(this);
+        
         // Registrar PlatformView para el preview de camara
         flutterEngine.getPlatformViewsController()
                 .getRegistry()
@@ -162,15 +175,67 @@ public class MainActivity extends FlutterActivity {
                 .setMethodCallHandler((call, result) -> {
                     switch (call.method) {
                         case "startHandDetection":
+                            applyStartOptions(call);
                             pendingResult = result;
                             pendingWithPreview = false;
                             checkCameraPermission();
                             break;
                         case "startHandDetectionWithPreview":
+                            applyStartOptions(call);
                             pendingResult = result;
                             pendingWithPreview = true;
                             checkCameraPermission();
                             break;
+                        case "startReplay":
+                            applyStartOptions(call);
+                            startReplay(call, result);
+                            break;
+                        case "configure":
+                            HandLandmarkPlugin.configure(this, configFromCall(call), result);
+                            break;
+                        case "getFrameRate":
+                            result.success(HandLandmarkPlugin.getFrameRate());
+                            break;
+                        case "getMetrics":
+                            result.success(HandLandmarkPlugin.getMetrics());
+                            break;
+                        case "getEngineInfo":
+                            result.success(HandLandmarkPlugin.getEngineInfo());
+                            break;
+                        case "getAnalysisResolution":
+                            result.success(HandLandmarkPlugin.getAnalysisResolution());
+                            break;
+                        case "setGestureTemplates":
+                            setGestureTemplates(call, result);
+                            break;
+                        case "startBatch":
+                            startBatch(call, result);
+                            break;
+                        case "cancelBatch":
+                            HandLandmarkPlugin.cancelBatch();
+                            result.success(null);
+                            break;
+                        case "processVideo":
+                            processVideo(call, result);
+                            break;
+                        case "cancelVideo":
+                            HandLandmarkPlugin.cancelVideo();
+                            result.success(null);
+                            break;
+                        case "startRecording":
+                            try {
+                                result.success(HandLandmarkPlugin.startRecording(this, call.argument("fileName")));
+                            } catch (IOException e) {
+                                result.error("RECORDING_ERROR", e.getMessage(), null);
+                            }
+                            break;
+                        case "stopRecording":
+                            try {
+                                result.success(HandLandmarkPlugin.stopRecording());
+                            } catch (IOException e) {
+                                result.error("RECORDING_ERROR", e.getMessage(), null);
+                            }
+                            break;
                         case "stopHandDetection":
                             HandLandmarkPlugin.stop();
                             result.success(null);
@@ -193,6 +258,243 @@ public class MainActivity extends FlutterActivity {
                         HandLandmarkPlugin.setEventSink(null);
                     }
                 });
+        
+        // EventChannel para stream de landmarks empaquetados en binario
+        new EventChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), BINARY_EVENT_CHANNEL)
+                .setStreamHandler(new EventChannel.StreamHandler() {
+                    @Override
+                    public void onListen(Object arguments, EventChannel.EventSink events) {
+                        HandLandmarkPlugin.setBinaryEventSink(events);
+                    }
+                    
+                    @Override
+                    public void onCancel(Object arguments) {
+                        HandLandmarkPlugin.setBinaryEventSink(null);
+                    }
+                });
+        
+        // EventChannel para gestos clasificados en el dispositivo
+        new EventChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), GESTURE_EVENT_CHANNEL)
+                .setStreamHandler(new EventChannel.StreamHandler() {
+                    @Override
+                    public void onListen(Object arguments, EventChannel.EventSink events) {
+                        HandLandmarkPlugin.setGestureEventSink(events);
+                    }
+                    
+                    @Override
+                    public void onCancel(Object arguments) {
+                        HandLandmarkPlugin.setGestureEventSink(null);
+                    }
+                });
+        
+        // EventChannel para metricas de latencia del pipeline (periodico)
+        new EventChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), METRICS_EVENT_CHANNEL)
+                .setStreamHandler(new EventChannel.StreamHandler() {
+                    @Override
+                    public void onListen(Object arguments, EventChannel.EventSink events) {
+                        HandLandmarkPlugin.setMetricsEventSink(events);
+                    }
+                    
+                    @Override
+                    public void onCancel(Object arguments) {
+                        HandLandmarkPlugin.setMetricsEventSink(null);
+                    }
+                });
+        
+        // EventChannel para los resultados del lote de imagenes (startBatch)
+        new EventChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), BATCH_EVENT_CHANNEL)
+                .setStreamHandler(new EventChannel.StreamHandler() {
+                    @Override
+                    public void onListen(Object arguments, EventChannel.EventSink events) {
+                        HandLandmarkPlugin.setBatchEventSink(events);
+                    }
+                    
+                    @Override
+                    public void onCancel(Object arguments) {
+                        HandLandmarkPlugin.setBatchEventSink(null);
+                    }
+                });
+    }
+    
+    /**
+     * Carga las plantillas del clasificador local. Cada plantilla es un Map
+     * {label, landmarks: lista de 63 valores x,y,z, handedness: "Left"/"Right"}
+     */
+    private void setGestureTemplates(MethodCall call, MethodChannel.Result result) {
+        List<Map<String, Object>> templates = call.argument("templates");
+        List<String> labels = new ArrayList<>();
+        List<float[]> landmarks = new ArrayList<>();
+        List<Boolean> leftHanded = new ArrayList<>();
+        
+        if (templates != null) {
+            for (Map<String, Object> template : templates) {
+                @SuppressWarnings("unchecked")
+                List<Number> values = (List<Number>) template.get("landmarks");
+                if (values == null) continue;
+                
+                float[] points = new float[values.size()];
+                for (int i = 0; i < points.length; i++) {
+                    points[i] = values.get(i).floatValue();
+                }
+                labels.add((String) template.get("label"));
+                landmarks.add(points);
+                leftHanded.add("Left".equals(template.get("handedness")));
+            }
+        }
+        
+        try {
+            HandLandmarkPlugin.setGestureTemplates(labels, landmarks, leftHanded);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_TEMPLATE", e.getMessage(), null);
+            return;
+        }
+        HandLandmarkPlugin.setGestureThresholds(
+                floatArgument(call, "maxDistance", 0.5f),
+                floatArgument(call, "minConfidence", 0.6f),
+                floatArgument(call, "minMargin", 0.25f)
+        );
+        result.success(labels.size());
+    }
+    
+    /**
+     * Lanza el lote de imagenes {paths, workers}; los resultados van por
+     * BATCH_EVENT_CHANNEL
+     */
+    private void startBatch(MethodCall call, MethodChannel.Result result) {
+        List<String> paths = call.argument("paths");
+        Integer workers = call.argument("workers");
+        if (paths == null) {
+            result.error("INVALID_ARGUMENT", "paths es obligatorio", null);
+            return;
+        }
+        result.success(HandLandmarkPlugin.startBatch(this, paths, workers != null ? workers : 0));
+    }
+    
+    /**
+     * Extrae los landmarks del video {path, fileName}; result responde al terminar
+     */
+    private void processVideo(MethodCall call, MethodChannel.Result result) {
+        String path = call.argument("path");
+        if (path == null) {
+            result.error("INVALID_ARGUMENT", "path es obligatorio", null);
+            return;
+        }
+        HandLandmarkPlugin.processVideo(this, path, call.argument("fileName"), result);
+    }
+    
+    /**
+     * Inicia la deteccion sobre un fichero de frames (no necesita permiso de camara)
+     */
+    private void startReplay(MethodCall call, MethodChannel.Result result) {
+        String path = call.argument("path");
+        Boolean loop = call.argument("loop");
+        Number fps = call.argument("fps");
+        if (path == null) {
+            result.error("INVALID_ARGUMENT", "path es obligatorio", null);
+            return;
+        }
+        
+        try {
+            HandLandmarkPlugin.startReplay(this, path, fps != null ? fps.doubleValue() : -1, loop != null && loop);
+            result.success(true);
+        } catch (IOException e) {
+            result.error("REPLAY_ERROR", e.getMessage(), null);
+        }
+    }
+    
+    /**
+     * Aplica las opciones opcionales enviadas desde Flutter al iniciar la deteccion
+     */
+    private void applyStartOptions(MethodCall call) {
+        String inputMode = call.argument("inputMode");
+        if (inputMode != null) {
+            HandLandmarkPlugin.setInputMode(inputMode);
+        }
+        
+        Integer analysisWidth = call.argument("analysisWidth");
+        Integer analysisHeight = call.argument("analysisHeight");
+        HandLandmarkPlugin.setAnalysisResolution(
+                analysisWidth != null ? analysisWidth : 640,
+                analysisHeight != null ? analysisHeight : 480
+        );
+        
+        Boolean roiCropping = call.argument("roiCropping");
+        HandLandmarkPlugin.setRoiCropping(roiCropping != null && roiCropping);
+        
+        Boolean pipelined = call.argument("pipelined");
+        HandLandmarkPlugin.setPipelined(pipelined == null || pipelined);
+        
+        Integer maxHands = call.argument("maxHands");
+        Boolean worldLandmarks = call.argument("worldLandmarks");
+        Boolean handedness = call.argument("handedness");
+        HandLandmarkPlugin.setOutputOptions(
+                maxHands != null ? maxHands : 2,
+                worldLandmarks == null || worldLandmarks,
+                handedness == null || handedness
+        );
+        
+        Integer latencyBudgetMs = call.argument("latencyBudgetMs");
+        if (latencyBudgetMs != null) {
+            HandLandmarkPlugin.setLatencyBudgetMs(latencyBudgetMs);
+        }
+        
+        String smoothing = call.argument("smoothing");
+        if (smoothing != null) {
+            HandLandmarkPlugin.setSmoothing(
+                    smoothing,
+                    floatArgument(call, "smoothingMinCutoff", 1f),
+                    floatArgument(call, "smoothingBeta", 10f),
+                    floatArgument(call, "smoothingProcessNoise", 1f),
+                    floatArgument(call, "smoothingMeasurementNoise", 1e-4f)
+            );
+        }
+        
+        String emitMode = call.argument("emitMode");
+        Integer windowFrames = call.argument("windowFrames");
+        HandLandmarkPlugin.setEmitOptions(
+                emitMode != null ? emitMode : GestureWindow.MODE_ALWAYS,
+                floatArgument(call, "motionThreshold", 0.01f),
+                windowFrames != null ? windowFrames : 15
+        );
+        
+        Integer maxInFlight = call.argument("maxInFlight");
+        String dropPolicy = call.argument("dropPolicy");
+        Integer staleAfterMs = call.argument("staleAfterMs");
+        HandLandmarkPlugin.setInFlightOptions(
+                maxInFlight != null ? maxInFlight : 1,
+                dropPolicy != null ? dropPolicy : InFlightLimiter.POLICY_DROP_INCOMING,
+                staleAfterMs != null ? staleAfterMs : 200
+        );
+    }
+    
+    /**
+     * Lee un argumento numerico de Flutter (llega como Double) con valor por defecto
+     */
+    private static float floatArgument(MethodCall call, String key, float defaultValue) {
+        Number value = call.argument(key);
+        return value != null ? value.floatValue() : defaultValue;
+    }
+    
+    /**
+     * Construye la configuracion del landmarker a partir de los argumentos de
+     * "configure". Los argumentos ausentes mantienen el valor actual.
+     */
+    private LandmarkerConfig configFromCall(MethodCall call) {
+        LandmarkerConfig current = HandLandmarkPlugin.getLandmarkerConfig();
+        
+        Integer maxHands = call.argument("maxHands");
+        Double minDetection = call.argument("minDetectionConfidence");
+        Double minPresence = call.argument("minPresenceConfidence");
+        Double minTracking = call.argument("minTrackingConfidence");
+        String delegate = call.argument("delegate");
+        
+        return new LandmarkerConfig(
+                maxHands != null ? maxHands : current.numHands,
+                minDetection != null ? minDetection.floatValue() : current.minDetectionConfidence,
+                minPresence != null ? minPresence.floatValue() : current.minPresenceConfidence,
+                minTracking != null ? minTracking.floatValue() : current.minTrackingConfidence,
+                delegate != null ? delegate : current.delegate
+        );
     }
     
     /**
@@ -255,5 +557,14 @@ public class MainActivity extends FlutterActivity {
     protected void onDestroy() {
         super.onDestroy();
         HandLandmarkPlugin.stop();
+        HandLandmarkPlugin.release();
+        HandLandmarkPlugin.cancelBatch();
+        HandLandmarkPlugin.cancelVideo();
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        HandLandmarkPlugin.onTrimMemory(level);
     }
 }
@@ -0,0 +1,271 @@
+package com.example.proyecto_v1_0;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.google.mediapipe.framework.image.BitmapImageBuilder;
+import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.Landmark;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+import com.google.mediapipe.tasks.core.BaseOptions;
+import com.google.mediapipe.tasks.core.Delegate;
+import com.google.mediapipe.tasks.vision.core.ImageProcessingOptions;
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarker;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HandDetector sobre el HandLandmarker de MediaPipe en modo LIVE_STREAM.
+ *
+ * create() construye el landmarker y lo calienta con un frame sintetico
+ * antes de devolverlo, asi que el primer frame real no paga la
+ * inicializacion perezosa del grafo. Con delegate GPU se prueba primero la
+ * GPU; si falla la creacion o el calentamiento se usa CPU.
+ */
+final class MediaPipeHandDetector implements HandDetector<MediaPipeHandDetector.Input> {
+
+    private static final String TAG = "MediaPipeHandDetector";
+    private static final String MODEL_PATH = "hand_landmarker.task";
+
+    // Calentamiento: frame sintetico que se procesa justo despues de crear el landmarker
+    private static final int WARMUP_FRAME_SIZE = 224;
+    private static final long WARMUP_TIMEOUT_MS = 3000;
+    private static final long WARMUP_TIMESTAMP_MS = 0;
+
+    /**
+     * Imagen de MediaPipe y opciones (rotacion) de un frame. El conversor
+     * reutiliza una por hueco del pipeline.
+     */
+    static final class Input {
+        MPImage image;
+        ImageProcessingOptions options;
+    }
+
+    private final HandDetector.Listener listener;
+    private HandLandmarker landmarker;
+    private String delegate;
+    private long warmupLatencyMs = -1;
+
+    // Mientras hay latch los resultados son del calentamiento y no se reenvian
+    private volatile CountDownLatch warmupLatch;
+    private volatile RuntimeException warmupError;
+
+    // El calentamiento vencio sin respuesta: su resultado (timestamp 0) o su
+    // error pueden llegar aun y tampoco se reenvian
+    private volatile boolean warmupOutstanding;
+
+    private MediaPipeHandDetector(HandDetector.Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Crea y calienta el landmarker con la configuracion indicada
+     */
+    static MediaPipeHandDetector create(Context context, LandmarkerConfig config,
+                                        HandDetector.Listener listener) {
+        MediaPipeHandDetector detector = new MediaPipeHandDetector(listener);
+        try {
+            if (LandmarkerConfig.DELEGATE_GPU.equals(config.delegate)) {
+                try {
+                    detector.landmarker = detector.createLandmarker(context, config, Delegate.GPU);
+                    detector.warmupLatencyMs = detector.warmUp();
+                    detector.delegate = LandmarkerConfig.DELEGATE_GPU;
+                    Log.d(TAG, "HandLandmarker en GPU, calentamiento: " + detector.warmupLatencyMs + " ms");
+                    return detector;
+                } catch (Exception e) {
+                    Log.w(TAG, "GPU no disponible, se usa CPU: " + e.getMessage());
+                    detector.close();
+                }
+            }
+
+            detector.landmarker = detector.createLandmarker(context, config, Delegate.CPU);
+            detector.delegate = LandmarkerConfig.DELEGATE_CPU;
+            try {
+                detector.warmupLatencyMs = detector.warmUp();
+            } catch (Exception e) {
+                // En CPU el calentamiento es solo informativo
+                detector.warmupLatencyMs = -1;
+                Log.w(TAG, "Calentamiento en CPU fallido: " + e.getMessage());
+            }
+            Log.d(TAG, "HandLandmarker en CPU, calentamiento: " + detector.warmupLatencyMs + " ms");
+            return detector;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error configurando HandLandmarker: " + e.getMessage());
+            detector.close();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Delegate realmente en uso (LandmarkerConfig.DELEGATE_*)
+     */
+    String getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Latencia de la inferencia de calentamiento en ms (-1 si fallo)
+     */
+    long getWarmupLatencyMs() {
+        return warmupLatencyMs;
+    }
+
+    @Override
+    public void detectAsync(Input input, long timestampMs) {
+        landmarker.detectAsync(input.image, input.options, timestampMs);
+    }
+
+    @Override
+    public void close() {
+        if (landmarker != null) {
+            landmarker.close();
+            landmarker = null;
+        }
+    }
+
+    /**
+     * Crea un HandLandmarker LIVE_STREAM con el delegate indicado
+     */
+    private HandLandmarker createLandmarker(Context context, LandmarkerConfig config, Delegate delegate) {
+        BaseOptions baseOptions = BaseOptions.builder()
+                .setModelAssetPath(MODEL_PATH)
+                .setDelegate(delegate)
+                .build();
+
+        HandLandmarker.HandLandmarkerOptions options =
+                HandLandmarker.HandLandmarkerOptions.builder()
+                        .setBaseOptions(baseOptions)
+                        .setRunningMode(RunningMode.LIVE_STREAM)
+                        .setNumHands(config.numHands)
+                        .setMinHandDetectionConfidence(config.minDetectionConfidence)
+                        .setMinHandPresenceConfidence(config.minPresenceConfidence)
+                        .setMinTrackingConfidence(config.minTrackingConfidence)
+                        .setResultListener((handLandmarkerResult, mpImage) -> {
+                            CountDownLatch latch = warmupLatch;
+                            if (latch != null) {
+                                warmupOutstanding = false;
+                                latch.countDown();
+                                return;
+                            }
+                            if (handLandmarkerResult.timestampMs() == WARMUP_TIMESTAMP_MS) {
+                                // Calentamiento que llega despues del timeout
+                                warmupOutstanding = false;
+                                return;
+                            }
+                            listener.onResult(new MediaPipeResult(handLandmarkerResult));
+                        })
+                        .setErrorListener((RuntimeException error) -> {
+                            Log.e(TAG, "HandLandmarker error: " + error.getMessage());
+                            CountDownLatch latch = warmupLatch;
+                            if (latch != null) {
+                                warmupError = error;
+                                warmupOutstanding = false;
+                                latch.countDown();
+                                return;
+                            }
+                            if (warmupOutstanding) {
+                                // Error tardio del calentamiento (los de MediaPipe no dicen el frame)
+                                warmupOutstanding = false;
+                                return;
+                            }
+                            listener.onError(error);
+                        })
+                        .build();
+
+        HandLandmarker created = HandLandmarker.createFromOptions(context, options);
+        Log.d(TAG, "HandLandmarker inicializado correctamente (" + config + ", " + delegate + ")");
+        return created;
+    }
+
+    /**
+     * Procesa un frame negro sintetico y espera su resultado. Fuerza la
+     * inicializacion perezosa del grafo (y de los shaders en GPU) y devuelve
+     * la latencia en ms. Lanza excepcion si hay error o timeout.
+     */
+    private long warmUp() throws InterruptedException {
+        Bitmap frame = Bitmap.createBitmap(WARMUP_FRAME_SIZE, WARMUP_FRAME_SIZE, Bitmap.Config.ARGB_8888);
+        CountDownLatch latch = new CountDownLatch(1);
+        warmupError = null;
+        warmupLatch = latch;
+
+        try {
+            long start = System.nanoTime();
+            landmarker.detectAsync(new BitmapImageBuilder(frame).build(), WARMUP_TIMESTAMP_MS);
+
+            if (!latch.await(WARMUP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                warmupOutstanding = true;
+                throw new IllegalStateException("Timeout en la inferencia de calentamiento");
+            }
+            if (warmupError != null) {
+                throw warmupError;
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            warmupLatch = null;
+            frame.recycle();
+        }
+    }
+
+    /**
+     * Resultado de MediaPipe (inmutable, se puede copiar desde otro hilo)
+     */
+    static final class MediaPipeResult implements HandDetector.Result {
+
+        private final HandLandmarkerResult result;
+
+        MediaPipeResult(HandLandmarkerResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public long timestampMs() {
+            return result.timestampMs();
+        }
+
+        /**
+         * Copia el resultado de MediaPipe a arrays primitivos
+         */
+        @Override
+        public void copyTo(LandmarkFrame frame, int maxHands, int fields) {
+            int handsDetected = Math.min(result.landmarks().size(), maxHands);
+            frame.handCount = handsDetected;
+            frame.fields = fields;
+
+            for (int i = 0; i < handsDetected; i++) {
+                int offset = i * LandmarkFrame.VALUES_PER_HAND;
+
+                // Landmarks normalizados
+                List<NormalizedLandmark> landmarks = result.landmarks().get(i);
+                for (int j = 0; j < landmarks.size() && j < LandmarkFrame.LANDMARKS_PER_HAND; j++) {
+                    NormalizedLandmark landmark = landmarks.get(j);
+                    frame.landmarks[offset + j * 3] = landmark.x();
+                    frame.landmarks[offset + j * 3 + 1] = landmark.y();
+                    frame.landmarks[offset + j * 3 + 2] = landmark.z();
+                }
+
+                // World landmarks
+                if (frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS)) {
+                    List<Landmark> worldLandmarks = result.worldLandmarks().get(i);
+                    for (int j = 0; j < worldLandmarks.size() && j < LandmarkFrame.LANDMARKS_PER_HAND; j++) {
+                        Landmark landmark = worldLandmarks.get(j);
+                        frame.worldLandmarks[offset + j * 3] = landmark.x();
+                        frame.worldLandmarks[offset + j * 3 + 1] = landmark.y();
+                        frame.worldLandmarks[offset + j * 3 + 2] = landmark.z();
+                    }
+                }
+
+                // Handedness (se copia siempre: el suavizado sigue cada mano por ella)
+                Category category = result.handedness().get(i).get(0);
+                frame.handedness[i] = LandmarkFrame.handednessCode(category.categoryName());
+                frame.handednessScore[i] = category.score();
+            }
+        }
+    }
+}
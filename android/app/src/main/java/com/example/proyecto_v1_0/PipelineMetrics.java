@@ -0,0 +1,89 @@
+package com.example.proyecto_v1_0;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencias por etapa del pipeline de frames (todas con System.nanoTime):
+ * - arrival: intervalo entre frames que llegan al analizador
+ * - conversion: desde que el frame entra al preprocesado hasta tener la
+ *   imagen de MediaPipe (incluye la rotacion si se hace en Java)
+ * - rotation: la parte de conversion que rota los pixeles (solo modo bitmap;
+ *   en yuv va en la misma pasada nativa y en buffer la hace MediaPipe)
+ * - inference: de detectAsync al callback de resultados
+ * - serialization: construir y publicar los eventos de un resultado
+ * - delivery: de publicar un evento a entregarlo en el hilo principal
+ *
+ * Ademas cuenta los frames que llegan y los que se saltan antes de entrar
+ * al pipeline. Los descartes de cada cola los lleva su propia clase.
+ */
+final class PipelineMetrics {
+
+    static final String ARRIVAL = "arrival";
+    static final String CONVERSION = "conversion";
+    static final String ROTATION = "rotation";
+    static final String INFERENCE = "inference";
+    static final String SERIALIZATION = "serialization";
+    static final String DELIVERY = "delivery";
+
+    final LatencyHistogram arrival = new LatencyHistogram();
+    final LatencyHistogram conversion = new LatencyHistogram();
+    final LatencyHistogram rotation = new LatencyHistogram();
+    final LatencyHistogram inference = new LatencyHistogram();
+    final LatencyHistogram serialization = new LatencyHistogram();
+    final LatencyHistogram delivery = new LatencyHistogram();
+
+    private final AtomicLong framesArrived = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+    private final AtomicLong lastArrivalNanos = new AtomicLong();
+
+    /**
+     * Apunta la llegada de un frame al analizador
+     */
+    void onFrameArrived(long nowNanos) {
+        framesArrived.incrementAndGet();
+        long previous = lastArrivalNanos.getAndSet(nowNanos);
+        if (previous != 0) {
+            arrival.record(nowNanos - previous);
+        }
+    }
+
+    /**
+     * Frame descartado por el regulador de fps antes de procesarse
+     */
+    void onFrameSkipped() {
+        framesSkipped.incrementAndGet();
+    }
+
+    /**
+     * Histogramas por etapa y contadores de frames
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> stages = new HashMap<>();
+        stages.put(ARRIVAL, arrival.toMap());
+        stages.put(CONVERSION, conversion.toMap());
+        stages.put(ROTATION, rotation.toMap());
+        stages.put(INFERENCE, inference.toMap());
+        stages.put(SERIALIZATION, serialization.toMap());
+        stages.put(DELIVERY, delivery.toMap());
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("stages", stages);
+        map.put("framesArrived", framesArrived.get());
+        map.put("framesSkipped", framesSkipped.get());
+        return map;
+    }
+
+    void reset() {
+        arrival.reset();
+        conversion.reset();
+        rotation.reset();
+        inference.reset();
+        serialization.reset();
+        delivery.reset();
+        framesArrived.set(0);
+        framesSkipped.set(0);
+        lastArrivalNanos.set(0);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.proyecto_v1_0;
+
+/**
+ * Frame ya convertido, listo para enviarse al detector.
+ *
+ * Hay un numero fijo de PreparedFrame: el preprocesado toma uno libre, lo
+ * rellena y lo pasa a la etapa de inferencia, que lo devuelve al enviarlo
+ * (el detector copia la entrada antes de volver). El conversor guarda sus
+ * buffers por index, asi que el preprocesado del frame N+1 nunca pisa los
+ * pixeles del frame N.
+ */
+final class PreparedFrame<F, I> {
+
+    // Hueco del pipeline (indice de los buffers del conversor)
+    final int index;
+
+    // Region de la mano (left, top, side) si cropped
+    final int[] region = new int[3];
+
+    I input;
+    boolean cropped;
+    int frameWidth;
+    int frameHeight;
+
+    // Timestamp de captura del sensor en ms (el que se pasa al detector)
+    long captureTimestamp;
+
+    // Coste de rotar los pixeles en la conversion (-1 si no se rotaron)
+    long rotationNanos;
+
+    // Frame que sigue abierto porque input lee sus pixeles sin copia;
+    // se cierra despues de enviarlo al detector
+    F heldFrame;
+
+    PreparedFrame(int index) {
+        this.index = index;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.proyecto_v1_0;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copia por filas de una region cuadrada de un plano RGBA_8888 con stride.
+ *
+ * La region se da en coordenadas del frame rotado y se traduce a
+ * coordenadas del sensor; el resultado queda en la orientacion del sensor.
+ * Es Java puro (sin CameraX) para poder medirlo fuera del dispositivo.
+ */
+final class RegionCopy {
+
+    static final int BYTES_PER_PIXEL = 4;
+
+    private RegionCopy() {
+    }
+
+    /**
+     * Copia side filas de side pixeles de source a target (desde su posicion
+     * actual). width y height son las del plano en orientacion del sensor.
+     * Al terminar source queda con posicion y limite limpios.
+     */
+    static void copy(ByteBuffer source, int rowStride, int pixelStride,
+                     int width, int height, int rotation,
+                     int left, int top, int side,
+                     ByteBuffer target) {
+        // Esquina superior izquierda del recorte en coordenadas del sensor
+        int x;
+        int y;
+        switch (rotation) {
+            case 90:
+                x = top;
+                y = height - (left + side);
+                break;
+            case 180:
+                x = width - (left + side);
+                y = height - (top + side);
+                break;
+            case 270:
+                x = width - (top + side);
+                y = left;
+                break;
+            default:
+                x = left;
+                y = top;
+                break;
+        }
+
+        int rowBytes = side * BYTES_PER_PIXEL;
+        for (int row = 0; row < side; row++) {
+            int start = (y + row) * rowStride + x * pixelStride;
+            source.limit(start + rowBytes);
+            source.position(start);
+            target.put(source);
+        }
+        source.clear();
+    }
+}
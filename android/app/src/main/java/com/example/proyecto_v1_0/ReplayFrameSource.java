@@ -0,0 +1,191 @@
+package com.example.proyecto_v1_0;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fuente de frames que repite un RgbaFrameFile en lugar de la camara, para
+ * medir el pipeline de forma reproducible en un emulador o en la JVM.
+ *
+ * Los frames salen en orden desde un hilo propio, al ritmo de setFrameRate
+ * (por defecto el intervalo guardado en el fichero) o, con 0, tan rapido
+ * como el motor los libera. Como en CameraX, solo hay POOL_SIZE frames a la
+ * vez: si el motor no ha cerrado ninguno, la fuente espera en lugar de
+ * descartar, asi que cada pasada entrega siempre la misma secuencia. El
+ * timestamp de captura es System.nanoTime() al entregar el frame.
+ */
+final class ReplayFrameSource implements FrameSource<ReplayFrameSource.Frame> {
+
+    // Imagenes que CameraX mantiene abiertas a la vez en el analizador
+    static final int POOL_SIZE = 4;
+
+    private static final long STOP_TIMEOUT_MS = 2000;
+
+    /**
+     * Frame del fichero con el layout de un ImageProxy RGBA_8888 (stride de
+     * fila, pixelStride 4 y rotacion). Se devuelve a la fuente con close().
+     */
+    static final class Frame {
+        final int index;
+        final int width;
+        final int height;
+        final int rowStride;
+        final int pixelStride = RegionCopy.BYTES_PER_PIXEL;
+        final int rotationDegrees;
+
+        ByteBuffer buffer;
+        int frameNumber;
+        long timestampNanos;
+
+        private final ReplayFrameSource owner;
+        private final AtomicBoolean open = new AtomicBoolean();
+
+        private Frame(ReplayFrameSource owner, int index, RgbaFrameFile file) {
+            this.owner = owner;
+            this.index = index;
+            this.width = file.getWidth();
+            this.height = file.getHeight();
+            this.rowStride = file.getRowStride();
+            this.rotationDegrees = file.getRotationDegrees();
+        }
+
+        /**
+         * Devuelve el frame al pool. Las llamadas repetidas no hacen nada.
+         */
+        void close() {
+            if (open.compareAndSet(true, false)) {
+                owner.free.offer(this);
+            }
+        }
+    }
+
+    private final RgbaFrameFile file;
+    private final ArrayBlockingQueue<Frame> free = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private volatile long frameIntervalNanos;
+    private volatile boolean loop;
+
+    private volatile boolean running;
+    private volatile int deliveredFrames;
+    private Thread thread;
+    private CountDownLatch finished = new CountDownLatch(0);
+
+    ReplayFrameSource(RgbaFrameFile file) {
+        this.file = file;
+        this.frameIntervalNanos = Math.max(0, file.getFrameIntervalNanos());
+        for (int i = 0; i < POOL_SIZE; i++) {
+            free.add(new Frame(this, i, file));
+        }
+    }
+
+    /**
+     * Frames por segundo de la reproduccion; 0 para entregarlos sin esperar
+     */
+    void setFrameRate(double fps) {
+        frameIntervalNanos = fps > 0 ? (long) (1_000_000_000L / fps) : 0;
+    }
+
+    /**
+     * Vuelve al primer frame al terminar, hasta que se llama a stop()
+     */
+    void setLoop(boolean enabled) {
+        loop = enabled;
+    }
+
+    @Override
+    public synchronized void start(Callback<Frame> callback) {
+        stop();
+        running = true;
+        deliveredFrames = 0;
+        CountDownLatch done = new CountDownLatch(1);
+        finished = done;
+        thread = new Thread(() -> {
+            try {
+                replay(callback);
+            } finally {
+                done.countDown();
+            }
+        }, "frame-replay");
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread current = thread;
+        thread = null;
+        if (current == null) {
+            return;
+        }
+        current.interrupt();
+        if (current != Thread.currentThread()) {
+            try {
+                current.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public long nowNanos(long captureNanos) {
+        return System.nanoTime();
+    }
+
+    /**
+     * Espera a que termine la reproduccion (sin loop) o a stop()
+     */
+    boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch done;
+        synchronized (this) {
+            done = finished;
+        }
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * Frames entregados desde el ultimo start()
+     */
+    int getDeliveredFrames() {
+        return deliveredFrames;
+    }
+
+    private void replay(Callback<Frame> callback) {
+        int frameCount = file.getFrameCount();
+        long nextFrame = System.nanoTime();
+        try {
+            do {
+                for (int i = 0; i < frameCount && running; i++) {
+                    Frame frame = free.take();
+
+                    long interval = frameIntervalNanos;
+                    if (interval > 0) {
+                        long wait;
+                        while ((wait = nextFrame - System.nanoTime()) > 0 && running) {
+                            LockSupport.parkNanos(this, wait);
+                        }
+                        // Si el motor va atrasado no se recupera el tiempo con una rafaga
+                        nextFrame = Math.max(nextFrame + interval, System.nanoTime());
+                    }
+                    if (!running) {
+                        free.offer(frame);
+                        return;
+                    }
+
+                    frame.buffer = file.frame(i);
+                    frame.frameNumber = i;
+                    frame.timestampNanos = System.nanoTime();
+                    frame.open.set(true);
+                    deliveredFrames++;
+                    callback.onFrame(frame);
+                }
+            } while (loop && running);
+        } catch (InterruptedException e) {
+            // stop() mientras se esperaba un frame libre
+        }
+    }
+}
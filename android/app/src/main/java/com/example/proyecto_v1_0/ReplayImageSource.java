@@ -0,0 +1,183 @@
+package com.example.proyecto_v1_0;
+
+import android.graphics.Matrix;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.media.Image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.ExperimentalGetImage;
+import androidx.camera.core.ImageInfo;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.impl.TagBundle;
+import androidx.camera.core.impl.utils.ExifData;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Presenta los frames de ReplayFrameSource como ImageProxy RGBA_8888, para
+ * que el motor del plugin y CameraFrameConverter los traten igual que los
+ * de CameraX (mismos caminos de conversion segun el padding y la rotacion).
+ *
+ * Hay un ImageProxy por hueco del pool de la fuente: no se crea ninguno por
+ * frame.
+ */
+final class ReplayImageSource implements FrameSource<ImageProxy> {
+
+    private final ReplayFrameSource replay;
+    private final FrameProxy[] proxies = new FrameProxy[ReplayFrameSource.POOL_SIZE];
+
+    ReplayImageSource(ReplayFrameSource replay) {
+        this.replay = replay;
+    }
+
+    ReplayFrameSource getReplay() {
+        return replay;
+    }
+
+    @Override
+    public void start(Callback<ImageProxy> callback) {
+        replay.start(frame -> {
+            // Siempre en el hilo de la fuente: no hace falta sincronizar
+            FrameProxy proxy = proxies[frame.index];
+            if (proxy == null) {
+                proxy = new FrameProxy(frame);
+                proxies[frame.index] = proxy;
+            }
+            callback.onFrame(proxy);
+        });
+    }
+
+    @Override
+    public void stop() {
+        replay.stop();
+    }
+
+    @Override
+    public long nowNanos(long captureNanos) {
+        return replay.nowNanos(captureNanos);
+    }
+
+    private static final class FrameProxy implements ImageProxy {
+        private final ReplayFrameSource.Frame frame;
+        private final PlaneProxy[] planes;
+        private final ImageInfo imageInfo;
+        private Rect cropRect;
+
+        FrameProxy(ReplayFrameSource.Frame frame) {
+            this.frame = frame;
+            this.planes = new PlaneProxy[]{new FramePlane(frame)};
+            this.imageInfo = new FrameInfo(frame);
+        }
+
+        @Override
+        public void close() {
+            cropRect = null;
+            frame.close();
+        }
+
+        @NonNull
+        @Override
+        public Rect getCropRect() {
+            return cropRect != null ? cropRect : new Rect(0, 0, frame.width, frame.height);
+        }
+
+        @Override
+        public void setCropRect(@Nullable Rect rect) {
+            cropRect = rect;
+        }
+
+        @Override
+        public int getFormat() {
+            return PixelFormat.RGBA_8888;
+        }
+
+        @Override
+        public int getHeight() {
+            return frame.height;
+        }
+
+        @Override
+        public int getWidth() {
+            return frame.width;
+        }
+
+        @NonNull
+        @Override
+        public PlaneProxy[] getPlanes() {
+            return planes;
+        }
+
+        @NonNull
+        @Override
+        public ImageInfo getImageInfo() {
+            return imageInfo;
+        }
+
+        @Nullable
+        @Override
+        @ExperimentalGetImage
+        public Image getImage() {
+            return null;
+        }
+    }
+
+    private static final class FramePlane implements ImageProxy.PlaneProxy {
+        private final ReplayFrameSource.Frame frame;
+
+        FramePlane(ReplayFrameSource.Frame frame) {
+            this.frame = frame;
+        }
+
+        @Override
+        public int getRowStride() {
+            return frame.rowStride;
+        }
+
+        @Override
+        public int getPixelStride() {
+            return frame.pixelStride;
+        }
+
+        @NonNull
+        @Override
+        public ByteBuffer getBuffer() {
+            return frame.buffer;
+        }
+    }
+
+    private static final class FrameInfo implements ImageInfo {
+        private final ReplayFrameSource.Frame frame;
+
+        FrameInfo(ReplayFrameSource.Frame frame) {
+            this.frame = frame;
+        }
+
+        @NonNull
+        @Override
+        public TagBundle getTagBundle() {
+            return TagBundle.emptyBundle();
+        }
+
+        @Override
+        public long getTimestamp() {
+            return frame.timestampNanos;
+        }
+
+        @Override
+        public int getRotationDegrees() {
+            return frame.rotationDegrees;
+        }
+
+        @NonNull
+        @Override
+        public Matrix getSensorToBufferTransformMatrix() {
+            return new Matrix();
+        }
+
+        @Override
+        public void populateExifData(@NonNull ExifData.Builder exifBuilder) {
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.proyecto_v1_0;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Fichero de frames RGBA_8888 guardados tal como los entrega CameraX: con
+ * el stride de fila (padding incluido) y la rotacion del sensor. Lo lee
+ * ReplayFrameSource para repetir una captura sin camara.
+ *
+ * Formato (little-endian). Cabecera de HEADER_BYTES:
+ *
+ *   int32   MAGIC ("RGBF")
+ *   uint16  VERSION
+ *   uint16  rotacion en grados (0, 90, 180, 270)
+ *   int32   ancho en pixeles (orientacion del sensor)
+ *   int32   alto en pixeles
+ *   int32   bytes por fila (ancho * 4 + padding)
+ *   int32   numero de frames
+ *   int64   intervalo de captura en ns (0 si no se conoce)
+ *
+ * Despues, los frames seguidos, cada uno de alto * bytes por fila.
+ */
+final class RgbaFrameFile {
+
+    static final int MAGIC = 0x46424752;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    private static final int COUNT_OFFSET = 20;
+
+    private final int width;
+    private final int height;
+    private final int rowStride;
+    private final int rotationDegrees;
+    private final int frameCount;
+    private final long frameIntervalNanos;
+    private final MappedByteBuffer data;
+
+    private RgbaFrameFile(int width, int height, int rowStride, int rotationDegrees,
+                          int frameCount, long frameIntervalNanos, MappedByteBuffer data) {
+        this.width = width;
+        this.height = height;
+        this.rowStride = rowStride;
+        this.rotationDegrees = rotationDegrees;
+        this.frameCount = frameCount;
+        this.frameIntervalNanos = frameIntervalNanos;
+        this.data = data;
+    }
+
+    /**
+     * Mapea el fichero completo en memoria (solo lectura)
+     */
+    static RgbaFrameFile open(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Tamano de fichero no valido: " + size);
+            }
+
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt(0) != MAGIC || (data.getShort(4) & 0xFFFF) != VERSION) {
+                throw new IOException("No es un fichero de frames RGBA: " + file);
+            }
+
+            int rotation = data.getShort(6) & 0xFFFF;
+            int width = data.getInt(8);
+            int height = data.getInt(12);
+            int rowStride = data.getInt(16);
+            int frameCount = data.getInt(COUNT_OFFSET);
+            long interval = data.getLong(24);
+            if (width <= 0 || height <= 0 || rowStride < width * RegionCopy.BYTES_PER_PIXEL
+                    || rotation % 90 != 0 || rotation >= 360
+                    || size < HEADER_BYTES + (long) frameCount * rowStride * height) {
+                throw new IOException("Cabecera no valida en " + file);
+            }
+            return new RgbaFrameFile(width, height, rowStride, rotation, frameCount, interval, data);
+        }
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getRowStride() {
+        return rowStride;
+    }
+
+    int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    int getFrameCount() {
+        return frameCount;
+    }
+
+    long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /**
+     * Plano del frame index: buffer directo de alto * rowStride bytes con
+     * posicion 0, en orden nativo como los de CameraX
+     */
+    ByteBuffer frame(int index) {
+        int frameBytes = rowStride * height;
+        ByteBuffer view = data.duplicate();
+        view.position(HEADER_BYTES + index * frameBytes);
+        view.limit(view.position() + frameBytes);
+        return view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Crea el fichero y devuelve un Writer para anadirle frames
+     */
+    static Writer create(File file, int width, int height, int rowPadding,
+                         int rotationDegrees, long frameIntervalNanos) throws IOException {
+        return new Writer(file, width, height, width * RegionCopy.BYTES_PER_PIXEL + rowPadding,
+                rotationDegrees, frameIntervalNanos);
+    }
+
+    /**
+     * Escribe frames de width x height pixeles RGBA sin padding; cada fila se
+     * completa con ceros hasta el stride del fichero
+     */
+    static final class Writer implements Closeable {
+        private final RandomAccessFile randomAccessFile;
+        private final FileChannel channel;
+        private final int rowBytes;
+        private final int height;
+        private final ByteBuffer frameBuffer;
+        private int frameCount;
+
+        private Writer(File file, int width, int height, int rowStride,
+                       int rotationDegrees, long frameIntervalNanos) throws IOException {
+            this.randomAccessFile = new RandomAccessFile(file, "rw");
+            this.channel = randomAccessFile.getChannel();
+            this.rowBytes = width * RegionCopy.BYTES_PER_PIXEL;
+            this.height = height;
+            this.frameBuffer = ByteBuffer.allocate(rowStride * height);
+            channel.truncate(0);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort((short) VERSION);
+            header.putShort((short) rotationDegrees);
+            header.putInt(width);
+            header.putInt(height);
+            header.putInt(rowStride);
+            header.putInt(0);
+            header.putLong(frameIntervalNanos);
+            header.flip();
+            writeFully(header, 0);
+        }
+
+        /**
+         * Anade un frame (rgba desde su posicion, width * height * 4 bytes)
+         */
+        void write(ByteBuffer rgba) throws IOException {
+            ByteBuffer source = rgba.duplicate();
+            int rowStride = frameBuffer.capacity() / height;
+            frameBuffer.clear();
+            for (int row = 0; row < height; row++) {
+                source.limit(source.position() + rowBytes);
+                frameBuffer.position(row * rowStride);
+                frameBuffer.put(source);
+            }
+            frameBuffer.clear();
+            writeFully(frameBuffer, HEADER_BYTES + (long) frameCount * frameBuffer.capacity());
+            frameCount++;
+        }
+
+        /**
+         * Escribe el numero de frames en la cabecera y cierra el fichero
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                count.putInt(0, frameCount);
+                writeFully(count, COUNT_OFFSET);
+            } finally {
+                channel.close();
+                randomAccessFile.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+}
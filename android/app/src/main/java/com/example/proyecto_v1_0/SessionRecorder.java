@@ -0,0 +1,322 @@
+package com.example.proyecto_v1_0;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Graba los resultados de deteccion en un fichero binario de registros de
+ * tamano fijo, para analizarlos y ajustar parametros fuera del dispositivo.
+ *
+ * record() solo copia el frame a un anillo de frames preasignados (un
+ * productor, un consumidor, sin locks) y vuelve; si el anillo esta lleno el
+ * resultado se descarta y se cuenta. Un hilo propio cuantiza los frames y
+ * los escribe en el fichero a traves de regiones mapeadas en memoria de
+ * MAP_CHUNK_RECORDS registros.
+ *
+ * Formato (little-endian). Cabecera de HEADER_BYTES:
+ *
+ *   int32    MAGIC ("HLRS")
+ *   uint16   VERSION
+ *   uint16   RECORD_BYTES
+ *   int64    timestamp de captura (ms) del primer registro
+ *   int32    numero de registros
+ *   float32  LANDMARK_SCALE
+ *   float32  WORLD_SCALE
+ *   uint8    LandmarkFrame.MAX_HANDS
+ *   uint8    LandmarkFrame.LANDMARKS_PER_HAND
+ *   uint16   reservado
+ *
+ * Cada registro:
+ *
+ *   int32    ms desde el registro anterior (0 en el primero)
+ *   uint8    numero de manos
+ *   uint8    mascara de campos (LandmarkFrame.FIELD_*)
+ *   MAX_HANDS x int8     handedness (-1 desconocida, 0 Left, 1 Right)
+ *   MAX_HANDS x uint16   score de handedness * 65535
+ *   MAX_HANDS x 63 x int16  landmarks normalizados
+ *   MAX_HANDS x 63 x int16  world landmarks
+ *
+ * Los landmarks se cuantizan (valor * escala, redondeado y limitado a
+ * +-QUANT_LIMIT) y se guarda la diferencia con el valor cuantizado del
+ * registro anterior en la misma posicion; las manos ausentes cuentan como
+ * 0. El limite garantiza que la diferencia cabe en un int16.
+ */
+final class SessionRecorder {
+
+    static final int MAGIC = 0x53524C48;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 4 + 1 + 1
+            + LandmarkFrame.MAX_HANDS * (1 + 2)
+            + 2 * LandmarkFrame.MAX_HANDS * LandmarkFrame.VALUES_PER_HAND * 2;
+
+    // Resolucion: 1e-4 del frame en los normalizados y 20 um en los world
+    static final float LANDMARK_SCALE = 10_000f;
+    static final float WORLD_SCALE = 50_000f;
+    static final int QUANT_LIMIT = 16_383;
+
+    static final int COUNT_OFFSET = 16;
+    static final int BASE_TIMESTAMP_OFFSET = 8;
+
+    private static final int RING_SIZE = 64;
+    private static final int MAP_CHUNK_RECORDS = 1024;
+    private static final long IDLE_WAIT_NANOS = 10_000_000L;
+    private static final long FULL_WAIT_NANOS = 1_000_000L;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+
+    // Anillo: el productor escribe en head, el hilo de escritura lee en tail
+    private final LandmarkFrame[] ring = new LandmarkFrame[RING_SIZE];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile IOException writeError;
+
+    // Estado del hilo de escritura
+    private MappedByteBuffer chunk;
+    private long chunkEnd = HEADER_BYTES;
+    private volatile int recordCount;
+    private long previousTimestamp;
+    private final int[] previousLandmarks = new int[LandmarkFrame.MAX_HANDS * LandmarkFrame.VALUES_PER_HAND];
+    private final int[] previousWorld = new int[LandmarkFrame.MAX_HANDS * LandmarkFrame.VALUES_PER_HAND];
+
+    private SessionRecorder(File file) throws IOException {
+        this.file = file;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+        channel.truncate(0);
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) RECORD_BYTES);
+        header.putLong(0);
+        header.putInt(0);
+        header.putFloat(LANDMARK_SCALE);
+        header.putFloat(WORLD_SCALE);
+        header.put((byte) LandmarkFrame.MAX_HANDS);
+        header.put((byte) LandmarkFrame.LANDMARKS_PER_HAND);
+        header.putShort((short) 0);
+
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new LandmarkFrame();
+        }
+
+        writer = new Thread(this::writeLoop, "hand-recorder");
+        writer.start();
+    }
+
+    /**
+     * Crea (o vacia) el fichero y arranca el hilo de escritura
+     */
+    static SessionRecorder open(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("No se puede crear " + parent);
+        }
+        return new SessionRecorder(file);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Encola una copia del frame. Solo desde un hilo (el de serializacion).
+     * Devuelve false si el anillo esta lleno o la grabacion esta cerrada.
+     */
+    boolean record(LandmarkFrame frame) {
+        if (!enqueue(frame)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Como record(), pero si el anillo esta lleno espera al hilo de escritura
+     * en lugar de descartar (procesado offline, donde no hay un frame
+     * siguiente que apremie). Devuelve false si la grabacion esta cerrada.
+     */
+    boolean recordBlocking(LandmarkFrame frame) {
+        while (!enqueue(frame)) {
+            if (!running) {
+                return false;
+            }
+            LockSupport.parkNanos(this, FULL_WAIT_NANOS);
+        }
+        return true;
+    }
+
+    private boolean enqueue(LandmarkFrame frame) {
+        long position = head.get();
+        if (!running || position - tail.get() >= RING_SIZE) {
+            return false;
+        }
+
+        LandmarkFrame slot = ring[(int) (position % RING_SIZE)];
+        int hands = Math.min(frame.handCount, LandmarkFrame.MAX_HANDS);
+        int values = hands * LandmarkFrame.VALUES_PER_HAND;
+        slot.handCount = hands;
+        slot.fields = frame.fields;
+        slot.captureTimestamp = frame.captureTimestamp;
+        System.arraycopy(frame.handedness, 0, slot.handedness, 0, hands);
+        System.arraycopy(frame.handednessScore, 0, slot.handednessScore, 0, hands);
+        System.arraycopy(frame.landmarks, 0, slot.landmarks, 0, values);
+        if (frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS)) {
+            System.arraycopy(frame.worldLandmarks, 0, slot.worldLandmarks, 0, values);
+        }
+
+        // Publica el registro al hilo de escritura
+        head.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Registros escritos en el fichero
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Resultados descartados por encontrar el anillo lleno
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Escribe lo pendiente, cierra el fichero y lo recorta a los registros
+     * escritos. Lanza el primer error de escritura si lo hubo.
+     */
+    void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        // Sin timeout: el escritor solo vacia el anillo (como mucho RING_SIZE
+        // registros) y sale. Recortar el fichero con el escritor vivo le
+        // dejaria escribiendo en un chunk mapeado fuera del fichero (SIGBUS)
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            header.force();
+            if (chunk != null) {
+                chunk.force();
+            }
+            chunk = null;
+            channel.truncate(HEADER_BYTES + (long) recordCount * RECORD_BYTES);
+        } finally {
+            channel.close();
+            randomAccessFile.close();
+        }
+
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                boolean stopping = !running;
+                int written = drain();
+                if (written > 0) {
+                    header.putInt(COUNT_OFFSET, recordCount);
+                } else if (stopping) {
+                    return;
+                } else {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            writeError = e;
+            running = false;
+        }
+    }
+
+    /**
+     * Escribe todos los registros publicados. Devuelve cuantos.
+     */
+    private int drain() throws IOException {
+        long position = tail.get();
+        long end = head.get();
+        for (long i = position; i < end; i++) {
+            writeRecord(ring[(int) (i % RING_SIZE)]);
+            // El hueco queda libre para el productor
+            tail.lazySet(i + 1);
+        }
+        return (int) (end - position);
+    }
+
+    private void writeRecord(LandmarkFrame frame) throws IOException {
+        if (chunk == null || !chunk.hasRemaining()) {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkEnd, (long) MAP_CHUNK_RECORDS * RECORD_BYTES);
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+            chunkEnd += (long) MAP_CHUNK_RECORDS * RECORD_BYTES;
+        }
+
+        if (recordCount == 0) {
+            header.putLong(BASE_TIMESTAMP_OFFSET, frame.captureTimestamp);
+            previousTimestamp = frame.captureTimestamp;
+        }
+        chunk.putInt((int) (frame.captureTimestamp - previousTimestamp));
+        previousTimestamp = frame.captureTimestamp;
+
+        int hands = frame.handCount;
+        boolean withWorld = frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS);
+        chunk.put((byte) hands);
+        chunk.put((byte) frame.fields);
+        for (int i = 0; i < LandmarkFrame.MAX_HANDS; i++) {
+            chunk.put((byte) (i < hands ? frame.handedness[i] : LandmarkFrame.HANDEDNESS_UNKNOWN));
+        }
+        for (int i = 0; i < LandmarkFrame.MAX_HANDS; i++) {
+            float score = i < hands ? Math.max(0f, Math.min(1f, frame.handednessScore[i])) : 0f;
+            chunk.putShort((short) Math.round(score * 65535f));
+        }
+
+        int values = hands * LandmarkFrame.VALUES_PER_HAND;
+        putDeltas(frame.landmarks, values, LANDMARK_SCALE, previousLandmarks);
+        putDeltas(frame.worldLandmarks, withWorld ? values : 0, WORLD_SCALE, previousWorld);
+        recordCount++;
+    }
+
+    /**
+     * Escribe los valores cuantizados como diferencia con los del registro
+     * anterior; a partir de count cuentan como 0
+     */
+    private void putDeltas(float[] source, int count, float scale, int[] previous) {
+        for (int i = 0; i < previous.length; i++) {
+            int value = i < count ? quantize(source[i], scale) : 0;
+            chunk.putShort((short) (value - previous[i]));
+            previous[i] = value;
+        }
+    }
+
+    static int quantize(float value, float scale) {
+        int quantized = Math.round(value * scale);
+        return Math.max(-QUANT_LIMIT, Math.min(QUANT_LIMIT, quantized));
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.proyecto_v1_0;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.Image;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.util.Log;
+
+import com.google.mediapipe.framework.image.ByteBufferImageBuilder;
+import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarker;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.flutter.FlutterInjector;
+
+/**
+ * Extrae la pista de landmarks de un fichero de video: lo decodifica con
+ * MediaCodec (por hardware si el dispositivo lo tiene), pasa cada frame a un
+ * HandLandmarker en modo VIDEO con su presentation timestamp y guarda los
+ * resultados con un SessionRecorder.
+ *
+ * El decodificador trabaja sin Surface: getOutputImage da acceso directo a
+ * sus propios buffers YUV, que YuvConverter rota y reduce a RGB en una
+ * pasada (sin copias intermedias ni Bitmap). No hay ritmo de reproduccion:
+ * cada frame se procesa en cuanto sale del decodificador, asi que el video
+ * va tan rapido como permita la inferencia.
+ *
+ * Un extractor procesa un solo video en el hilo que llama a extract().
+ */
+final class VideoLandmarkExtractor {
+
+    private static final String TAG = "VideoLandmarkExtractor";
+
+    // Lado mayor del frame que se pasa a MediaPipe (el modelo trabaja a 224)
+    private static final int MAX_FRAME_SIDE = 640;
+    private static final long DEQUEUE_TIMEOUT_US = 10_000;
+
+    private final Context context;
+    private final LandmarkerConfig config;
+    private final YuvConverter yuvConverter = new YuvConverter();
+    private final LandmarkFrame frame = new LandmarkFrame();
+
+    private volatile boolean cancelled;
+
+    VideoLandmarkExtractor(Context context, LandmarkerConfig config) {
+        this.context = context;
+        this.config = config;
+    }
+
+    /**
+     * Deja de decodificar; extract() vuelve con lo procesado hasta ahora
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Procesa el video path (ruta absoluta o asset de Flutter) y escribe un
+     * registro por frame en recorder, con captureTimestamp igual a su
+     * presentation timestamp en ms. Devuelve {path, frames, durationMs,
+     * elapsedMs, speed, cancelled}; speed es la duracion del video entre el
+     * tiempo de proceso (mayor que 1 = mas rapido que tiempo real).
+     */
+    Map<String, Object> extract(String path, SessionRecorder recorder) throws IOException {
+        if (!YuvConverter.isAvailable()) {
+            throw new IOException("Conversion YUV no disponible en este dispositivo");
+        }
+
+        long startNanos = System.nanoTime();
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec decoder = null;
+        HandLandmarker landmarker = null;
+        try {
+            setDataSource(extractor, path);
+            int track = selectVideoTrack(extractor);
+            if (track < 0) {
+                throw new IOException("No hay pista de video en " + path);
+            }
+            MediaFormat format = extractor.getTrackFormat(track);
+            int rotation = format.containsKey(MediaFormat.KEY_ROTATION)
+                    ? format.getInteger(MediaFormat.KEY_ROTATION) : 0;
+            long durationUs = format.containsKey(MediaFormat.KEY_DURATION)
+                    ? format.getLong(MediaFormat.KEY_DURATION) : 0;
+
+            // YUV flexible: getOutputImage entrega YUV_420_888 sea cual sea el layout del codec
+            format.setInteger(MediaFormat.KEY_COLOR_FORMAT,
+                    MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Flexible);
+            decoder = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            decoder.configure(format, null, null, 0);
+            decoder.start();
+
+            landmarker = ImageHandLandmarker.createLandmarker(context, config, RunningMode.VIDEO);
+            Log.d(TAG, "Decodificando " + path + " (" + durationUs / 1000 + " ms, rotacion " + rotation + ")");
+
+            int frames = decode(extractor, decoder, landmarker, rotation, recorder);
+
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+            long durationMs = durationUs / 1000;
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("path", path);
+            summary.put("frames", frames);
+            summary.put("durationMs", durationMs);
+            summary.put("elapsedMs", elapsedMs);
+            summary.put("speed", elapsedMs > 0 ? (double) durationMs / elapsedMs : 0.0);
+            summary.put("cancelled", cancelled);
+            Log.d(TAG, "Video procesado: " + summary);
+            return summary;
+        } finally {
+            if (landmarker != null) {
+                landmarker.close();
+            }
+            if (decoder != null) {
+                decoder.release();
+            }
+            extractor.release();
+            yuvConverter.release();
+        }
+    }
+
+    /**
+     * Bucle sincrono del decodificador: alimenta muestras mientras haya
+     * entradas libres y procesa cada frame de salida. Devuelve los frames
+     * procesados.
+     */
+    private int decode(MediaExtractor extractor, MediaCodec decoder, HandLandmarker landmarker,
+                       int rotation, SessionRecorder recorder) {
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        boolean inputDone = false;
+        long lastTimestampMs = -1;
+        int frames = 0;
+
+        while (!cancelled) {
+            if (!inputDone) {
+                int inputIndex = decoder.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+                if (inputIndex >= 0) {
+                    ByteBuffer input = decoder.getInputBuffer(inputIndex);
+                    int size = extractor.readSampleData(input, 0);
+                    if (size < 0) {
+                        decoder.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                        inputDone = true;
+                    } else {
+                        decoder.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                        extractor.advance();
+                    }
+                }
+            }
+
+            int outputIndex = decoder.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+            if (outputIndex < 0) {
+                // INFO_TRY_AGAIN_LATER o cambio de formato: el tamano se lee de cada Image
+                continue;
+            }
+
+            if (info.size > 0) {
+                // El modo VIDEO exige timestamps estrictamente crecientes
+                long timestampMs = Math.max(info.presentationTimeUs / 1000, lastTimestampMs + 1);
+                lastTimestampMs = timestampMs;
+                Image image = decoder.getOutputImage(outputIndex);
+                if (image != null) {
+                    try {
+                        detect(image, rotation, timestampMs, landmarker);
+                    } finally {
+                        image.close();
+                    }
+                    if (!recorder.recordBlocking(frame)) {
+                        Log.e(TAG, "La grabacion se ha cerrado antes de terminar el video");
+                        decoder.releaseOutputBuffer(outputIndex, false);
+                        break;
+                    }
+                    frames++;
+                }
+            }
+            decoder.releaseOutputBuffer(outputIndex, false);
+
+            if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                break;
+            }
+        }
+        decoder.stop();
+        return frames;
+    }
+
+    private void detect(Image image, int rotation, long timestampMs, HandLandmarker landmarker) {
+        boolean rotated = rotation % 180 != 0;
+        int frameWidth = rotated ? image.getCropRect().height() : image.getCropRect().width();
+        int frameHeight = rotated ? image.getCropRect().width() : image.getCropRect().height();
+        float scale = Math.min(1f, (float) MAX_FRAME_SIDE / Math.max(frameWidth, frameHeight));
+        int outWidth = Math.max(1, Math.round(frameWidth * scale));
+        int outHeight = Math.max(1, Math.round(frameHeight * scale));
+
+        ByteBuffer rgb = yuvConverter.convert(image, rotation, 0, 0, frameWidth, frameHeight, outWidth, outHeight);
+        MPImage mpImage = new ByteBufferImageBuilder(rgb, outWidth, outHeight, MPImage.IMAGE_FORMAT_RGB).build();
+        HandLandmarkerResult result = landmarker.detectForVideo(mpImage, timestampMs);
+
+        frame.clear();
+        new MediaPipeHandDetector.MediaPipeResult(result)
+                .copyTo(frame, LandmarkFrame.MAX_HANDS, LandmarkFrame.FIELDS_ALL);
+        frame.timestamp = System.currentTimeMillis();
+        frame.captureTimestamp = timestampMs;
+    }
+
+    private static int selectVideoTrack(MediaExtractor extractor) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("video/")) {
+                extractor.selectTrack(i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void setDataSource(MediaExtractor extractor, String path) throws IOException {
+        if (new File(path).isAbsolute()) {
+            extractor.setDataSource(path);
+            return;
+        }
+        String assetKey = FlutterInjector.instance().flutterLoader().getLookupKeyForAsset(path);
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(assetKey)) {
+            extractor.setDataSource(descriptor.getFileDescriptor(),
+                    descriptor.getStartOffset(), descriptor.getLength());
+        }
+    }
+}
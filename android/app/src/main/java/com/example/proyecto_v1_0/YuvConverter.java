@@ -0,0 +1,126 @@
+package com.example.proyecto_v1_0;
+
+import android.graphics.Rect;
+import android.media.Image;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Convierte frames YUV_420_888 de CameraX a RGB (3 bytes por pixel) con la
+ * rutina nativa de yuv_converter.cpp.
+ *
+ * La rotacion, el recorte y el escalado se hacen en la misma pasada: la
+ * salida ya esta en vertical y con el tamano pedido, y MediaPipe no tiene
+ * que rotar ni redimensionar un frame grande. El buffer de salida es
+ * directo, se reutiliza entre frames y tiene la capacidad exacta de la
+ * salida, que cambia con el recorte (ver ExactDirectBuffer).
+ *
+ * No es thread-safe: cada PreparedFrame tiene el suyo y lo usa un solo hilo.
+ */
+final class YuvConverter {
+
+    private static final String TAG = "YuvConverter";
+    private static final boolean AVAILABLE = loadLibrary();
+
+    private final ExactDirectBuffer output = new ExactDirectBuffer();
+
+    /**
+     * Si la libreria nativa se ha cargado (si no, solo queda la entrada RGBA)
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Convierte la region (cropLeft, cropTop, cropWidth x cropHeight) del frame
+     * ya rotado a un buffer RGB de outWidth x outHeight. Para el frame
+     * completo la region es (0, 0, ancho rotado, alto rotado).
+     *
+     * El buffer devuelto se sobrescribe en la siguiente llamada; detectAsync
+     * lo copia antes de volver.
+     */
+    @NonNull
+    ByteBuffer convert(@NonNull ImageProxy imageProxy,
+                       int cropLeft, int cropTop, int cropWidth, int cropHeight,
+                       int outWidth, int outHeight) {
+        ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+        return convert(
+                planes[0].getBuffer(), planes[0].getRowStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[1].getRowStride(), planes[1].getPixelStride(),
+                imageProxy.getWidth(), imageProxy.getHeight(),
+                imageProxy.getImageInfo().getRotationDegrees(),
+                cropLeft, cropTop, cropWidth, cropHeight,
+                outWidth, outHeight
+        );
+    }
+
+    /**
+     * Igual que con un ImageProxy, para las imagenes YUV_420_888 de un
+     * decodificador de video (MediaCodec.getOutputImage). Solo se usa la
+     * zona valida de la imagen (su crop rect, que empieza en 0, 0).
+     */
+    @NonNull
+    ByteBuffer convert(@NonNull Image image, int rotation,
+                       int cropLeft, int cropTop, int cropWidth, int cropHeight,
+                       int outWidth, int outHeight) {
+        Image.Plane[] planes = image.getPlanes();
+        Rect valid = image.getCropRect();
+        return convert(
+                planes[0].getBuffer(), planes[0].getRowStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[1].getRowStride(), planes[1].getPixelStride(),
+                valid.width(), valid.height(), rotation,
+                cropLeft, cropTop, cropWidth, cropHeight,
+                outWidth, outHeight
+        );
+    }
+
+    private ByteBuffer convert(ByteBuffer yBuffer, int yRowStride,
+                               ByteBuffer uBuffer, ByteBuffer vBuffer, int uvRowStride, int uvPixelStride,
+                               int width, int height, int rotation,
+                               int cropLeft, int cropTop, int cropWidth, int cropHeight,
+                               int outWidth, int outHeight) {
+        int needed = outWidth * outHeight * 3;
+        ByteBuffer target = output.get(needed, needed);
+
+        boolean converted = nativeConvert(
+                yBuffer, yRowStride, uBuffer, vBuffer, uvRowStride, uvPixelStride,
+                width, height, rotation,
+                cropLeft, cropTop, cropWidth, cropHeight,
+                target, outWidth, outHeight
+        );
+        if (!converted) {
+            throw new IllegalStateException("Conversion YUV fallida");
+        }
+        return target;
+    }
+
+    /**
+     * Libera el buffer de salida
+     */
+    void release() {
+        output.release();
+    }
+
+    private static boolean loadLibrary() {
+        try {
+            System.loadLibrary("yuv_converter");
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            Log.w(TAG, "Conversion YUV nativa no disponible: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static native boolean nativeConvert(
+            ByteBuffer yBuffer, int yRowStride,
+            ByteBuffer uBuffer, ByteBuffer vBuffer, int uvRowStride, int uvPixelStride,
+            int width, int height, int rotation,
+            int cropLeft, int cropTop, int cropWidth, int cropHeight,
+            ByteBuffer dstBuffer, int dstWidth, int dstHeight);
+}
@@ -0,0 +1,175 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BatchProcessor con workers sinteticos que tardan distinto segun el
+ * elemento, para que terminen desordenados.
+ */
+public class BatchProcessorTest {
+
+    private static final int WORKERS = 4;
+
+    private final AtomicInteger createdWorkers = new AtomicInteger();
+    private final AtomicInteger closedWorkers = new AtomicInteger();
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void resultsArriveInOrderWithProgress() throws Exception {
+        List<String> paths = paths(50);
+        BatchProcessor<String> processor = new BatchProcessor<>(this::createWorker, WORKERS);
+        processor.start(paths, listener);
+
+        assertTrue(processor.awaitFinished(5, TimeUnit.SECONDS));
+        assertEquals(paths, listener.results);
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(i, (int) listener.indexes.get(i));
+            assertEquals(i + 1, (int) listener.completed.get(i));
+        }
+        assertEquals(50, listener.finishedCompleted);
+        assertEquals(0, listener.finishedFailed);
+        assertEquals(false, listener.cancelled);
+        assertEquals(WORKERS, createdWorkers.get());
+        waitForClosedWorkers(WORKERS);
+    }
+
+    @Test
+    public void failedItemsAreReportedWithoutStoppingTheBatch() throws Exception {
+        List<String> paths = paths(10);
+        paths.set(3, "missing");
+        BatchProcessor<String> processor = new BatchProcessor<>(this::createWorker, WORKERS);
+        processor.start(paths, listener);
+
+        assertTrue(processor.awaitFinished(5, TimeUnit.SECONDS));
+        assertEquals(10, listener.indexes.size());
+        assertEquals(null, listener.results.get(3));
+        assertTrue(listener.errors.get(3) instanceof IOException);
+        assertEquals(1, listener.finishedFailed);
+    }
+
+    @Test
+    public void errorThrownByAWorkerFailsOnlyThatItem() throws Exception {
+        List<String> paths = paths(10);
+        paths.set(4, "huge");
+        BatchProcessor<String> processor = new BatchProcessor<>(this::createWorker, WORKERS);
+        processor.start(paths, listener);
+
+        assertTrue(processor.awaitFinished(5, TimeUnit.SECONDS));
+        assertEquals(10, listener.finishedCompleted);
+        assertEquals(1, listener.finishedFailed);
+        assertTrue(listener.errors.get(4).getCause() instanceof OutOfMemoryError);
+        assertEquals(paths.get(9), listener.results.get(9));
+    }
+
+    @Test
+    public void cancelDeliversInFlightItemsAndStops() throws Exception {
+        List<String> paths = paths(1000);
+        BatchProcessor<String> processor = new BatchProcessor<>(this::createWorker, WORKERS);
+        processor.start(paths, listener);
+        Thread.sleep(20);
+        processor.cancel();
+
+        assertTrue(processor.awaitFinished(5, TimeUnit.SECONDS));
+        assertTrue(listener.cancelled);
+        assertTrue(listener.indexes.size() < paths.size());
+        assertEquals(listener.indexes.size(), listener.finishedCompleted);
+        waitForClosedWorkers(WORKERS);
+    }
+
+    @Test
+    public void everyItemFailsWhenNoWorkerCanBeCreated() throws Exception {
+        BatchProcessor<String> processor = new BatchProcessor<>(() -> {
+            throw new IllegalStateException("sin modelo");
+        }, WORKERS);
+        processor.start(paths(6), listener);
+
+        assertTrue(processor.awaitFinished(5, TimeUnit.SECONDS));
+        assertEquals(6, listener.finishedFailed);
+        assertTrue(listener.errors.get(5) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void emptyBatchFinishesImmediately() throws Exception {
+        BatchProcessor<String> processor = new BatchProcessor<>(this::createWorker, WORKERS);
+        processor.start(new ArrayList<>(), listener);
+
+        assertTrue(processor.awaitFinished(0, TimeUnit.SECONDS));
+        assertEquals(0, createdWorkers.get());
+    }
+
+    private BatchProcessor.Worker<String> createWorker() {
+        createdWorkers.incrementAndGet();
+        return new BatchProcessor.Worker<String>() {
+            @Override
+            public String process(String path) throws Exception {
+                if ("missing".equals(path)) {
+                    throw new IOException("No existe " + path);
+                }
+                if ("huge".equals(path)) {
+                    throw new OutOfMemoryError("Failed to allocate");
+                }
+                // Tiempos distintos por elemento: los resultados terminan desordenados
+                Thread.sleep(path.hashCode() % 2 == 0 ? 3 : 1);
+                return path;
+            }
+
+            @Override
+            public void close() {
+                closedWorkers.incrementAndGet();
+            }
+        };
+    }
+
+    private void waitForClosedWorkers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (closedWorkers.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, closedWorkers.get());
+    }
+
+    private static List<String> paths(int count) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            paths.add("assets/images/" + i + ".png");
+        }
+        return paths;
+    }
+
+    /**
+     * Guarda lo que entrega el procesador (siempre de uno en uno)
+     */
+    private static final class RecordingListener implements BatchProcessor.Listener<String> {
+        final List<Integer> indexes = new ArrayList<>();
+        final List<String> results = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+        final List<Integer> completed = new ArrayList<>();
+        volatile int finishedCompleted = -1;
+        volatile int finishedFailed = -1;
+        volatile boolean cancelled;
+
+        @Override
+        public void onItem(int index, String path, String result, Exception error, int completedItems, int total) {
+            indexes.add(index);
+            results.add(result);
+            errors.add(error);
+            completed.add(completedItems);
+        }
+
+        @Override
+        public void onFinished(int completedItems, int failed, boolean wasCancelled) {
+            finishedCompleted = completedItems;
+            finishedFailed = failed;
+            cancelled = wasCancelled;
+        }
+    }
+}
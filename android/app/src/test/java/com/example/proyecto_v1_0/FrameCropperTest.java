@@ -0,0 +1,56 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * FrameCropper sobre un plano RGBA sintetico: MediaPipe exige que la
+ * capacidad del buffer sea la del recorte, tambien al reutilizarlo con
+ * recortes de distinto tamano.
+ */
+public class FrameCropperTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    private static final int ROW_STRIDE = WIDTH * RegionCopy.BYTES_PER_PIXEL + 16;
+
+    private final FrameCropper cropper = new FrameCropper();
+
+    @Test
+    public void bufferCapacityMatchesEachCrop() {
+        ByteBuffer plane = plane();
+        for (int side : new int[]{32, 16, 40, 16}) {
+            ByteBuffer crop = cropper.crop(plane, ROW_STRIDE, RegionCopy.BYTES_PER_PIXEL,
+                    WIDTH, HEIGHT, 0, 4, 2, side);
+
+            assertEquals(side * side * RegionCopy.BYTES_PER_PIXEL, crop.capacity());
+            assertEquals(crop.capacity(), crop.remaining());
+            assertEquals(0, crop.position());
+            assertTrue(crop.isDirect());
+        }
+    }
+
+    @Test
+    public void smallerCropKeepsItsOwnPixels() {
+        ByteBuffer plane = plane();
+        cropper.crop(plane, ROW_STRIDE, RegionCopy.BYTES_PER_PIXEL, WIDTH, HEIGHT, 0, 0, 0, 40);
+        ByteBuffer crop = cropper.crop(plane, ROW_STRIDE, RegionCopy.BYTES_PER_PIXEL,
+                WIDTH, HEIGHT, 0, 10, 5, 8);
+
+        // Primer byte del recorte: pixel (10, 5); ultimo: pixel (17, 12), canal 3
+        assertEquals(plane.get(5 * ROW_STRIDE + 10 * 4), crop.get(0));
+        assertEquals(plane.get(12 * ROW_STRIDE + 17 * 4 + 3), crop.get(crop.capacity() - 1));
+    }
+
+    private static ByteBuffer plane() {
+        ByteBuffer plane = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT);
+        for (int i = 0; i < plane.capacity(); i++) {
+            plane.put(i, (byte) (i * 31 + 7));
+        }
+        return plane;
+    }
+}
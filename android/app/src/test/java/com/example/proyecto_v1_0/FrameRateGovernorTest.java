@@ -0,0 +1,97 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * FrameRateGovernor frente a un detector simulado de latencia fija, con
+ * una camara a 30 fps y un solo frame en vuelo (descartando el entrante si
+ * el detector esta ocupado), como en el motor por defecto.
+ */
+public class FrameRateGovernorTest {
+
+    private static final long CAMERA_INTERVAL_NANOS = 33_333_333L;
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void slowDetectorSettlesNearItsSustainableRate() {
+        // 150 ms por frame: el detector sostiene ~6.7 fps
+        FrameRateGovernor governor = new FrameRateGovernor(5f, 30f, 100);
+        Simulation simulation = new Simulation(governor, 150_000_000L);
+        simulation.run(20 * SECOND);
+
+        float target = governor.getTargetFps();
+        assertTrue(target > 6f && target <= 6.7f);
+        assertEquals(150f, governor.getLatencyMs(), 1f);
+
+        // Asentado: casi ningun frame admitido se descarta
+        int droppedBefore = simulation.dropped;
+        simulation.run(10 * SECOND);
+        assertTrue(simulation.dropped - droppedBefore <= 1);
+        assertTrue(governor.getOutputFps() > 5.5f);
+    }
+
+    @Test
+    public void fastDetectorKeepsTheCameraRate() {
+        FrameRateGovernor governor = new FrameRateGovernor(5f, 30f, 100);
+        Simulation simulation = new Simulation(governor, 20_000_000L);
+        simulation.run(10 * SECOND);
+
+        assertEquals(30f, governor.getTargetFps(), 0f);
+        assertEquals(0, simulation.dropped);
+    }
+
+    @Test
+    public void decreaseIsAppliedAtMostOncePerLatencyPeriod() {
+        FrameRateGovernor governor = new FrameRateGovernor(5f, 30f, 100);
+        governor.onSubmitted(1, 0);
+        governor.onCompleted(1, 200_000_000L);
+
+        governor.onDropped(300_000_000L);
+        governor.onDropped(350_000_000L);
+        assertEquals(24f, governor.getTargetFps(), 1e-3f);
+
+        governor.onDropped(500_000_000L);
+        assertEquals(19.2f, governor.getTargetFps(), 1e-3f);
+    }
+
+    /**
+     * Camara, regulador y detector ocupado mientras procesa un frame
+     */
+    private static final class Simulation {
+        private final FrameRateGovernor governor;
+        private final long latencyNanos;
+        private long now;
+        private long busyUntil = -1;
+        private long pendingTimestamp;
+        int dropped;
+
+        Simulation(FrameRateGovernor governor, long latencyNanos) {
+            this.governor = governor;
+            this.latencyNanos = latencyNanos;
+        }
+
+        void run(long durationNanos) {
+            long end = now + durationNanos;
+            for (; now < end; now += CAMERA_INTERVAL_NANOS) {
+                if (busyUntil >= 0 && busyUntil <= now) {
+                    governor.onCompleted(pendingTimestamp, busyUntil);
+                    busyUntil = -1;
+                }
+                if (!governor.shouldProcess(now)) {
+                    continue;
+                }
+                if (busyUntil >= 0) {
+                    governor.onDropped(now);
+                    dropped++;
+                    continue;
+                }
+                pendingTimestamp = now / 1_000_000L;
+                governor.onSubmitted(pendingTimestamp, now);
+                busyUntil = now + latencyNanos;
+            }
+        }
+    }
+}
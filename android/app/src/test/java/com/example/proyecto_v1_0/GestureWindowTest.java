@@ -0,0 +1,70 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * GestureWindow en modo onChange: el movimiento se mide contra el ultimo
+ * frame emitido y una mano quieta se emite cada windowFrames frames.
+ */
+public class GestureWindowTest {
+
+    private final GestureWindow window = new GestureWindow();
+
+    @Test
+    public void stillHandIsEmittedOncePerWindow() {
+        window.configure(GestureWindow.MODE_ON_CHANGE, 0.01f, 3);
+        LandmarkFrame frame = hand(0f);
+
+        boolean[] emitted = new boolean[7];
+        for (int i = 0; i < emitted.length; i++) {
+            emitted[i] = window.offer(frame);
+        }
+
+        boolean[] expected = {true, false, false, true, false, false, true};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], emitted[i]);
+        }
+        assertEquals(4L, window.getSuppressedCount());
+    }
+
+    @Test
+    public void slowDriftAddsUpAgainstTheLastEmittedFrame() {
+        window.configure(GestureWindow.MODE_ON_CHANGE, 0.01f, 15);
+
+        assertTrue(window.offer(hand(0f)));
+        // 0.004 por frame: ningun paso supera el umbral, la suma si
+        assertFalse(window.offer(hand(0.004f)));
+        assertFalse(window.offer(hand(0.008f)));
+        assertTrue(window.offer(hand(0.012f)));
+        assertEquals(0.012f, window.getLastMotion(), 1e-5f);
+
+        // La referencia es ahora el frame 0.012
+        assertFalse(window.offer(hand(0.016f)));
+    }
+
+    @Test
+    public void losingTheHandIsEmitted() {
+        window.configure(GestureWindow.MODE_ON_CHANGE, 0.01f, 15);
+        assertTrue(window.offer(hand(0f)));
+
+        assertTrue(window.offer(new LandmarkFrame()));
+        assertEquals(-1f, window.getLastMotion(), 0f);
+    }
+
+    /**
+     * Una mano con todos los landmarks desplazados offset en x
+     */
+    private static LandmarkFrame hand(float offset) {
+        LandmarkFrame frame = new LandmarkFrame();
+        frame.handCount = 1;
+        for (int i = 0; i < LandmarkFrame.VALUES_PER_HAND; i += 3) {
+            frame.landmarks[i] = 0.3f + offset + i * 0.001f;
+            frame.landmarks[i + 1] = 0.5f;
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HandTrackingEngine con la fuente, el conversor y el detector sinteticos
+ * de FakeTracking. Salvo en el caso del pipeline, todo corre en el hilo de
+ * la prueba con un reloj manual, asi que el resultado es determinista.
+ */
+public class HandTrackingEngineTest {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 960;
+
+    // Separacion entre frames por encima del intervalo de 30 fps del regulador
+    private static final long FRAME_INTERVAL_NANOS = 40_000_000L;
+
+    private final FakeTracking.Source source = new FakeTracking.Source();
+    private final FakeTracking.Converter converter = new FakeTracking.Converter();
+    private final RecordingSink sink = new RecordingSink();
+    private final LandmarkFrame[] fixtures = LandmarkFixtures.load();
+
+    private long now = 1_000_000_000L;
+    private HandTrackingEngine<FakeTracking.Frame, FakeTracking.Frame> engine;
+    private FakeTracking.Detector<FakeTracking.Frame> detector;
+
+    @Before
+    public void setUp() {
+        engine = new HandTrackingEngine<>(converter, sink, () -> now);
+        engine.setPipelined(false);
+        detector = new FakeTracking.Detector<>(engine.getDetectorListener(), fixtures);
+        engine.setDetector(detector);
+        source.resultDelayNanos = 20_000_000L;
+    }
+
+    @After
+    public void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    public void eachFrameProducesOneEventWithItsCaptureTimestamp() {
+        engine.start(source);
+        List<FakeTracking.Frame> frames = pushFrames(5);
+
+        assertEquals(5, sink.maps.size());
+        assertEquals(5, sink.binary.size());
+        for (int i = 0; i < frames.size(); i++) {
+            long captureMs = frames.get(i).timestampNanos / 1_000_000L;
+            Map<String, Object> event = sink.maps.get(i);
+            assertEquals(captureMs, event.get("captureTimestamp"));
+            assertEquals(captureMs + 20, event.get("resultTimestamp"));
+            assertTrue(frames.get(i).closed);
+        }
+        assertEquals(5, detector.getTimestamps().size());
+    }
+
+    @Test
+    public void gestureIsSentBeforeTheLandmarksOfItsFrame() {
+        engine.setGestureTemplates(Arrays.asList("A"),
+                Arrays.asList(Arrays.copyOf(fixtures[0].landmarks, 63)), null);
+        sink.gestures = true;
+        engine.start(source);
+        List<FakeTracking.Frame> frames = pushFrames(2);
+
+        List<String> expected = new ArrayList<>();
+        for (FakeTracking.Frame frame : frames) {
+            long captureMs = frame.timestampNanos / 1_000_000L;
+            expected.add("gesture@" + captureMs);
+            expected.add("landmarks@" + captureMs);
+        }
+        assertEquals(expected, sink.order);
+    }
+
+    @Test
+    public void nothingIsSerializedWithoutListeners() {
+        sink.landmarks = false;
+        sink.binary = null;
+        engine.start(source);
+        pushFrames(3);
+
+        assertEquals(3, detector.getTimestamps().size());
+        assertTrue(sink.maps.isEmpty());
+    }
+
+    @Test
+    public void framesFasterThanTargetRateAreSkipped() {
+        engine.start(source);
+        FakeTracking.Frame first = frameAt(now);
+        source.push(first);
+        now += 1_000_000L;
+        FakeTracking.Frame second = frameAt(now);
+        source.push(second);
+
+        assertEquals(1, detector.getTimestamps().size());
+        assertTrue(second.closed);
+        assertEquals(1L, engine.getMetrics().get("framesSkipped"));
+    }
+
+    @Test
+    public void busyDetectorDropsIncomingFrames() {
+        detector.synchronous = false;
+        engine.start(source);
+
+        pushFrames(2);
+        assertEquals(1, detector.getTimestamps().size());
+        assertEquals(1L, engine.getFrameRate().get("droppedFrames"));
+        // El descarte indica que se admiten mas frames de los que da tiempo a procesar
+        assertTrue((double) engine.getFrameRate().get("targetFps") < 30.0);
+
+        detector.completePending();
+        assertEquals(1, sink.maps.size());
+
+        now += FRAME_INTERVAL_NANOS;
+        pushFrames(1);
+        assertEquals(2, detector.getTimestamps().size());
+    }
+
+    @Test
+    public void repeatedCaptureTimestampIsSentOnce() {
+        engine.start(source);
+        FakeTracking.Frame first = frameAt(now);
+        source.push(first);
+        now += FRAME_INTERVAL_NANOS;
+        FakeTracking.Frame repeated = frameAt(first.timestampNanos);
+        source.push(repeated);
+
+        assertEquals(Arrays.asList(first.timestampNanos / 1_000_000L), detector.getTimestamps());
+        assertTrue(repeated.closed);
+    }
+
+    @Test
+    public void croppedLandmarksAreMappedBackToTheFullFrame() {
+        engine.setRoiCropping(true);
+        engine.start(source);
+        pushFrames(2);
+
+        assertEquals(1, converter.croppedConversions);
+        assertEquals(2, sink.maps.size());
+
+        int left = converter.lastRegion[0];
+        int side = converter.lastRegion[2];
+        float expected = (left + fixtures[1].landmarks[0] * side) / (float) WIDTH;
+        assertEquals(expected, firstLandmarkX(sink.maps.get(1)), 1e-5);
+    }
+
+    @Test
+    public void croppedAndFullFramesAreMeasuredSeparately() {
+        engine.setRoiCropping(true);
+        engine.start(source);
+        pushFrames(3);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> roi = (Map<String, Object>) engine.getMetrics().get("roi");
+        assertEquals(true, roi.get("enabled"));
+        assertEquals(1L, roi.get("fullFrames"));
+        assertEquals(2L, roi.get("croppedFrames"));
+        assertEquals(0.0, (double) roi.get("croppedInferenceMs"), 1e-9);
+        assertEquals(0L, roi.get("croppedHandLosses"));
+    }
+
+    @Test
+    public void stopClosesTheDetectorAndResetsCounters() {
+        engine.start(source);
+        pushFrames(2);
+        engine.stop();
+
+        assertTrue(detector.closed);
+        assertEquals(0L, engine.getMetrics().get("framesArrived"));
+
+        FakeTracking.Frame late = frameAt(now);
+        source.push(late);
+        assertTrue(late.closed);
+        assertEquals(2, detector.getTimestamps().size());
+    }
+
+    @Test
+    public void pauseKeepsTheDetectorForTheNextStart() {
+        engine.start(source);
+        pushFrames(2);
+        engine.pause();
+
+        assertTrue(!detector.closed);
+        assertTrue(!engine.isRunning());
+        assertEquals(0L, engine.getMetrics().get("framesArrived"));
+
+        engine.start(source);
+        pushFrames(2);
+        assertEquals(4, detector.getTimestamps().size());
+        assertEquals(4, sink.maps.size());
+    }
+
+    @Test
+    public void resultsArrivingAfterPauseAreDropped() {
+        detector.synchronous = false;
+        engine.start(source);
+        pushFrames(1);
+        engine.pause();
+
+        detector.completePending();
+        assertTrue(sink.maps.isEmpty());
+
+        // El hueco del frame perdido queda libre para la siguiente sesion
+        engine.start(source);
+        pushFrames(1);
+        assertEquals(2, detector.getTimestamps().size());
+    }
+
+    @Test
+    public void pipelineDeliversEveryFrame() throws InterruptedException {
+        HandTrackingEngine<FakeTracking.Frame, FakeTracking.Frame> pipelined =
+                new HandTrackingEngine<>(converter, sink);
+        pipelined.setDetector(new FakeTracking.Detector<>(pipelined.getDetectorListener(), fixtures));
+        sink.expected = new CountDownLatch(5);
+        pipelined.start(source);
+
+        List<FakeTracking.Frame> frames = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                FakeTracking.Frame frame = frameAt(System.nanoTime());
+                frames.add(frame);
+                source.push(frame);
+                Thread.sleep(FRAME_INTERVAL_NANOS / 1_000_000L);
+            }
+
+            assertTrue(sink.expected.await(2, TimeUnit.SECONDS));
+            assertEquals(true, pipelined.getFrameRate().get("pipelined"));
+        } finally {
+            pipelined.stop();
+        }
+        assertTrue(pipelined.awaitPipelineStopped(1000));
+        for (FakeTracking.Frame frame : frames) {
+            assertTrue(frame.closed);
+        }
+        assertTrue(sink.errors.isEmpty());
+    }
+
+    @Test
+    public void pipelineStageSurvivesAnErrorAndReportsIt() throws InterruptedException {
+        HandTrackingEngine<FakeTracking.Frame, FakeTracking.Frame> pipelined =
+                new HandTrackingEngine<>(converter, sink);
+        pipelined.setDetector(new FakeTracking.Detector<>(pipelined.getDetectorListener(), fixtures));
+        sink.failNext = true;
+        sink.expected = new CountDownLatch(2);
+        pipelined.start(source);
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                source.push(frameAt(System.nanoTime()));
+                Thread.sleep(FRAME_INTERVAL_NANOS / 1_000_000L);
+            }
+            assertTrue(sink.expected.await(2, TimeUnit.SECONDS));
+        } finally {
+            pipelined.stop();
+        }
+        assertTrue(pipelined.awaitPipelineStopped(1000));
+        assertEquals(1, sink.errors.size());
+        assertTrue(sink.errors.get(0).contains("OutOfMemoryError"));
+    }
+
+    private List<FakeTracking.Frame> pushFrames(int count) {
+        List<FakeTracking.Frame> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            now += FRAME_INTERVAL_NANOS;
+            FakeTracking.Frame frame = frameAt(now);
+            frames.add(frame);
+            source.push(frame);
+        }
+        return frames;
+    }
+
+    private static FakeTracking.Frame frameAt(long timestampNanos) {
+        return new FakeTracking.Frame(WIDTH, HEIGHT, timestampNanos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static float firstLandmarkX(Map<String, Object> event) {
+        List<Map<String, Object>> hands = (List<Map<String, Object>>) event.get("hands");
+        List<Map<String, Float>> points = (List<Map<String, Float>>) hands.get(0).get("landmarks");
+        return points.get(0).get("x");
+    }
+
+    /**
+     * Guarda los eventos que el motor entrega
+     */
+    private static final class RecordingSink implements LandmarkSink {
+        final List<Map<String, Object>> maps = new ArrayList<>();
+        List<byte[]> binary = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        // Tipo y captureTimestamp de cada evento de mapa, en orden de llegada
+        final List<String> order = new ArrayList<>();
+        volatile boolean landmarks = true;
+        volatile boolean gestures;
+        volatile boolean failNext;
+        volatile CountDownLatch expected;
+
+        @Override
+        public boolean wantsLandmarks() {
+            return landmarks;
+        }
+
+        @Override
+        public boolean wantsBinary() {
+            return binary != null;
+        }
+
+        @Override
+        public boolean wantsGestures() {
+            return gestures;
+        }
+
+        @Override
+        public synchronized void onLandmarks(Map<String, Object> event) {
+            if (failNext) {
+                failNext = false;
+                throw new OutOfMemoryError("Failed to allocate");
+            }
+            maps.add(event);
+            order.add("landmarks@" + event.get("captureTimestamp"));
+            CountDownLatch latch = expected;
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+
+        @Override
+        public synchronized void onBinary(byte[] event) {
+            binary.add(event);
+        }
+
+        @Override
+        public synchronized void onGesture(Map<String, Object> event) {
+            order.add("gesture@" + event.get("captureTimestamp"));
+        }
+
+        @Override
+        public synchronized void onFrameError(String message) {
+            errors.add(message);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * InFlightLimiter con un reloj manual: huecos ligados a su frame y
+ * resultados tardios de frames dados por perdidos.
+ */
+public class InFlightLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void lateResultOfExpiredFrameDoesNotFreeALiveSlot() {
+        InFlightLimiter limiter = new InFlightLimiter(1, InFlightLimiter.POLICY_EXPIRE_STALE, 100);
+        assertTrue(limiter.tryAcquire(0));
+        limiter.submitted(10);
+
+        // El frame 10 no vuelve a tiempo: se da por perdido y entra el 20
+        assertTrue(limiter.tryAcquire(150 * MS));
+        limiter.submitted(20);
+        assertEquals(1L, limiter.getExpiredFrames());
+
+        // Llega tarde el resultado del 10: el 20 sigue dentro
+        limiter.release(10);
+        assertEquals(1, limiter.getInFlight());
+        assertFalse(limiter.tryAcquire(160 * MS));
+
+        limiter.release(20);
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire(170 * MS));
+    }
+
+    @Test
+    public void boundHoldsWithSeveralFramesInFlight() {
+        InFlightLimiter limiter = new InFlightLimiter(2, InFlightLimiter.POLICY_EXPIRE_STALE, 100);
+        assertTrue(limiter.tryAcquire(0));
+        limiter.submitted(10);
+        assertTrue(limiter.tryAcquire(60 * MS));
+        limiter.submitted(15);
+
+        assertTrue(limiter.tryAcquire(150 * MS));
+        limiter.submitted(20);
+        limiter.release(10);
+        assertEquals(2, limiter.getInFlight());
+        assertFalse(limiter.tryAcquire(155 * MS));
+
+        // Los resultados pueden llegar en cualquier orden
+        limiter.release(20);
+        limiter.release(15);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void cancelReturnsTheSlotOfTheUnsentFrame() {
+        InFlightLimiter limiter = new InFlightLimiter(1, InFlightLimiter.POLICY_DROP_INCOMING, 100);
+        assertTrue(limiter.tryAcquire(0));
+        limiter.cancel();
+        assertEquals(0, limiter.getInFlight());
+
+        assertTrue(limiter.tryAcquire(MS));
+        limiter.submitted(30);
+        assertFalse(limiter.tryAcquire(2 * MS));
+        assertEquals(1L, limiter.getDroppedFrames());
+    }
+
+    @Test
+    public void lostFrameIsExpiredWhenTheRingWrapsAround() {
+        InFlightLimiter limiter = new InFlightLimiter(2, InFlightLimiter.POLICY_DROP_INCOMING, 100);
+        assertTrue(limiter.tryAcquire(0));
+        limiter.submitted(1);
+
+        // El frame 1 no vuelve nunca, los siguientes si
+        for (int i = 2; i < 2 + InFlightLimiter.MAX_CAPACITY; i++) {
+            assertTrue(limiter.tryAcquire(i * MS));
+            limiter.submitted(i);
+            limiter.release(i);
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1L, limiter.getExpiredFrames());
+    }
+}
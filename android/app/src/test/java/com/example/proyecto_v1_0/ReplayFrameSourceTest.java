@@ -0,0 +1,180 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplayFrameSource sobre un fichero generado con FakeTracking.writeFrames:
+ * layout de los frames (padding y rotacion), espera cuando el pool esta
+ * ocupado, ritmo de reproduccion y el motor completo sin camara.
+ */
+public class ReplayFrameSourceTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    private static final int ROW_PADDING = 16;
+    private static final int ROTATION = 90;
+
+    private File file;
+    private ReplayFrameSource source;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("frames", ".rgba");
+    }
+
+    @After
+    public void tearDown() {
+        if (source != null) {
+            source.stop();
+        }
+        file.delete();
+    }
+
+    @Test
+    public void framesKeepStrideRotationAndContent() throws Exception {
+        FakeTracking.writeFrames(file, WIDTH, HEIGHT, ROW_PADDING, ROTATION, 3, 0);
+        source = new ReplayFrameSource(RgbaFrameFile.open(file));
+        List<ReplayFrameSource.Frame> frames = new ArrayList<>();
+        List<Integer> frameNumbers = new ArrayList<>();
+        int rowBytes = WIDTH * RegionCopy.BYTES_PER_PIXEL;
+        source.start(frame -> {
+            ByteBuffer buffer = frame.buffer;
+            assertEquals(rowBytes + ROW_PADDING, frame.rowStride);
+            assertEquals(frame.rowStride * HEIGHT, buffer.remaining());
+            assertEquals(ROTATION, frame.rotationDegrees);
+            assertTrue(buffer.isDirect());
+
+            // Ultimo pixel de la ultima fila y padding a cero
+            int lastRow = (HEIGHT - 1) * frame.rowStride;
+            assertEquals(FakeTracking.pixelByte(frame.frameNumber, HEIGHT * rowBytes - 1),
+                    buffer.get(lastRow + rowBytes - 1));
+            assertEquals(0, buffer.get(lastRow + rowBytes));
+
+            frameNumbers.add(frame.frameNumber);
+            frames.add(frame);
+            frame.close();
+        });
+
+        assertTrue(source.awaitFinished(2, TimeUnit.SECONDS));
+        assertEquals(3, source.getDeliveredFrames());
+        assertEquals(0, (int) frameNumbers.get(0));
+        assertEquals(2, (int) frameNumbers.get(2));
+        assertTrue(frames.get(0).timestampNanos < frames.get(1).timestampNanos);
+    }
+
+    @Test
+    public void waitsForAFreeFrameInsteadOfDropping() throws Exception {
+        FakeTracking.writeFrames(file, WIDTH, HEIGHT, 0, 0, ReplayFrameSource.POOL_SIZE + 2, 0);
+        source = new ReplayFrameSource(RgbaFrameFile.open(file));
+        List<ReplayFrameSource.Frame> held = new ArrayList<>();
+        source.start(frame -> {
+            synchronized (held) {
+                held.add(frame);
+            }
+        });
+
+        Thread.sleep(100);
+        assertEquals(ReplayFrameSource.POOL_SIZE, source.getDeliveredFrames());
+        assertTrue(!source.awaitFinished(0, TimeUnit.MILLISECONDS));
+
+        synchronized (held) {
+            held.get(0).close();
+            held.get(1).close();
+        }
+        assertTrue(source.awaitFinished(2, TimeUnit.SECONDS));
+        assertEquals(ReplayFrameSource.POOL_SIZE + 2, source.getDeliveredFrames());
+    }
+
+    @Test
+    public void framesAreDeliveredAtTheRequestedRate() throws Exception {
+        FakeTracking.writeFrames(file, WIDTH, HEIGHT, 0, 0, 6, 0);
+        source = new ReplayFrameSource(RgbaFrameFile.open(file));
+        source.setFrameRate(100);
+        long start = System.nanoTime();
+        source.start(ReplayFrameSource.Frame::close);
+
+        assertTrue(source.awaitFinished(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= 5 * 10_000_000L);
+    }
+
+    @Test
+    public void engineProcessesEveryReplayedFrame() throws Exception {
+        FakeTracking.writeFrames(file, 640, 480, 64, ROTATION, 5, 40_000_000L);
+        source = new ReplayFrameSource(RgbaFrameFile.open(file));
+        AtomicInteger events = new AtomicInteger();
+        HandTrackingEngine<ReplayFrameSource.Frame, ReplayFrameSource.Frame> engine =
+                new HandTrackingEngine<>(new FakeTracking.ReplayConverter(), new CountingSink(events));
+        engine.setPipelined(false);
+        engine.setRoiCropping(true);
+        FakeTracking.Detector<ReplayFrameSource.Frame> detector =
+                new FakeTracking.Detector<>(engine.getDetectorListener(), LandmarkFixtures.load());
+        engine.setDetector(detector);
+
+        try {
+            engine.start(source);
+            assertTrue(source.awaitFinished(2, TimeUnit.SECONDS));
+        } finally {
+            engine.stop();
+        }
+        assertEquals(5, detector.getTimestamps().size());
+        assertEquals(5, events.get());
+    }
+
+    /**
+     * Cuenta los eventos de landmarks
+     */
+    private static final class CountingSink implements LandmarkSink {
+        private final AtomicInteger events;
+
+        CountingSink(AtomicInteger events) {
+            this.events = events;
+        }
+
+        @Override
+        public boolean wantsLandmarks() {
+            return true;
+        }
+
+        @Override
+        public boolean wantsBinary() {
+            return false;
+        }
+
+        @Override
+        public boolean wantsGestures() {
+            return false;
+        }
+
+        @Override
+        public void onLandmarks(Map<String, Object> event) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onBinary(byte[] event) {
+        }
+
+        @Override
+        public void onGesture(Map<String, Object> event) {
+        }
+
+        @Override
+        public void onFrameError(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.proyecto_v1_0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * Graba los frames de fixtures/landmarks.csv y los reconstruye leyendo el
+ * fichero como lo haria una herramienta externa: cabecera y registros con
+ * diferencias acumuladas.
+ */
+public class SessionRecorderTest {
+
+    private static final long BASE_TIMESTAMP_MS = 1_700_000_000_000L;
+    private static final int FRAME_INTERVAL_MS = 33;
+
+    private final LandmarkFrame[] fixtures = LandmarkFixtures.load();
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("session", ".hlr");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void recordedFramesDecodeWithinQuantizationStep() throws IOException {
+        SessionRecorder recorder = SessionRecorder.open(file);
+        for (int i = 0; i < fixtures.length; i++) {
+            LandmarkFrame frame = fixtures[i];
+            frame.fields = LandmarkFrame.FIELDS_ALL;
+            frame.captureTimestamp = BASE_TIMESTAMP_MS + (long) i * FRAME_INTERVAL_MS;
+            // El anillo es pequeno: recordBlocking espera al hilo de escritura si se llena
+            assertTrue(recorder.recordBlocking(frame));
+        }
+        recorder.close();
+
+        assertEquals(fixtures.length, recorder.getRecordCount());
+        assertEquals(SessionRecorder.HEADER_BYTES + (long) fixtures.length * SessionRecorder.RECORD_BYTES,
+                file.length());
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(SessionRecorder.MAGIC, buffer.getInt());
+        assertEquals(SessionRecorder.VERSION, buffer.getShort());
+        assertEquals(SessionRecorder.RECORD_BYTES, buffer.getShort());
+        long timestamp = buffer.getLong();
+        assertEquals(fixtures.length, buffer.getInt());
+        float landmarkScale = buffer.getFloat();
+        float worldScale = buffer.getFloat();
+        assertEquals(LandmarkFrame.MAX_HANDS, buffer.get());
+        assertEquals(LandmarkFrame.LANDMARKS_PER_HAND, buffer.get());
+        buffer.getShort();
+
+        int values = LandmarkFrame.MAX_HANDS * LandmarkFrame.VALUES_PER_HAND;
+        int[] landmarks = new int[values];
+        int[] world = new int[values];
+        for (int i = 0; i < fixtures.length; i++) {
+            LandmarkFrame expected = fixtures[i];
+            timestamp += buffer.getInt();
+            assertEquals(expected.captureTimestamp, timestamp);
+
+            int hands = buffer.get();
+            assertEquals(expected.handCount, hands);
+            assertEquals(LandmarkFrame.FIELDS_ALL, buffer.get());
+            for (int h = 0; h < LandmarkFrame.MAX_HANDS; h++) {
+                int handedness = buffer.get();
+                assertEquals(h < hands ? expected.handedness[h] : LandmarkFrame.HANDEDNESS_UNKNOWN, handedness);
+            }
+            for (int h = 0; h < LandmarkFrame.MAX_HANDS; h++) {
+                float score = (buffer.getShort() & 0xFFFF) / 65535f;
+                if (h < hands) {
+                    assertEquals(expected.handednessScore[h], score, 1.0 / 65535);
+                }
+            }
+
+            for (int v = 0; v < values; v++) {
+                landmarks[v] += buffer.getShort();
+            }
+            for (int v = 0; v < values; v++) {
+                world[v] += buffer.getShort();
+            }
+            for (int v = 0; v < hands * LandmarkFrame.VALUES_PER_HAND; v++) {
+                assertEquals(expected.landmarks[v], landmarks[v] / landmarkScale, 1.0 / landmarkScale);
+                assertEquals(expected.worldLandmarks[v], world[v] / worldScale, 1.0 / worldScale);
+            }
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void recordAfterCloseIsDropped() throws IOException {
+        SessionRecorder recorder = SessionRecorder.open(file);
+        recorder.close();
+
+        assertFalse(recorder.record(fixtures[0]));
+        assertFalse(recorder.recordBlocking(fixtures[0]));
+        assertEquals(1L, recorder.getDroppedCount());
+        assertEquals(SessionRecorder.HEADER_BYTES, file.length());
+    }
+}
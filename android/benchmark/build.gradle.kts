@@ -0,0 +1,69 @@
+// Microbenchmarks JMH en la JVM para las piezas en Java puro del pipeline
+// de frames (recorte con stride, empaquetado de landmarks, suavizado) y
+// para HandTrackingEngine completo con la fuente y el detector sinteticos.
+// Se compilan directamente las fuentes de :app que no dependen de Android.
+//
+//   ./gradlew :benchmark:jmh
+//
+// Los resultados quedan en build/benchmark/results/jmh/results.json (en la
+// raiz del proyecto Flutter, ver el buildDirectory de android/build.gradle.kts).
+// Las piezas que necesitan Android (rotacion con Canvas, conversion YUV
+// nativa, codec de Flutter) estan en app/src/androidTest.
+plugins {
+    `java-library`
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// Fuentes de la app sin dependencias de Android/CameraX/MediaPipe
+val pureSources = listOf(
+    "ExactDirectBuffer.java",
+    "FrameConverter.java",
+    "FrameRateGovernor.java",
+    "FrameSource.java",
+    "FrameStage.java",
+    "GestureClassifier.java",
+    "GestureWindow.java",
+    "HandDetector.java",
+    "HandRoiTracker.java",
+    "HandTrackingEngine.java",
+    "InFlightLimiter.java",
+    "LandmarkFrame.java",
+    "LandmarkPacker.java",
+    "LandmarkSink.java",
+    "LandmarkSmoother.java",
+    "LatencyHistogram.java",
+    "PipelineMetrics.java",
+    "PreparedFrame.java",
+    "RegionCopy.java",
+    "ReplayFrameSource.java",
+    "RgbaFrameFile.java",
+    "SessionRecorder.java",
+)
+
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            setIncludes(pureSources.map { "com/example/proyecto_v1_0/$it" })
+        }
+    }
+    // Fixtures compartidos con los benchmarks de dispositivo de :app
+    named("jmh") {
+        java.srcDir("src/fixtures/java")
+        resources.srcDir("src/fixtures/resources")
+    }
+}
+
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    timeUnit.set("us")
+    benchmarkMode.set(listOf("avgt"))
+    resultFormat.set("JSON")
+}
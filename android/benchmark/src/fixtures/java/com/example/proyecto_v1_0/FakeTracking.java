@@ -0,0 +1,299 @@
+package com.example.proyecto_v1_0;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Piezas sinteticas para ejecutar HandTrackingEngine sin camara ni
+ * MediaPipe: frames con tamano y timestamp, una fuente que los entrega a
+ * mano, un conversor que no copia nada y un detector que devuelve los
+ * landmarks de fixtures/landmarks.csv. Para ReplayFrameSource, un fichero de
+ * frames RGBA generado y un conversor que recorta la region como
+ * FrameCropper.
+ */
+final class FakeTracking {
+
+    private FakeTracking() {
+    }
+
+    /**
+     * Frame ya rotado de width x height capturado en timestampNanos
+     */
+    static final class Frame {
+        final int width;
+        final int height;
+        final long timestampNanos;
+        volatile boolean closed;
+
+        Frame(int width, int height, long timestampNanos) {
+            this.width = width;
+            this.height = height;
+            this.timestampNanos = timestampNanos;
+        }
+    }
+
+    /**
+     * Fuente que entrega los frames que se le pasan a push(), en el hilo que
+     * llama. El resultado llega resultDelayNanos despues de la captura.
+     */
+    static final class Source implements FrameSource<Frame> {
+        private volatile Callback<Frame> callback;
+        volatile long resultDelayNanos;
+
+        @Override
+        public void start(Callback<Frame> frameCallback) {
+            callback = frameCallback;
+        }
+
+        @Override
+        public void stop() {
+            callback = null;
+        }
+
+        @Override
+        public long nowNanos(long captureNanos) {
+            return captureNanos + resultDelayNanos;
+        }
+
+        void push(Frame frame) {
+            Callback<Frame> current = callback;
+            if (current != null) {
+                current.onFrame(frame);
+            } else {
+                frame.closed = true;
+            }
+        }
+    }
+
+    /**
+     * Conversor que pasa el propio frame como entrada del detector y apunta
+     * la ultima region recortada
+     */
+    static final class Converter implements FrameConverter<Frame, Frame> {
+        final int[] lastRegion = new int[3];
+        volatile int croppedConversions;
+
+        @Override
+        public int width(Frame frame) {
+            return frame.width;
+        }
+
+        @Override
+        public int height(Frame frame) {
+            return frame.height;
+        }
+
+        @Override
+        public long timestampNanos(Frame frame) {
+            return frame.timestampNanos;
+        }
+
+        @Override
+        public void close(Frame frame) {
+            frame.closed = true;
+        }
+
+        @Override
+        public synchronized boolean convert(Frame frame, PreparedFrame<Frame, Frame> out) {
+            if (out.cropped) {
+                System.arraycopy(out.region, 0, lastRegion, 0, 3);
+                croppedConversions++;
+            }
+            out.input = frame;
+            return false;
+        }
+
+        @Override
+        public void onResult(long captureTimestampMs) {
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    /**
+     * Escribe un RgbaFrameFile de count frames de width x height (orientacion
+     * del sensor) con un degradado que cambia en cada frame
+     */
+    static File writeFrames(File file, int width, int height, int rowPadding, int rotationDegrees,
+                            int count, long frameIntervalNanos) throws IOException {
+        ByteBuffer rgba = ByteBuffer.allocate(width * height * RegionCopy.BYTES_PER_PIXEL);
+        try (RgbaFrameFile.Writer writer = RgbaFrameFile.create(file, width, height, rowPadding,
+                rotationDegrees, frameIntervalNanos)) {
+            for (int frame = 0; frame < count; frame++) {
+                for (int i = 0; i < rgba.capacity(); i++) {
+                    rgba.put(i, pixelByte(frame, i));
+                }
+                writer.write(rgba);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Byte i (sin padding) del frame generado por writeFrames
+     */
+    static byte pixelByte(int frame, int index) {
+        return (byte) (index * 31 + frame * 7);
+    }
+
+    /**
+     * Conversor de ReplayFrameSource: recorta la region de la mano con
+     * RegionCopy a un buffer de capacidad exacta (el camino de FrameCropper)
+     * y pasa el frame como entrada
+     */
+    static final class ReplayConverter implements FrameConverter<ReplayFrameSource.Frame, ReplayFrameSource.Frame> {
+        private final ExactDirectBuffer[] crops = new ExactDirectBuffer[HandTrackingEngine.PIPELINE_FRAMES];
+
+        ReplayConverter() {
+            for (int i = 0; i < crops.length; i++) {
+                crops[i] = new ExactDirectBuffer();
+            }
+        }
+
+        @Override
+        public int width(ReplayFrameSource.Frame frame) {
+            return isRotated(frame) ? frame.height : frame.width;
+        }
+
+        @Override
+        public int height(ReplayFrameSource.Frame frame) {
+            return isRotated(frame) ? frame.width : frame.height;
+        }
+
+        @Override
+        public long timestampNanos(ReplayFrameSource.Frame frame) {
+            return frame.timestampNanos;
+        }
+
+        @Override
+        public void close(ReplayFrameSource.Frame frame) {
+            frame.close();
+        }
+
+        @Override
+        public boolean convert(ReplayFrameSource.Frame frame,
+                               PreparedFrame<ReplayFrameSource.Frame, ReplayFrameSource.Frame> out) {
+            if (out.cropped) {
+                int side = out.region[2];
+                int maxSide = Math.max(side, Math.min(frame.width, frame.height));
+                ByteBuffer crop = crops[out.index].get(
+                        side * side * RegionCopy.BYTES_PER_PIXEL,
+                        maxSide * maxSide * RegionCopy.BYTES_PER_PIXEL);
+                RegionCopy.copy(frame.buffer, frame.rowStride, frame.pixelStride, frame.width, frame.height,
+                        frame.rotationDegrees, out.region[0], out.region[1], side, crop);
+            }
+            out.input = frame;
+            return false;
+        }
+
+        @Override
+        public void onResult(long captureTimestampMs) {
+        }
+
+        @Override
+        public void release() {
+        }
+
+        private static boolean isRotated(ReplayFrameSource.Frame frame) {
+            return frame.rotationDegrees == 90 || frame.rotationDegrees == 270;
+        }
+    }
+
+    /**
+     * Detector que responde con los frames de landmarks en orden ciclico.
+     * Sincrono por defecto (el resultado llega dentro de detectAsync); con
+     * synchronous a false los resultados esperan a completePending().
+     */
+    static final class Detector<I> implements HandDetector<I> {
+        private final HandDetector.Listener listener;
+        private final LandmarkFrame[] results;
+        private final List<FixtureResult> pending = new ArrayList<>();
+        private final List<Long> timestamps = new ArrayList<>();
+        private int next;
+        volatile boolean synchronous = true;
+        volatile boolean closed;
+
+        Detector(HandDetector.Listener listener, LandmarkFrame[] results) {
+            this.listener = listener;
+            this.results = results;
+        }
+
+        @Override
+        public void detectAsync(I input, long timestampMs) {
+            FixtureResult result;
+            synchronized (this) {
+                timestamps.add(timestampMs);
+                result = new FixtureResult(timestampMs, results[next]);
+                next = (next + 1) % results.length;
+                if (!synchronous) {
+                    pending.add(result);
+                    return;
+                }
+            }
+            listener.onResult(result);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        /**
+         * Entrega los resultados retenidos
+         */
+        void completePending() {
+            List<FixtureResult> ready;
+            synchronized (this) {
+                ready = new ArrayList<>(pending);
+                pending.clear();
+            }
+            for (FixtureResult result : ready) {
+                listener.onResult(result);
+            }
+        }
+
+        /**
+         * Timestamps recibidos en detectAsync
+         */
+        synchronized List<Long> getTimestamps() {
+            return new ArrayList<>(timestamps);
+        }
+    }
+
+    /**
+     * Resultado con los landmarks de un LandmarkFrame de fixtures
+     */
+    static final class FixtureResult implements HandDetector.Result {
+        private final long timestampMs;
+        private final LandmarkFrame source;
+
+        FixtureResult(long timestampMs, LandmarkFrame source) {
+            this.timestampMs = timestampMs;
+            this.source = source;
+        }
+
+        @Override
+        public long timestampMs() {
+            return timestampMs;
+        }
+
+        @Override
+        public void copyTo(LandmarkFrame frame, int maxHands, int fields) {
+            int hands = Math.min(source.handCount, maxHands);
+            int values = hands * LandmarkFrame.VALUES_PER_HAND;
+            frame.handCount = hands;
+            frame.fields = fields;
+            System.arraycopy(source.landmarks, 0, frame.landmarks, 0, values);
+            if (frame.has(LandmarkFrame.FIELD_WORLD_LANDMARKS)) {
+                System.arraycopy(source.worldLandmarks, 0, frame.worldLandmarks, 0, values);
+            }
+            System.arraycopy(source.handedness, 0, frame.handedness, 0, hands);
+            System.arraycopy(source.handednessScore, 0, frame.handednessScore, 0, hands);
+        }
+    }
+}
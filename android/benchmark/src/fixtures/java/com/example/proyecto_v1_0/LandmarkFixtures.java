@@ -0,0 +1,66 @@
+package com.example.proyecto_v1_0;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carga la secuencia de landmarks de fixtures/landmarks.csv como LandmarkFrame.
+ *
+ * Cada linea es una mano: frame, handedness, score, 63 valores normalizados
+ * y 63 world landmarks. Las lineas del mismo frame se agrupan en un
+ * LandmarkFrame.
+ */
+final class LandmarkFixtures {
+
+    private static final String PATH = "/fixtures/landmarks.csv";
+
+    private LandmarkFixtures() {
+    }
+
+    static LandmarkFrame[] load() {
+        List<LandmarkFrame> frames = new ArrayList<>();
+        int currentIndex = -1;
+        LandmarkFrame current = null;
+
+        try (InputStream input = LandmarkFixtures.class.getResourceAsStream(PATH)) {
+            if (input == null) {
+                throw new IllegalStateException("No se encuentra " + PATH);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] parts = line.split(",");
+                int index = Integer.parseInt(parts[0]);
+                if (index != currentIndex) {
+                    current = new LandmarkFrame();
+                    current.timestamp = index * 33L;
+                    current.captureTimestamp = index * 33L;
+                    current.resultTimestamp = index * 33L + 20;
+                    frames.add(current);
+                    currentIndex = index;
+                }
+
+                int hand = current.handCount++;
+                int offset = hand * LandmarkFrame.VALUES_PER_HAND;
+                current.handedness[hand] = LandmarkFrame.handednessCode(parts[1]);
+                current.handednessScore[hand] = Float.parseFloat(parts[2]);
+                for (int i = 0; i < LandmarkFrame.VALUES_PER_HAND; i++) {
+                    current.landmarks[offset + i] = Float.parseFloat(parts[3 + i]);
+                    current.worldLandmarks[offset + i] =
+                            Float.parseFloat(parts[3 + LandmarkFrame.VALUES_PER_HAND + i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error leyendo " + PATH, e);
+        }
+
+        return frames.toArray(new LandmarkFrame[0]);
+    }
+}
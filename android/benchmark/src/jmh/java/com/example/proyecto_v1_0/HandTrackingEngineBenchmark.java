@@ -0,0 +1,101 @@
+package com.example.proyecto_v1_0;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+
+/**
+ * Coste por frame del motor sin camara ni MediaPipe: regulador de fps,
+ * limite en vuelo, region de la mano, suavizado, filtro de eventos y
+ * serializacion de un resultado, con el detector sintetico de FakeTracking
+ * respondiendo en el mismo hilo (motor sin pipeline). El reloj avanza un
+ * frame de 30 fps por llamada, asi que el regulador no salta ninguno.
+ */
+@State(Scope.Thread)
+public class HandTrackingEngineBenchmark {
+
+    private static final long FRAME_INTERVAL_NANOS = 34_000_000L;
+
+    @Param({"map", "binary"})
+    public String output;
+
+    @Param({"false", "true"})
+    public boolean roiCropping;
+
+    private final FakeTracking.Source source = new FakeTracking.Source();
+    private HandTrackingEngine<FakeTracking.Frame, FakeTracking.Frame> engine;
+    private BlackholeSink sink;
+    private long now;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        sink = new BlackholeSink(blackhole, "map".equals(output));
+        engine = new HandTrackingEngine<>(new FakeTracking.Converter(), sink, () -> now);
+        engine.setPipelined(false);
+        engine.setRoiCropping(roiCropping);
+        engine.setSmoothing(LandmarkSmoother.MODE_ONE_EURO, 1f, 0.007f, 0f, 0f);
+        engine.setDetector(new FakeTracking.Detector<>(engine.getDetectorListener(), LandmarkFixtures.load()));
+        engine.start(source);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.stop();
+    }
+
+    @Benchmark
+    public void frame() {
+        now += FRAME_INTERVAL_NANOS;
+        source.push(new FakeTracking.Frame(640, 480, now));
+    }
+
+    private static final class BlackholeSink implements LandmarkSink {
+        private final Blackhole blackhole;
+        private final boolean maps;
+
+        BlackholeSink(Blackhole blackhole, boolean maps) {
+            this.blackhole = blackhole;
+            this.maps = maps;
+        }
+
+        @Override
+        public boolean wantsLandmarks() {
+            return maps;
+        }
+
+        @Override
+        public boolean wantsBinary() {
+            return !maps;
+        }
+
+        @Override
+        public boolean wantsGestures() {
+            return false;
+        }
+
+        @Override
+        public void onLandmarks(Map<String, Object> event) {
+            blackhole.consume(event);
+        }
+
+        @Override
+        public void onBinary(byte[] event) {
+            blackhole.consume(event);
+        }
+
+        @Override
+        public void onGesture(Map<String, Object> event) {
+        }
+
+        @Override
+        public void onFrameError(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
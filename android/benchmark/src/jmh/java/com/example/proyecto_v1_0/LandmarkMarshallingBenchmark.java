@@ -0,0 +1,77 @@
+package com.example.proyecto_v1_0;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Trabajo por resultado de la serializacion del motor sobre la secuencia de
+ * fixtures/landmarks.csv: suavizado y construccion del payload para
+ * Flutter, como Maps anidados (canal de Maps) o como byte[] (canal binario).
+ * La codificacion posterior con el codec de Flutter se mide en el
+ * dispositivo (FrameProcessingBenchmark).
+ */
+@State(Scope.Thread)
+public class LandmarkMarshallingBenchmark {
+
+    @Param({"1", "2"})
+    public int hands;
+
+    @Param({"true", "false"})
+    public boolean worldLandmarks;
+
+    private LandmarkFrame[] frames;
+    private final LandmarkSmoother smoother = new LandmarkSmoother();
+    private int next;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        LandmarkFrame[] all = LandmarkFixtures.load();
+        int count = 0;
+        for (LandmarkFrame frame : all) {
+            if (frame.handCount == hands) count++;
+        }
+
+        frames = new LandmarkFrame[count];
+        int i = 0;
+        for (LandmarkFrame frame : all) {
+            if (frame.handCount != hands) continue;
+            frame.fields = worldLandmarks
+                    ? LandmarkFrame.FIELDS_ALL
+                    : LandmarkFrame.FIELD_HANDEDNESS;
+            frames[i++] = frame;
+        }
+
+        smoother.configure(LandmarkSmoother.MODE_ONE_EURO, 1f, 0.007f, 0f, 0f);
+    }
+
+    private LandmarkFrame nextFrame() {
+        LandmarkFrame frame = frames[next];
+        next = (next + 1) % frames.length;
+        return frame;
+    }
+
+    @Benchmark
+    public Map<String, Object> toMap() {
+        return LandmarkPacker.toMap(nextFrame());
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return LandmarkPacker.pack(nextFrame());
+    }
+
+    @Benchmark
+    public LandmarkFrame smoothOneEuro() {
+        // Timestamp creciente aunque la secuencia de fixtures vuelva a empezar
+        timestamp += 33;
+        LandmarkFrame frame = nextFrame();
+        smoother.apply(frame, timestamp);
+        return frame;
+    }
+}
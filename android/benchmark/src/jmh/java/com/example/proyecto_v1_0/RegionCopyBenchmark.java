@@ -0,0 +1,66 @@
+package com.example.proyecto_v1_0;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Recorte por filas de la region de la mano (RegionCopy, el camino de
+ * FrameCropper) sobre un plano RGBA de 640x480 como el que entrega CameraX,
+ * con y sin padding de fila y para cada rotacion.
+ */
+@State(Scope.Thread)
+public class RegionCopyBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    // Padding tipico de fila en los ImageReader de CameraX
+    private static final int ROW_PADDING = 64;
+
+    @Param({"0", "90", "180", "270"})
+    public int rotation;
+
+    @Param({"128", "256"})
+    public int side;
+
+    @Param({"false", "true"})
+    public boolean padded;
+
+    private ByteBuffer plane;
+    private ByteBuffer target;
+    private int rowStride;
+    private int left;
+    private int top;
+
+    @Setup
+    public void setUp() {
+        rowStride = WIDTH * RegionCopy.BYTES_PER_PIXEL + (padded ? ROW_PADDING : 0);
+        plane = ByteBuffer.allocateDirect(rowStride * HEIGHT).order(ByteOrder.nativeOrder());
+        // Frame sintetico con un degradado: el contenido no cambia el coste de la copia
+        for (int i = 0; i < plane.capacity(); i++) {
+            plane.put(i, (byte) (i * 31));
+        }
+        target = ByteBuffer.allocateDirect(side * side * RegionCopy.BYTES_PER_PIXEL)
+                .order(ByteOrder.nativeOrder());
+
+        // Region centrada en el frame rotado
+        boolean swap = rotation == 90 || rotation == 270;
+        int rotatedWidth = swap ? HEIGHT : WIDTH;
+        int rotatedHeight = swap ? WIDTH : HEIGHT;
+        left = (rotatedWidth - side) / 2;
+        top = (rotatedHeight - side) / 2;
+    }
+
+    @Benchmark
+    public ByteBuffer copyRegion() {
+        target.clear();
+        RegionCopy.copy(plane, rowStride, RegionCopy.BYTES_PER_PIXEL, WIDTH, HEIGHT, rotation,
+                left, top, side, target);
+        return target;
+    }
+}
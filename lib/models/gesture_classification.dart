@@ -0,0 +1,76 @@
+import 'hand_detection_result.dart';
+
+/// Gesto clasificado en el dispositivo (canal hand_gesture_stream).
+class GestureClassification {
+  final String label;
+
+  /// 1 cuando la mano coincide con la plantilla, 0 a partir de la distancia
+  /// maxima configurada.
+  final double confidence;
+
+  /// Cuanto mas cerca esta la mejor plantilla que la mejor de otra etiqueta
+  /// (0 = empate, 1 = no hay otra etiqueta cerca).
+  final double margin;
+
+  /// Confianza o margen por debajo del minimo: conviene consultar la API.
+  final bool ambiguous;
+  final int timestamp;
+
+  /// Captura del frame y publicacion del resultado en ms del reloj de la
+  /// camara (ver [HandDetectionResult.captureTimestamp]).
+  final int captureTimestamp;
+  final int resultTimestamp;
+
+  GestureClassification({
+    required this.label,
+    required this.confidence,
+    required this.margin,
+    required this.ambiguous,
+    required this.timestamp,
+    this.captureTimestamp = 0,
+    this.resultTimestamp = 0,
+  });
+
+  factory GestureClassification.fromMap(Map<dynamic, dynamic> map) {
+    return GestureClassification(
+      label: map['label'] as String? ?? '',
+      confidence: (map['confidence'] as num?)?.toDouble() ?? 0.0,
+      margin: (map['margin'] as num?)?.toDouble() ?? 0.0,
+      ambiguous: map['ambiguous'] as bool? ?? true,
+      timestamp: (map['timestamp'] as num?)?.toInt() ?? 0,
+      captureTimestamp: (map['captureTimestamp'] as num?)?.toInt() ?? 0,
+      resultTimestamp: (map['resultTimestamp'] as num?)?.toInt() ?? 0,
+    );
+  }
+}
+
+/// Plantilla del clasificador local: los landmarks normalizados de una mano
+/// haciendo el gesto [label].
+class GestureTemplate {
+  final String label;
+  final List<HandLandmark> landmarks;
+  final String handedness;
+
+  GestureTemplate({
+    required this.label,
+    required this.landmarks,
+    this.handedness = 'Right',
+  });
+
+  /// Plantilla a partir de una mano detectada.
+  factory GestureTemplate.fromHand(String label, HandData hand) {
+    return GestureTemplate(
+      label: label,
+      landmarks: List<HandLandmark>.of(hand.landmarks),
+      handedness: hand.handedness,
+    );
+  }
+
+  Map<String, dynamic> toMap() => {
+        'label': label,
+        'handedness': handedness,
+        'landmarks': [
+          for (final lm in landmarks) ...[lm.x, lm.y, lm.z],
+        ],
+      };
+}
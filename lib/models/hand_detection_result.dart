@@ -1,4 +1,6 @@
+import 'dart:collection';
 import 'dart:math';
+import 'dart:typed_data';
 
 /// Representa un punto landmark de la mano con coordenadas x, y, z.
 class HandLandmark {
@@ -33,6 +35,37 @@ class HandData {
     required this.handednessScore,
   });
 
+  /// Construye la mano a partir del paquete binario enviado por
+  /// LandmarkPacker en Android. Los landmarks se leen del buffer solo
+  /// cuando se accede a ellos. [fields] es la mascara de campos opcionales
+  /// de la cabecera (ver [HandDetectionResult.fromBytes]).
+  factory HandData.fromPacked(ByteData data, int offset, int fields) {
+    var handednessCode = -1;
+    var score = 0.0;
+    if (fields & HandDetectionResult.fieldHandedness != 0) {
+      handednessCode = data.getInt32(offset, Endian.little);
+      score = data.getFloat32(offset + 4, Endian.little);
+      offset += 8;
+    }
+
+    final landmarks = _PackedLandmarkList(data, offset);
+    final worldLandmarks =
+        fields & HandDetectionResult.fieldWorldLandmarks != 0
+            ? _PackedLandmarkList(data, offset + _PackedLandmarkList.byteLength)
+            : const <HandLandmark>[];
+
+    return HandData(
+      landmarks: landmarks,
+      worldLandmarks: worldLandmarks,
+      handedness: switch (handednessCode) {
+        0 => 'Left',
+        1 => 'Right',
+        _ => 'Unknown',
+      },
+      handednessScore: score,
+    );
+  }
+
   factory HandData.fromMap(Map<String, dynamic> map) {
     final landmarksList = (map['landmarks'] as List<dynamic>? ?? [])
         .map((lm) => HandLandmark.fromMap(Map<String, dynamic>.from(lm)))
@@ -112,10 +145,23 @@ class HandDetectionResult {
   final List<HandData> hands;
   final int timestamp;
 
-  HandDetectionResult({required this.hands, required this.timestamp});
+  /// Captura del frame por el sensor y publicacion del resultado en el lado
+  /// nativo, en ms del reloj de la camara (no comparables con [timestamp]).
+  final int captureTimestamp;
+  final int resultTimestamp;
+
+  HandDetectionResult({
+    required this.hands,
+    required this.timestamp,
+    this.captureTimestamp = 0,
+    this.resultTimestamp = 0,
+  });
 
   bool get hasHands => hands.isNotEmpty;
 
+  /// Latencia desde la captura del frame hasta tener sus landmarks.
+  int get captureToResultMs => resultTimestamp - captureTimestamp;
+
   /// La primera mano detectada (o null si no hay ninguna).
   HandData? get firstHand => hands.isNotEmpty ? hands.first : null;
 
@@ -127,6 +173,120 @@ class HandDetectionResult {
     return HandDetectionResult(
       hands: handsList,
       timestamp: (map['timestamp'] as num?)?.toInt() ?? 0,
+      captureTimestamp: (map['captureTimestamp'] as num?)?.toInt() ?? 0,
+      resultTimestamp: (map['resultTimestamp'] as num?)?.toInt() ?? 0,
+    );
+  }
+
+  /// Campos opcionales de la mascara del paquete binario.
+  static const fieldWorldLandmarks = 1;
+  static const fieldHandedness = 1 << 1;
+
+  /// Decodifica el formato binario del canal hand_landmark_binary_stream.
+  ///
+  /// Formato (little-endian): int32 numero de manos, int32 mascara de
+  /// campos, int64 timestamp, int64 captura e int64 resultado (reloj de la
+  /// camara) y, por cada mano, int32 handedness y float32
+  /// score (si [fieldHandedness]), 21x3 float32 landmarks normalizados y
+  /// 21x3 float32 world landmarks (si [fieldWorldLandmarks]).
+  factory HandDetectionResult.fromBytes(Uint8List bytes) {
+    final data = ByteData.sublistView(bytes);
+    final handCount = data.getInt32(0, Endian.little);
+    final fields = data.getInt32(4, Endian.little);
+    final timestamp = data.getInt64(8, Endian.little);
+    final captureTimestamp = data.getInt64(16, Endian.little);
+    final resultTimestamp = data.getInt64(24, Endian.little);
+
+    var handBytes = _PackedLandmarkList.byteLength;
+    if (fields & fieldHandedness != 0) handBytes += 8;
+    if (fields & fieldWorldLandmarks != 0) {
+      handBytes += _PackedLandmarkList.byteLength;
+    }
+
+    final hands = List<HandData>.generate(
+      handCount,
+      (i) => HandData.fromPacked(data, _headerBytes + i * handBytes, fields),
+    );
+
+    return HandDetectionResult(
+      hands: hands,
+      timestamp: timestamp,
+      captureTimestamp: captureTimestamp,
+      resultTimestamp: resultTimestamp,
+    );
+  }
+
+  static const _headerBytes = 4 + 4 + 8 + 8 + 8;
+}
+
+/// Resultado de una imagen del lote de [HandDetectionService.landmarkImages].
+class BatchLandmarkResult {
+  /// Posicion de la imagen en la lista pedida; los resultados llegan en orden.
+  final int index;
+  final String path;
+
+  /// Imagenes entregadas hasta esta (incluida) y total del lote.
+  final int completed;
+  final int total;
+
+  /// Manos detectadas; null si la imagen no se pudo procesar ([error]).
+  final HandDetectionResult? result;
+  final String? error;
+
+  BatchLandmarkResult({
+    required this.index,
+    required this.path,
+    required this.completed,
+    required this.total,
+    this.result,
+    this.error,
+  });
+
+  double get progress => total == 0 ? 1.0 : completed / total;
+
+  factory BatchLandmarkResult.fromMap(Map<dynamic, dynamic> map) {
+    final error = map['error'] as String?;
+    return BatchLandmarkResult(
+      index: (map['index'] as num?)?.toInt() ?? 0,
+      path: map['path'] as String? ?? '',
+      completed: (map['completed'] as num?)?.toInt() ?? 0,
+      total: (map['total'] as num?)?.toInt() ?? 0,
+      result: error == null ? HandDetectionResult.fromMap(map) : null,
+      error: error,
     );
   }
 }
+
+/// Lista de landmarks respaldada por el buffer binario recibido de Android.
+/// Cada [HandLandmark] se crea al accederse, no al decodificar el evento.
+class _PackedLandmarkList extends ListBase<HandLandmark> {
+  static const landmarkCount = 21;
+  static const byteLength = landmarkCount * 3 * 4;
+
+  final ByteData _data;
+  final int _offset;
+
+  _PackedLandmarkList(this._data, this._offset);
+
+  @override
+  int get length => landmarkCount;
+
+  @override
+  set length(int newLength) =>
+      throw UnsupportedError('Lista de landmarks de solo lectura');
+
+  @override
+  HandLandmark operator [](int index) {
+    RangeError.checkValidIndex(index, this);
+    final base = _offset + index * 12;
+    return HandLandmark(
+      x: _data.getFloat32(base, Endian.little),
+      y: _data.getFloat32(base + 4, Endian.little),
+      z: _data.getFloat32(base + 8, Endian.little),
+    );
+  }
+
+  @override
+  void operator []=(int index, HandLandmark value) =>
+      throw UnsupportedError('Lista de landmarks de solo lectura');
+}
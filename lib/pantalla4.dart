@@ -49,7 +49,16 @@ class _Pantalla4State extends State<Pantalla4> {
       );
 
       // Iniciar deteccion con preview
-      await _detectionService.startDetectionWithPreview();
+      // Modo libre: se siguen las dos manos (_handsDetected), pero solo se
+      // envian a la API los landmarks normalizados de la primera
+      await _detectionService.startDetectionWithPreview(
+        inputMode: 'auto',
+        maxHands: 2,
+        includeWorldLandmarks: false,
+        emitOnlyOnChange: true,
+        // Sin recorte a la mano: hasta medir que compensa (getMetrics()['roi'])
+        cropToHand: false,
+      );
 
       if (mounted) {
         setState(() {
@@ -84,17 +93,28 @@ class _Pantalla4State extends State<Pantalla4> {
     }
 
     if (result.hasHands && !_isProcessingApi) {
-      _sendToApi(result.firstHand!);
+      _sendToApi(result);
     }
   }
 
-  Future<void> _sendToApi(HandData handData) async {
+  Future<void> _sendToApi(HandDetectionResult result) async {
     if (_isProcessingApi) return;
+
+    // Clasificacion local sin ambiguedad de este frame: no hace falta consultar la API
+    final local = _detectionService.confidentGestureFor(result);
+    if (local != null) {
+      setState(() {
+        _detectedSign = local.label;
+        _confidence = local.confidence;
+      });
+      return;
+    }
+
     _isProcessingApi = true;
 
     try {
       final response = await _apiService.sendLandmarks(
-        handData: handData,
+        handData: result.firstHand!,
         palabraObjetivo: '', // Pantalla4 no tiene palabra objetivo (modo libre)
       );
 
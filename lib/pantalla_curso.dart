@@ -59,7 +59,15 @@ class _PantallaCursoState extends State<PantallaCurso> {
         _onLandmarkData,
       );
 
-      await _detectionService.startDetectionWithPreview();
+      // Solo se usa la primera mano y sus landmarks normalizados
+      await _detectionService.startDetectionWithPreview(
+        inputMode: 'auto',
+        maxHands: 1,
+        includeWorldLandmarks: false,
+        emitOnlyOnChange: true,
+        // Sin recorte a la mano: hasta medir que compensa (getMetrics()['roi'])
+        cropToHand: false,
+      );
 
       if (mounted) {
         setState(() {
@@ -80,17 +88,27 @@ class _PantallaCursoState extends State<PantallaCurso> {
 
     // Solo enviar a la API si el juego esta en marcha y hay mano detectada
     if (_juegoIniciado && !_esperandoRespuesta && result.hasHands && !_isSendingToApi) {
-      _enviarAApi(result.firstHand!);
+      _enviarAApi(result);
     }
   }
 
-  Future<void> _enviarAApi(HandData handData) async {
+  Future<void> _enviarAApi(HandDetectionResult result) async {
     if (_isSendingToApi) return;
+
+    // Clasificacion local sin ambiguedad de este frame: no hace falta consultar la API
+    final local = _detectionService.confidentGestureFor(result);
+    if (local != null) {
+      if (_juegoIniciado && !_esperandoRespuesta && local.label == _palabraActual) {
+        _verificarRespuesta(true);
+      }
+      return;
+    }
+
     _isSendingToApi = true;
 
     try {
       final response = await _apiService.sendLandmarks(
-        handData: handData,
+        handData: result.firstHand!,
         palabraObjetivo: _palabraActual,
       );
 
@@ -1,7 +1,52 @@
 import 'dart:async';
+import 'dart:typed_data';
 import 'package:flutter/services.dart';
+import '../models/gesture_classification.dart';
 import '../models/hand_detection_result.dart';
 
+/// Suavizado de landmarks aplicado en el lado nativo antes de enviarlos.
+class LandmarkSmoothing {
+  final String mode;
+  final double minCutoff;
+  final double beta;
+  final double processNoise;
+  final double measurementNoise;
+
+  const LandmarkSmoothing._(
+    this.mode, {
+    this.minCutoff = 1.0,
+    this.beta = 10.0,
+    this.processNoise = 1.0,
+    this.measurementNoise = 1e-4,
+  });
+
+  /// Sin suavizado.
+  static const none = LandmarkSmoothing._('none');
+
+  /// Filtro One Euro: [minCutoff] (Hz) controla el temblor en reposo y
+  /// [beta] cuanto se reduce el retardo al moverse rapido.
+  const LandmarkSmoothing.oneEuro({double minCutoff = 1.0, double beta = 10.0})
+      : this._('oneEuro', minCutoff: minCutoff, beta: beta);
+
+  /// Kalman de velocidad constante por coordenada.
+  const LandmarkSmoothing.kalman({
+    double processNoise = 1.0,
+    double measurementNoise = 1e-4,
+  }) : this._(
+          'kalman',
+          processNoise: processNoise,
+          measurementNoise: measurementNoise,
+        );
+
+  Map<String, dynamic> toArguments() => {
+        'smoothing': mode,
+        'smoothingMinCutoff': minCutoff,
+        'smoothingBeta': beta,
+        'smoothingProcessNoise': processNoise,
+        'smoothingMeasurementNoise': measurementNoise,
+      };
+}
+
 /// Servicio singleton que encapsula la comunicacion con el plugin nativo
 /// de MediaPipe para deteccion de manos.
 ///
@@ -16,13 +61,25 @@ class HandDetectionService {
       MethodChannel('com.example.proyecto_v1_0/hand_landmark');
   static const _eventChannel =
       EventChannel('com.example.proyecto_v1_0/hand_landmark_stream');
+  static const _binaryEventChannel =
+      EventChannel('com.example.proyecto_v1_0/hand_landmark_binary_stream');
+  static const _gestureEventChannel =
+      EventChannel('com.example.proyecto_v1_0/hand_gesture_stream');
+  static const _metricsEventChannel =
+      EventChannel('com.example.proyecto_v1_0/hand_landmark_metrics_stream');
+  static const _batchEventChannel =
+      EventChannel('com.example.proyecto_v1_0/hand_landmark_batch_stream');
 
   StreamSubscription? _streamSubscription;
+  StreamSubscription? _gestureSubscription;
   final StreamController<HandDetectionResult> _resultController =
       StreamController<HandDetectionResult>.broadcast();
+  final StreamController<GestureClassification> _gestureController =
+      StreamController<GestureClassification>.broadcast();
 
   bool _isDetecting = false;
   HandDetectionResult? _lastResult;
+  GestureClassification? _lastGesture;
 
   /// Stream de resultados de deteccion en tiempo real.
   Stream<HandDetectionResult> get landmarkStream => _resultController.stream;
@@ -33,19 +90,131 @@ class HandDetectionService {
   /// Ultimo resultado recibido (puede ser null si no se ha detectado nada aun).
   HandDetectionResult? get lastResult => _lastResult;
 
+  /// Stream de gestos clasificados en el dispositivo (solo hay eventos si se
+  /// han cargado plantillas con [setGestureTemplates] y hay una mano).
+  Stream<GestureClassification> get gestureStream => _gestureController.stream;
+
+  /// Ultimo gesto clasificado localmente mientras sigue habiendo mano.
+  GestureClassification? get lastGesture => _lastGesture;
+
+  /// Clasificacion no ambigua del mismo frame que [result]; null si hay que
+  /// consultar la API. El gesto llega por otro canal justo antes que los
+  /// landmarks de su frame, asi que solo vale si coincide el
+  /// `captureTimestamp` (con `emitOnlyOnChange` el ultimo gesto puede ser de
+  /// muchos frames antes).
+  GestureClassification? confidentGestureFor(HandDetectionResult result) {
+    final gesture = _lastGesture;
+    if (gesture == null || gesture.ambiguous) return null;
+    return gesture.captureTimestamp == result.captureTimestamp ? gesture : null;
+  }
+
   /// Inicia la deteccion de manos en modo headless (sin preview de camara).
   /// Usado por test_pantalla_curso.
-  Future<void> startDetection() async {
+  ///
+  /// Con [zeroCopyInput] el plano RGBA de la camara se pasa directamente a
+  /// MediaPipe (la rotacion se aplica como opcion, sin copiar a Bitmap).
+  ///
+  /// [inputMode] tiene prioridad sobre [zeroCopyInput]: 'buffer', 'bitmap',
+  /// 'yuv' (la camara entrega YUV y se convierte a RGB en nativo, ya rotado
+  /// y reducido) o 'auto' (se elige entre 'yuv' y 'buffer' con un benchmark
+  /// en el primer arranque; el camino elegido aparece en [getEngineInfo]).
+  ///
+  /// [analysisWidth] x [analysisHeight] es la resolucion que se pide para el
+  /// analisis (independiente del preview): CameraX usa la mas cercana por
+  /// debajo con la misma relacion de aspecto. El modelo trabaja a 224x224,
+  /// asi que 640x480 basta y evita copiar frames 1080p. Con 0 se usa la
+  /// resolucion por defecto del dispositivo. La negociada se consulta con
+  /// [getAnalysisResolution].
+  ///
+  /// Con [cropToHand], mientras se sigue una mano solo se envia a MediaPipe
+  /// un cuadrado alrededor de su posicion en el frame anterior (se vuelve al
+  /// frame completo al perderla). Los landmarks siguen llegando en
+  /// coordenadas del frame completo. El modelo recibe siempre el mismo
+  /// tamano y el recorte movil puede romper el seguimiento de MediaPipe:
+  /// activarlo solo si `roi` en [getMetrics] muestra que mejora.
+  ///
+  /// Con [pipelined] la conversion, la inferencia y el envio de resultados
+  /// van en hilos nativos separados con colas de un elemento, de modo que el
+  /// frame siguiente se prepara mientras MediaPipe procesa el actual. Los
+  /// descartes de cada etapa aparecen en [getFrameRate].
+  ///
+  /// Con [binaryTransport] los resultados llegan empaquetados en un unico
+  /// buffer por frame en lugar de Maps anidados (ver
+  /// [HandDetectionResult.fromBytes]).
+  ///
+  /// [maxHands], [includeWorldLandmarks] e [includeHandedness] limitan lo
+  /// que el lado nativo construye y envia por evento. Los landmarks
+  /// normalizados se envian siempre.
+  ///
+  /// El regulador nativo baja los fps cuando los frames se descartan por
+  /// llegar con el detector ocupado y los sube hasta la tasa que el detector
+  /// puede sostener (ver [getFrameRate]). [latencyBudgetMs] es la latencia
+  /// por encima de la cual un frame que ha esperado en cola dentro de
+  /// MediaPipe tambien cuenta como exceso de fps.
+  ///
+  /// [maxInFlight] limita los frames que puede haber a la vez dentro de
+  /// MediaPipe. Al alcanzarlo, con [dropPolicy] 'dropIncoming' se descarta
+  /// el frame nuevo y con 'expireStale' se da por perdido el frame mas
+  /// antiguo si lleva demasiado tiempo esperando.
+  ///
+  /// [smoothing] activa un filtro nativo sobre los landmarks (One Euro o
+  /// Kalman) para que haga falta agregar menos frames en Dart o en la API.
+  ///
+  /// Con [emitOnlyOnChange] el lado nativo solo envia un resultado cuando la
+  /// pose se ha movido mas de [motionThreshold] (distancia media por
+  /// landmark, en fraccion de la imagen) respecto al ultimo enviado, cuando
+  /// cambian las manos presentes o cada [windowFrames] frames. Mientras se
+  /// mantiene un signo quieto llegan muchos menos eventos.
+  Future<void> startDetection({
+    bool zeroCopyInput = true,
+    String? inputMode,
+    int analysisWidth = 640,
+    int analysisHeight = 480,
+    bool cropToHand = false,
+    bool pipelined = true,
+    bool binaryTransport = false,
+    int maxHands = 2,
+    bool includeWorldLandmarks = true,
+    bool includeHandedness = true,
+    int? latencyBudgetMs,
+    int maxInFlight = 1,
+    String dropPolicy = 'dropIncoming',
+    LandmarkSmoothing? smoothing,
+    bool emitOnlyOnChange = false,
+    double motionThreshold = 0.01,
+    int windowFrames = 15,
+  }) async {
     if (_isDetecting) return;
 
-    _setupStreamListener();
+    _setupStreamListener(binaryTransport: binaryTransport);
 
     try {
-      await _methodChannel.invokeMethod('startHandDetection');
+      await _methodChannel.invokeMethod(
+        'startHandDetection',
+        _startArguments(
+          zeroCopyInput: zeroCopyInput,
+          inputMode: inputMode,
+          analysisWidth: analysisWidth,
+          analysisHeight: analysisHeight,
+          cropToHand: cropToHand,
+          pipelined: pipelined,
+          maxHands: maxHands,
+          includeWorldLandmarks: includeWorldLandmarks,
+          includeHandedness: includeHandedness,
+          latencyBudgetMs: latencyBudgetMs,
+          maxInFlight: maxInFlight,
+          dropPolicy: dropPolicy,
+          smoothing: smoothing,
+          emitOnlyOnChange: emitOnlyOnChange,
+          motionThreshold: motionThreshold,
+          windowFrames: windowFrames,
+        ),
+      );
       _isDetecting = true;
     } on PlatformException catch (e) {
       _isDetecting = false;
       _streamSubscription?.cancel();
+      _gestureSubscription?.cancel();
       rethrow;
     }
   }
@@ -53,25 +222,357 @@ class HandDetectionService {
   /// Inicia la deteccion de manos CON preview de camara.
   /// El AndroidView con el PreviewView debe estar ya montado en el widget tree
   /// antes de llamar a este metodo.
-  Future<void> startDetectionWithPreview() async {
+  Future<void> startDetectionWithPreview({
+    bool zeroCopyInput = true,
+    String? inputMode,
+    int analysisWidth = 640,
+    int analysisHeight = 480,
+    bool cropToHand = false,
+    bool pipelined = true,
+    bool binaryTransport = false,
+    int maxHands = 2,
+    bool includeWorldLandmarks = true,
+    bool includeHandedness = true,
+    int? latencyBudgetMs,
+    int maxInFlight = 1,
+    String dropPolicy = 'dropIncoming',
+    LandmarkSmoothing? smoothing,
+    bool emitOnlyOnChange = false,
+    double motionThreshold = 0.01,
+    int windowFrames = 15,
+  }) async {
+    if (_isDetecting) return;
+
+    _setupStreamListener(binaryTransport: binaryTransport);
+
+    try {
+      await _methodChannel.invokeMethod(
+        'startHandDetectionWithPreview',
+        _startArguments(
+          zeroCopyInput: zeroCopyInput,
+          inputMode: inputMode,
+          analysisWidth: analysisWidth,
+          analysisHeight: analysisHeight,
+          cropToHand: cropToHand,
+          pipelined: pipelined,
+          maxHands: maxHands,
+          includeWorldLandmarks: includeWorldLandmarks,
+          includeHandedness: includeHandedness,
+          latencyBudgetMs: latencyBudgetMs,
+          maxInFlight: maxInFlight,
+          dropPolicy: dropPolicy,
+          smoothing: smoothing,
+          emitOnlyOnChange: emitOnlyOnChange,
+          motionThreshold: motionThreshold,
+          windowFrames: windowFrames,
+        ),
+      );
+      _isDetecting = true;
+    } on PlatformException catch (e) {
+      _isDetecting = false;
+      _streamSubscription?.cancel();
+      _gestureSubscription?.cancel();
+      rethrow;
+    }
+  }
+
+  /// Inicia la deteccion sobre un fichero de frames RGBA grabados en el
+  /// dispositivo en lugar de la camara, para medir el rendimiento de forma
+  /// reproducible (por ejemplo en un emulador).
+  ///
+  /// [fps] fija el ritmo de reproduccion; 0 entrega los frames tan rapido
+  /// como los procesa el motor y sin indicarlo se usa el del fichero. Con
+  /// [loop] el fichero se repite hasta [stopDetection].
+  Future<void> startReplay(
+    String path, {
+    double? fps,
+    bool loop = false,
+    bool cropToHand = false,
+    bool pipelined = true,
+    bool binaryTransport = false,
+    int maxHands = 2,
+    bool includeWorldLandmarks = true,
+    bool includeHandedness = true,
+    int? latencyBudgetMs,
+    int maxInFlight = 1,
+    String dropPolicy = 'dropIncoming',
+    LandmarkSmoothing? smoothing,
+  }) async {
     if (_isDetecting) return;
 
-    _setupStreamListener();
+    _setupStreamListener(binaryTransport: binaryTransport);
 
     try {
-      await _methodChannel.invokeMethod('startHandDetectionWithPreview');
+      await _methodChannel.invokeMethod('startReplay', {
+        ..._startArguments(
+          zeroCopyInput: true,
+          analysisWidth: 640,
+          analysisHeight: 480,
+          cropToHand: cropToHand,
+          pipelined: pipelined,
+          maxHands: maxHands,
+          includeWorldLandmarks: includeWorldLandmarks,
+          includeHandedness: includeHandedness,
+          latencyBudgetMs: latencyBudgetMs,
+          maxInFlight: maxInFlight,
+          dropPolicy: dropPolicy,
+          smoothing: smoothing,
+          emitOnlyOnChange: false,
+          motionThreshold: 0.01,
+          windowFrames: 15,
+        ),
+        'path': path,
+        if (fps != null) 'fps': fps,
+        'loop': loop,
+      });
       _isDetecting = true;
     } on PlatformException catch (e) {
       _isDetecting = false;
       _streamSubscription?.cancel();
+      _gestureSubscription?.cancel();
       rethrow;
     }
   }
 
-  /// Detiene la deteccion y libera recursos.
+  /// Cambia las opciones del HandLandmarker sin reiniciar la camara.
+  ///
+  /// Los parametros omitidos mantienen su valor actual. [delegate] puede ser
+  /// 'cpu' o 'gpu' (con 'gpu' se vuelve a CPU si la GPU falla). En
+  /// dispositivos lentos conviene bajar a una mano y subir
+  /// [minTrackingConfidence] para que el detector de palma se ejecute menos.
+  /// Si la deteccion no esta activa, se aplica en el siguiente inicio.
+  ///
+  /// Devuelve lo mismo que [getEngineInfo].
+  Future<Map<String, dynamic>> configure({
+    int? maxHands,
+    double? minDetectionConfidence,
+    double? minPresenceConfidence,
+    double? minTrackingConfidence,
+    String? delegate,
+  }) async {
+    final info = await _methodChannel.invokeMethod<Map>('configure', {
+      if (maxHands != null) 'maxHands': maxHands,
+      if (minDetectionConfidence != null)
+        'minDetectionConfidence': minDetectionConfidence,
+      if (minPresenceConfidence != null)
+        'minPresenceConfidence': minPresenceConfidence,
+      if (minTrackingConfidence != null)
+        'minTrackingConfidence': minTrackingConfidence,
+      if (delegate != null) 'delegate': delegate,
+    });
+    return Map<String, dynamic>.from(info ?? const {});
+  }
+
+  /// Estado del regulador de fps nativo:
+  /// - `targetFps`: fps que se estan enviando a MediaPipe
+  /// - `outputFps`: resultados por segundo realmente recibidos
+  /// - `latencyMs`: latencia media detectAsync -> resultado (-1 sin medidas)
+  /// - `sustainableFps`: fps que el detector puede sostener con esa latencia
+  ///   (-1 sin medidas); el objetivo no sube por encima
+  /// - `inFlight`: frames enviados cuyo resultado aun no ha llegado
+  /// - `maxInFlight`: limite de frames en vuelo
+  /// - `droppedFrames`: frames descartados por alcanzar ese limite
+  /// - `expiredFrames`: frames dados por perdidos dentro de MediaPipe (sin
+  ///   resultado a tiempo); su resultado tardio ya no libera otro hueco
+  /// - `coalescedEvents`: resultados sustituidos por otro mas reciente antes
+  ///   de llegar al hilo principal
+  /// - `suppressedEvents`: resultados no enviados por no cambiar la pose
+  /// - `croppedFrames`: frames enviados recortados a la region de la mano
+  /// - `motion`: movimiento del ultimo resultado respecto al ultimo enviado
+  ///   (-1 si cambiaron las manos presentes)
+  /// - `pipelined`: si las etapas van en hilos separados
+  /// - `preprocessDrops`, `inferenceDrops`, `serializeDrops`: frames
+  ///   sustituidos en la cola de cada etapa por uno mas reciente
+  Future<Map<String, dynamic>> getFrameRate() async {
+    final info = await _methodChannel.invokeMethod<Map>('getFrameRate');
+    return Map<String, dynamic>.from(info ?? const {});
+  }
+
+  /// Metricas del pipeline nativo, enviadas cada segundo mientras haya
+  /// algun oyente. Mismo formato que [getMetrics].
+  Stream<Map<String, dynamic>> get metricsStream => _metricsEventChannel
+      .receiveBroadcastStream()
+      .map((event) => _metricsFromMap(event as Map));
+
+  /// Latencias por etapa del pipeline nativo desde el ultimo start:
+  /// - `stages`: por etapa (`arrival`, `conversion`, `rotation`, `inference`,
+  ///   `serialization`, `delivery`) un Map con `count`, `meanMs`, `p50Ms`,
+  ///   `p90Ms`, `p99Ms` y `maxMs`. `arrival` es el intervalo entre frames
+  ///   y `delivery` el retardo hasta el hilo principal
+  /// - `framesArrived`, `framesSkipped`: frames recibidos de la camara y
+  ///   saltados por el regulador de fps
+  /// - `drops`: frames descartados en cada punto (`governor`, `inFlight`,
+  ///   `preprocess`, `inference`, `serialize`, `coalesced`, `suppressed`)
+  /// - `roi`: medidas para decidir si compensa `cropToHand`: `enabled` y,
+  ///   para frames completos (`full...`) y recortados (`cropped...`),
+  ///   `Frames`, `InferenceMs` (media), `SlowFrames` (frames con mas de 1,5
+  ///   veces la latencia base, sin distinguir la causa) y `HandLosses`
+  ///   (resultados sin mano tras uno con mano)
+  Future<Map<String, dynamic>> getMetrics() async {
+    final info = await _methodChannel.invokeMethod<Map>('getMetrics');
+    return _metricsFromMap(info ?? const {});
+  }
+
+  static Map<String, dynamic> _metricsFromMap(Map map) {
+    final metrics = Map<String, dynamic>.from(map);
+    final stages = metrics['stages'];
+    if (stages is Map) {
+      metrics['stages'] = stages.map((name, stage) => MapEntry(
+          name as String, Map<String, dynamic>.from(stage as Map)));
+    }
+    final drops = metrics['drops'];
+    if (drops is Map) {
+      metrics['drops'] = Map<String, dynamic>.from(drops);
+    }
+    return metrics;
+  }
+
+  /// Informacion del motor de inferencia nativo:
+  /// - `requestedDelegate`: delegate pedido ('cpu' o 'gpu')
+  /// - `delegate`: delegate realmente en uso (null si aun no se ha cargado)
+  /// - `warmupMs`: latencia de la inferencia de calentamiento (-1 si no hubo)
+  /// - `inputMode`: camino de entrada de la camara ('buffer', 'bitmap' o 'yuv')
+  /// - `warm`: si el landmarker esta cargado (se precarga al abrir la app y
+  ///   se mantiene entre [stopDetection] y el siguiente inicio)
+  Future<Map<String, dynamic>> getEngineInfo() async {
+    final info = await _methodChannel.invokeMethod<Map>('getEngineInfo');
+    return Map<String, dynamic>.from(info ?? const {});
+  }
+
+  /// Carga las plantillas del clasificador de gestos nativo.
+  ///
+  /// Cada frame con mano se compara con las plantillas (vecino mas cercano
+  /// sobre landmarks centrados en la muneca) y el resultado llega por
+  /// [gestureStream]. Un resultado fuera de [maxDistance] o con menos de
+  /// [minConfidence] / [minMargin] se marca como ambiguo. Una lista vacia
+  /// desactiva la clasificacion. Devuelve el numero de plantillas cargadas.
+  Future<int> setGestureTemplates(
+    List<GestureTemplate> templates, {
+    double maxDistance = 0.5,
+    double minConfidence = 0.6,
+    double minMargin = 0.25,
+  }) async {
+    final count = await _methodChannel.invokeMethod<int>('setGestureTemplates', {
+      'templates': [for (final t in templates) t.toMap()],
+      'maxDistance': maxDistance,
+      'minConfidence': minConfidence,
+      'minMargin': minMargin,
+    });
+    _lastGesture = null;
+    return count ?? 0;
+  }
+
+  /// Resolucion del analisis:
+  /// - `requestedWidth` / `requestedHeight`: la pedida (0 = por defecto)
+  /// - `width` / `height`: la negociada por CameraX, en orientacion del
+  ///   sensor (-1 si la camara aun no esta vinculada)
+  /// - `rotationDegrees`: rotacion que se aplica a cada frame
+  Future<Map<String, dynamic>> getAnalysisResolution() async {
+    final info = await _methodChannel.invokeMethod<Map>('getAnalysisResolution');
+    return Map<String, dynamic>.from(info ?? const {});
+  }
+
+  /// Detecta las manos de una lista de imagenes (assets como
+  /// `assets/images/a.png` o rutas absolutas) fuera de la deteccion en vivo,
+  /// por ejemplo para construir plantillas de gestos.
+  ///
+  /// Las imagenes se reparten entre [workers] landmarkers nativos en
+  /// paralelo (por defecto uno por nucleo) y los resultados llegan en el
+  /// orden de [paths], con el progreso. El stream se cierra al terminar el
+  /// lote; cancelar la suscripcion cancela el lote.
+  Stream<BatchLandmarkResult> landmarkImages(List<String> paths, {int? workers}) {
+    late StreamController<BatchLandmarkResult> controller;
+    StreamSubscription? subscription;
+    int? batch;
+    var finished = false;
+
+    controller = StreamController<BatchLandmarkResult>(
+      onListen: () async {
+        subscription = _batchEventChannel.receiveBroadcastStream().listen(
+          (data) {
+            if (data is! Map || data['batch'] != batch) return;
+            if (data['done'] == true) {
+              finished = true;
+              subscription?.cancel();
+              controller.close();
+            } else {
+              controller.add(BatchLandmarkResult.fromMap(data));
+            }
+          },
+          onError: controller.addError,
+        );
+        try {
+          final info = await _methodChannel.invokeMethod<Map>('startBatch', {
+            'paths': paths,
+            if (workers != null) 'workers': workers,
+          });
+          batch = info?['batch'] as int?;
+        } on PlatformException catch (e) {
+          finished = true;
+          subscription?.cancel();
+          controller.addError(e);
+          controller.close();
+        }
+      },
+      onCancel: () async {
+        await subscription?.cancel();
+        if (batch != null && !finished) {
+          await _methodChannel.invokeMethod('cancelBatch');
+        }
+      },
+    );
+    return controller.stream;
+  }
+
+  /// Empieza a grabar en el dispositivo los resultados de cada frame.
+  ///
+  /// Se guardan en un fichero binario (cabecera y un registro de tamano fijo
+  /// por frame con landmarks cuantizados) en `files/sessions/`. Sin
+  /// [fileName] se usa `session_<fecha>.hlr`. Devuelve la ruta del fichero.
+  Future<String?> startRecording({String? fileName}) async {
+    return _methodChannel.invokeMethod<String>('startRecording', {
+      'fileName': fileName,
+    });
+  }
+
+  /// Termina la grabacion y devuelve `path`, `records`, `droppedRecords` y
+  /// `bytes`. Vacio si no se estaba grabando.
+  Future<Map<String, dynamic>> stopRecording() async {
+    final info = await _methodChannel.invokeMethod<Map>('stopRecording');
+    return Map<String, dynamic>.from(info ?? const {});
+  }
+
+  /// Extrae la pista de landmarks de un video ([videoPath] absoluto o asset
+  /// de Flutter) sin reproducirlo: se decodifica en el dispositivo y se
+  /// procesa tan rapido como permita la inferencia.
+  ///
+  /// El resultado se guarda con el formato de [startRecording] en
+  /// `files/sessions/` (sin [fileName], `video_<fecha>.hlr`). Devuelve
+  /// `output`, `frames`, `records`, `bytes`, `durationMs`, `elapsedMs`,
+  /// `speed` (veces el tiempo real) y `cancelled`.
+  Future<Map<String, dynamic>> extractVideoLandmarks(
+    String videoPath, {
+    String? fileName,
+  }) async {
+    final info = await _methodChannel.invokeMethod<Map>('processVideo', {
+      'path': videoPath,
+      'fileName': fileName,
+    });
+    return Map<String, dynamic>.from(info ?? const {});
+  }
+
+  /// Cancela [extractVideoLandmarks]; su resultado llega con lo procesado.
+  Future<void> cancelVideoExtraction() async {
+    await _methodChannel.invokeMethod('cancelVideo');
+  }
+
+  /// Detiene la deteccion. El modelo sigue cargado para el siguiente inicio;
+  /// Android lo libera si falta memoria o al cerrar la actividad.
   Future<void> stopDetection() async {
     _streamSubscription?.cancel();
     _streamSubscription = null;
+    _gestureSubscription?.cancel();
+    _gestureSubscription = null;
 
     try {
       await _methodChannel.invokeMethod('stopHandDetection');
@@ -81,15 +582,61 @@ class HandDetectionService {
 
     _isDetecting = false;
     _lastResult = null;
+    _lastGesture = null;
   }
 
-  void _setupStreamListener() {
+  Map<String, dynamic> _startArguments({
+    required bool zeroCopyInput,
+    String? inputMode,
+    required int analysisWidth,
+    required int analysisHeight,
+    required bool cropToHand,
+    required bool pipelined,
+    required int maxHands,
+    required bool includeWorldLandmarks,
+    required bool includeHandedness,
+    int? latencyBudgetMs,
+    required int maxInFlight,
+    required String dropPolicy,
+    LandmarkSmoothing? smoothing,
+    required bool emitOnlyOnChange,
+    required double motionThreshold,
+    required int windowFrames,
+  }) {
+    return {
+      'inputMode': inputMode ?? (zeroCopyInput ? 'buffer' : 'bitmap'),
+      'analysisWidth': analysisWidth,
+      'analysisHeight': analysisHeight,
+      'roiCropping': cropToHand,
+      'pipelined': pipelined,
+      'maxHands': maxHands,
+      'worldLandmarks': includeWorldLandmarks,
+      'handedness': includeHandedness,
+      if (latencyBudgetMs != null) 'latencyBudgetMs': latencyBudgetMs,
+      'maxInFlight': maxInFlight,
+      'dropPolicy': dropPolicy,
+      ...?smoothing?.toArguments(),
+      'emitMode': emitOnlyOnChange ? 'onChange' : 'always',
+      'motionThreshold': motionThreshold,
+      'windowFrames': windowFrames,
+    };
+  }
+
+  void _setupStreamListener({bool binaryTransport = false}) {
     _streamSubscription?.cancel();
-    _streamSubscription = _eventChannel.receiveBroadcastStream().listen(
+    final channel = binaryTransport ? _binaryEventChannel : _eventChannel;
+    _streamSubscription = channel.receiveBroadcastStream().listen(
       (data) {
-        if (data != null && data is Map) {
-          final result = HandDetectionResult.fromMap(data);
+        HandDetectionResult? result;
+        if (data is Uint8List) {
+          result = HandDetectionResult.fromBytes(data);
+        } else if (data is Map) {
+          result = HandDetectionResult.fromMap(data);
+        }
+        if (result != null) {
           _lastResult = result;
+          // Sin mano no hay clasificacion: el ultimo gesto ya no vale
+          if (!result.hasHands) _lastGesture = null;
           _resultController.add(result);
         }
       },
@@ -97,11 +644,24 @@ class HandDetectionService {
         _isDetecting = false;
       },
     );
+
+    _gestureSubscription?.cancel();
+    _gestureSubscription = _gestureEventChannel.receiveBroadcastStream().listen(
+      (data) {
+        if (data is Map) {
+          final gesture = GestureClassification.fromMap(data);
+          _lastGesture = gesture;
+          _gestureController.add(gesture);
+        }
+      },
+    );
   }
 
   /// Libera todos los recursos. Llamar cuando la app se cierra.
   void dispose() {
     _streamSubscription?.cancel();
+    _gestureSubscription?.cancel();
     _resultController.close();
+    _gestureController.close();
   }
 }